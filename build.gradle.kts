@@ -46,6 +46,17 @@ tasks {
     dependsOn(sourcesJar)
     dependsOn(javadocJar)
   }
+
+  test {
+    useJUnitPlatform()
+  }
+
+  register<JavaExec>("segmentedDownloadBenchmark") {
+    group = "verification"
+    description = "Compares segmented and single connection downloads against a throttled local repository."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("tr.com.infumia.small.benchmark.SegmentedDownloadBenchmark")
+  }
 }
 
 repositories {
@@ -61,6 +72,8 @@ dependencies {
 
   testImplementation(lombokLibrary)
   testImplementation(annotationsLibrary)
+  testImplementation(junitLibrary)
+  testImplementation(jarRelocatorLibrary)
 
   testAnnotationProcessor(lombokLibrary)
   testAnnotationProcessor(annotationsLibrary)
@@ -1,3 +1,7 @@
 const val lombokLibrary = "org.projectlombok:lombok:$lombokVersion"
 
 const val annotationsLibrary = "org.jetbrains:annotations:$annotationsVersion"
+
+const val junitLibrary = "org.junit.jupiter:junit-jupiter:$junitVersion"
+
+const val jarRelocatorLibrary = "me.lucko:jar-relocator:$jarRelocatorVersion"
@@ -3,3 +3,9 @@ const val lombokVersion = "1.18.24"
 
 // renovate: datasource=maven dep=org.jetbrains:annotations
 const val annotationsVersion = "23.0.0"
+
+// renovate: datasource=maven dep=org.junit.jupiter:junit-jupiter
+const val junitVersion = "5.9.1"
+
+// renovate: datasource=maven dep=me.lucko:jar-relocator
+const val jarRelocatorVersion = "1.4"
@@ -40,12 +40,14 @@ import tr.com.infumia.small.downloader.URLDependencyDownloaderFactory;
 import tr.com.infumia.small.downloader.output.DependencyOutputWriterFactory;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
 import tr.com.infumia.small.downloader.strategy.ChecksumFilePathStrategy;
+import tr.com.infumia.small.downloader.strategy.ContentStore;
 import tr.com.infumia.small.downloader.strategy.FilePathStrategy;
 import tr.com.infumia.small.downloader.verify.ChecksumCalculator;
 import tr.com.infumia.small.downloader.verify.ChecksumDependencyVerifierFactory;
 import tr.com.infumia.small.downloader.verify.DependencyVerifierFactory;
 import tr.com.infumia.small.downloader.verify.FileChecksumCalculator;
 import tr.com.infumia.small.downloader.verify.PassthroughDependencyVerifierFactory;
+import tr.com.infumia.small.downloader.verify.VerificationIndex;
 import tr.com.infumia.small.injector.DependencyInjector;
 import tr.com.infumia.small.injector.DependencyInjectorFactory;
 import tr.com.infumia.small.injector.SimpleDependencyInjectorFactory;
@@ -55,8 +57,10 @@ import tr.com.infumia.small.logging.LogDispatcher;
 import tr.com.infumia.small.logging.MediatingProcessLogger;
 import tr.com.infumia.small.logging.ProcessLogger;
 import tr.com.infumia.small.relocation.JarFileRelocatorFactory;
+import tr.com.infumia.small.relocation.RelocationFingerprint;
 import tr.com.infumia.small.relocation.RelocatorFactory;
 import tr.com.infumia.small.relocation.facade.JarRelocatorFacadeFactory;
+import tr.com.infumia.small.relocation.facade.NativeJarRelocatorFacadeFactory;
 import tr.com.infumia.small.relocation.facade.ReflectiveJarRelocatorFacadeFactory;
 import tr.com.infumia.small.relocation.helper.RelocationHelperFactory;
 import tr.com.infumia.small.relocation.helper.VerifyingRelocationHelperFactory;
@@ -64,20 +68,24 @@ import tr.com.infumia.small.relocation.meta.FlatFileMetaMediatorFactory;
 import tr.com.infumia.small.relocation.meta.MetaMediatorFactory;
 import tr.com.infumia.small.resolver.CachingDependencyResolverFactory;
 import tr.com.infumia.small.resolver.DependencyResolverFactory;
+import tr.com.infumia.small.resolver.ResolutionCache;
 import tr.com.infumia.small.resolver.data.Repository;
 import tr.com.infumia.small.resolver.enquirer.PingingRepositoryEnquirerFactory;
+import tr.com.infumia.small.resolver.enquirer.RepositoryCircuitBreaker;
 import tr.com.infumia.small.resolver.enquirer.RepositoryEnquirerFactory;
+import tr.com.infumia.small.resolver.enquirer.RepositoryStatistics;
+import tr.com.infumia.small.resolver.graph.VersionMediator;
 import tr.com.infumia.small.resolver.mirrors.MirrorSelector;
+import tr.com.infumia.small.resolver.mirrors.RankingMirrorSelector;
 import tr.com.infumia.small.resolver.mirrors.SimpleMirrorSelector;
+import tr.com.infumia.small.resolver.pinger.FileURLPinger;
 import tr.com.infumia.small.resolver.pinger.HttpURLPinger;
 import tr.com.infumia.small.resolver.pinger.URLPinger;
 import tr.com.infumia.small.resolver.reader.dependency.DependencyDataProvider;
 import tr.com.infumia.small.resolver.reader.dependency.DependencyDataProviderFactory;
-import tr.com.infumia.small.resolver.reader.dependency.ExternalDependencyDataProviderFactory;
-import tr.com.infumia.small.resolver.reader.dependency.GsonDependencyDataProviderFactory;
-import tr.com.infumia.small.resolver.reader.facade.GsonFacadeFactory;
-import tr.com.infumia.small.resolver.reader.facade.ReflectiveGsonFacadeFactory;
-import tr.com.infumia.small.resolver.reader.resolution.GsonPreResolutionDataProviderFactory;
+import tr.com.infumia.small.resolver.reader.dependency.NativeDependencyDataProviderFactory;
+import tr.com.infumia.small.resolver.reader.dependency.NativeExternalDependencyDataProviderFactory;
+import tr.com.infumia.small.resolver.reader.resolution.NativePreResolutionDataProviderFactory;
 import tr.com.infumia.small.resolver.reader.resolution.PreResolutionDataProvider;
 import tr.com.infumia.small.resolver.reader.resolution.PreResolutionDataProviderFactory;
 import tr.com.infumia.small.resolver.strategy.MavenChecksumPathResolutionStrategy;
@@ -86,6 +94,9 @@ import tr.com.infumia.small.resolver.strategy.MavenPomPathResolutionStrategy;
 import tr.com.infumia.small.resolver.strategy.MavenSnapshotPathResolutionStrategy;
 import tr.com.infumia.small.resolver.strategy.MediatingPathResolutionStrategy;
 import tr.com.infumia.small.resolver.strategy.PathResolutionStrategy;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.OfflineTransport;
+import tr.com.infumia.small.transport.Transport;
 
 /**
  * Serves as a configuration for different components small will use during injection.
@@ -97,8 +108,16 @@ public abstract class ApplicationBuilder {
   // ~/.small/
   private static final Path DEFAULT_DOWNLOAD_DIRECTORY;
 
+  // Default of offline mode, for builders and for bootstrap helpers created without an explicit flag
+  public static final String OFFLINE_PROPERTY = "small.offline";
+
+  // Relocated jars shared between applications, keyed by input checksum and rule fingerprint
+  private static final String RELOCATION_CACHE_DIRECTORY = ".small-relocations";
+
   private final String applicationName;
 
+  private ContentStore contentStore;
+
   private DependencyDataProviderFactory dataProviderFactory;
 
   private URL dependencyFileUrl;
@@ -119,6 +138,10 @@ public abstract class ApplicationBuilder {
 
   private DependencyDataProviderFactory moduleDataProviderFactory;
 
+  private boolean nativeRelocation;
+
+  private boolean offline;
+
   private PreResolutionDataProviderFactory preResolutionDataProviderFactory;
 
   private URL preResolutionFileUrl;
@@ -127,10 +150,16 @@ public abstract class ApplicationBuilder {
 
   private RelocatorFactory relocatorFactory;
 
+  private boolean resolutionCaching;
+
   private DependencyResolverFactory resolverFactory;
 
+  private Transport transport;
+
   private DependencyVerifierFactory verifierFactory;
 
+  private VersionMediator versionMediator;
+
   static {
     final String userHome = System.getProperty("user.home");
     final String defaultPath = String.format("%s/.small", userHome);
@@ -144,6 +173,8 @@ public abstract class ApplicationBuilder {
    */
   protected ApplicationBuilder(final String applicationName) {
     this.applicationName = Objects.requireNonNull(applicationName, "Requires non-null application name!");
+    this.offline = Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY);
+    this.nativeRelocation = true;
   }
 
   /**
@@ -196,14 +227,33 @@ public abstract class ApplicationBuilder {
     final MediatingProcessLogger mediatingLogger = LogDispatcher.getMediatingLogger();
     final ProcessLogger logger = this.getLogger();
     mediatingLogger.addLogger(logger);
-    final Application result = this.buildApplication();
-    mediatingLogger.removeLogger(logger);
-    return result;
+    try {
+      return this.buildApplication();
+    } finally {
+      mediatingLogger.removeLogger(logger);
+      // Persisted once per build rather than per sample, so no sample of the injection is lost.
+      RepositoryStatistics.flushAll();
+    }
+  }
+
+  /**
+   * Content-addressable store to keep downloaded and relocated jars in. Files are then hard links (or symbolic
+   * links) to objects keyed by their SHA-256, so applications sharing a download directory store identical jars once.
+   * Disabled by default.
+   *
+   * @param contentStore store to use, for example {@link ContentStore#forDirectory(Path)} of the download directory.
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder contentStore(final ContentStore contentStore) {
+    this.contentStore = contentStore;
+    return this;
   }
 
   /**
    * Factory that produces {@link DependencyDataProvider} to handle `dependencyFileUrl` (by default small.json)
    * Used to fetch the `small.json` file of current jar-file.
+   * The default implementation uses the built-in JSON reader, so no Gson is bootstrapped.
    *
    * @param dataProviderFactory Factory that produces DataProvider to handle `dependencyFileUrl`
    *
@@ -264,6 +314,8 @@ public abstract class ApplicationBuilder {
    * {@link DependencyInjector} decides how any given {@link tr.com.infumia.small.resolver.data.DependencyData} is
    * injected
    * into an {@link Injectable}
+   * Use {@link tr.com.infumia.small.injector.ConcurrentDependencyInjectorFactory} to fetch the dependency tree
+   * concurrently.
    *
    * @param injectorFactory Factory that produces a DependencyInjector
    *
@@ -303,6 +355,32 @@ public abstract class ApplicationBuilder {
     return this;
   }
 
+  /**
+   * Relocates jars with the built-in relocation engine instead of jar-relocator, which then does not have to be
+   * downloaded and isolated first. Ignored when a custom {@link #relocatorFactory(RelocatorFactory)} is set.
+   *
+   * @param nativeRelocation whether to use the built-in engine, enabled by default.
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder nativeRelocation(final boolean nativeRelocation) {
+    this.nativeRelocation = nativeRelocation;
+    return this;
+  }
+
+  /**
+   * Never reaches the network. Dependencies are taken from the download directory, or from local
+   * (<code>file:</code>) repositories, and injection fails up front with every dependency that is missing.
+   *
+   * @param offline whether to run offline, defaults to the <code>small.offline</code> system property.
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder offline(final boolean offline) {
+    this.offline = offline;
+    return this;
+  }
+
   /**
    * Factory that produces {@link PreResolutionDataProvider} to handle `preResolutionFileUrl` (by default
    * small-resolutions.json)
@@ -348,7 +426,8 @@ public abstract class ApplicationBuilder {
   /**
    * Factory class that defines the construction of {@link tr.com.infumia.small.relocation.Relocator}
    * This deals with the actual relocation process.
-   * The default implementation uses lucko/JarRelocator
+   * The default implementation uses the built-in {@link tr.com.infumia.small.relocation.engine.JarRelocationEngine},
+   * or lucko/JarRelocator when {@link #nativeRelocation(boolean)} is disabled
    *
    * @param relocatorFactory Factory class to create Relocator
    *
@@ -359,10 +438,26 @@ public abstract class ApplicationBuilder {
     return this;
   }
 
+  /**
+   * Persists resolutions in the download directory, so restarts skip repository lookups for dependencies resolved
+   * recently. Pre-resolutions still take precedence and entries are dropped when their artifact fails to download.
+   * Ignored when a custom {@link #resolverFactory(DependencyResolverFactory)} is set.
+   *
+   * @param resolutionCaching whether to cache resolutions, disabled by default.
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder resolutionCaching(final boolean resolutionCaching) {
+    this.resolutionCaching = resolutionCaching;
+    return this;
+  }
+
   /**
    * Factory that produces a {@link DependencyResolverFactory}
    * {@link tr.com.infumia.small.resolver.DependencyResolver} deals with resolving the URLs to a given dependency from a
    * given collection of repositories
+   * The default implementation persists resolutions in the download directory when
+   * {@link #resolutionCaching(boolean)} is enabled.
    *
    * @param resolverFactory Factory that produces a DependencyResolverFactory
    *
@@ -373,11 +468,38 @@ public abstract class ApplicationBuilder {
     return this;
   }
 
+  /**
+   * Transport used to ping repositories and to download checksums and artifacts.
+   * The default implementation shares one pooled {@link java.net.http.HttpClient} (keep-alive, HTTP/2) per JVM.
+   *
+   * @param transport Transport to reach repositories with
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder transport(final Transport transport) {
+    this.transport = transport;
+    return this;
+  }
+
   public final ApplicationBuilder verifierFactory(final DependencyVerifierFactory verifierFactory) {
     this.verifierFactory = verifierFactory;
     return this;
   }
 
+  /**
+   * Mediator that picks one version of an artifact the dependency tree declares in several versions.
+   * The default is {@link VersionMediator#NEAREST}, the declaration closest to the root wins as in Maven.
+   * Launches are only planned for mediators reporting an id, see {@link VersionMediator#getId()}.
+   *
+   * @param versionMediator Mediator for conflicting versions
+   *
+   * @return <code>this</code>
+   */
+  public final ApplicationBuilder versionMediator(final VersionMediator versionMediator) {
+    this.versionMediator = versionMediator;
+    return this;
+  }
+
   protected final DependencyInjector createInjector() throws IOException, URISyntaxException, NoSuchAlgorithmException, ReflectiveOperationException {
     final InjectionHelperFactory injectionHelperFactory = new InjectionHelperFactory(
       this.getDownloadDirectoryPath(),
@@ -389,7 +511,10 @@ public abstract class ApplicationBuilder {
       this.getEnquirerFactory(),
       this.getDownloaderFactory(),
       this.getVerifierFactory(),
-      this.getMirrorSelector()
+      this.getMirrorSelector(),
+      this.deduplicated(FilePathStrategy.createDefault(this.getDownloadDirectoryPath().toFile())),
+      this.isOffline(),
+      this.getVersionMediator()
     );
     return this.getInjectorFactory().create(injectionHelperFactory);
   }
@@ -398,10 +523,13 @@ public abstract class ApplicationBuilder {
     return this.applicationName;
   }
 
+  protected final ContentStore getContentStore() {
+    return this.contentStore;
+  }
+
   protected final DependencyDataProviderFactory getDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
     if (this.dataProviderFactory == null) {
-      final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(this.getDownloadDirectoryPath(), this.getInternalRepositories());
-      this.dataProviderFactory = new GsonDependencyDataProviderFactory(gsonFacadeFactory);
+      this.dataProviderFactory = new NativeDependencyDataProviderFactory();
     }
     return this.dataProviderFactory;
   }
@@ -422,7 +550,7 @@ public abstract class ApplicationBuilder {
 
   protected final DependencyDownloaderFactory getDownloaderFactory() {
     if (this.downloaderFactory == null) {
-      this.downloaderFactory = new URLDependencyDownloaderFactory();
+      this.downloaderFactory = new URLDependencyDownloaderFactory(this.getTransport());
     }
     return this.downloaderFactory;
   }
@@ -434,8 +562,9 @@ public abstract class ApplicationBuilder {
       final PathResolutionStrategy resolutionStrategy = new MediatingPathResolutionStrategy(releaseStrategy, snapshotStrategy);
       final PathResolutionStrategy pomURLCreationStrategy = new MavenPomPathResolutionStrategy();
       final PathResolutionStrategy checksumResolutionStrategy = new MavenChecksumPathResolutionStrategy("SHA-1", resolutionStrategy);
-      final URLPinger urlPinger = new HttpURLPinger();
-      this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, urlPinger);
+      final URLPinger urlPinger = new FileURLPinger(new HttpURLPinger(this.getTransport()));
+      final RepositoryStatistics statistics = RepositoryStatistics.forDirectory(this.getDownloadDirectoryPath());
+      this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, urlPinger, statistics, new RepositoryCircuitBreaker());
     }
     return this.enquirerFactory;
   }
@@ -464,23 +593,22 @@ public abstract class ApplicationBuilder {
 
   protected final MirrorSelector getMirrorSelector() throws MalformedURLException {
     if (this.mirrorSelector == null) {
-      this.mirrorSelector = new SimpleMirrorSelector(this.getInternalRepositories());
+      final MirrorSelector selector = new SimpleMirrorSelector(this.getInternalRepositories());
+      this.mirrorSelector = new RankingMirrorSelector(selector, RepositoryStatistics.forDirectory(this.getDownloadDirectoryPath()));
     }
     return this.mirrorSelector;
   }
 
   protected final DependencyDataProviderFactory getModuleDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
     if (this.moduleDataProviderFactory == null) {
-      final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(this.getDownloadDirectoryPath(), this.getInternalRepositories());
-      this.moduleDataProviderFactory = new ExternalDependencyDataProviderFactory(gsonFacadeFactory);
+      this.moduleDataProviderFactory = new NativeExternalDependencyDataProviderFactory();
     }
     return this.moduleDataProviderFactory;
   }
 
   protected final PreResolutionDataProviderFactory getPreResolutionDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
     if (this.preResolutionDataProviderFactory == null) {
-      final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(this.getDownloadDirectoryPath(), this.getInternalRepositories());
-      this.preResolutionDataProviderFactory = new GsonPreResolutionDataProviderFactory(gsonFacadeFactory);
+      this.preResolutionDataProviderFactory = new NativePreResolutionDataProviderFactory();
     }
     return this.preResolutionDataProviderFactory;
   }
@@ -495,39 +623,100 @@ public abstract class ApplicationBuilder {
   protected final RelocationHelperFactory getRelocationHelperFactory() throws NoSuchAlgorithmException, IOException, URISyntaxException {
     if (this.relocationHelperFactory == null) {
       final FileChecksumCalculator checksumCalculator = new FileChecksumCalculator("SHA-256");
-      final FilePathStrategy pathStrategy = FilePathStrategy.createRelocationStrategy(this.getDownloadDirectoryPath().toFile(), this.getApplicationName());
+      final FilePathStrategy pathStrategy = this.deduplicated(FilePathStrategy.createRelocationStrategy(this.getDownloadDirectoryPath().toFile(), this.getApplicationName()));
       final MetaMediatorFactory mediatorFactory = new FlatFileMetaMediatorFactory();
-      this.relocationHelperFactory = new VerifyingRelocationHelperFactory(checksumCalculator, pathStrategy, mediatorFactory);
+      final Path sharedDirectory = this.getDownloadDirectoryPath().resolve(ApplicationBuilder.RELOCATION_CACHE_DIRECTORY);
+      final VerificationIndex verificationIndex = VerificationIndex.forDirectory(this.getDownloadDirectoryPath());
+      this.relocationHelperFactory = new VerifyingRelocationHelperFactory(checksumCalculator, pathStrategy, mediatorFactory, sharedDirectory, verificationIndex);
     }
     return this.relocationHelperFactory;
   }
 
   protected final RelocatorFactory getRelocatorFactory() throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
     if (this.relocatorFactory == null) {
-      final JarRelocatorFacadeFactory jarRelocatorFacadeFactory = ReflectiveJarRelocatorFacadeFactory.create(this.getDownloadDirectoryPath(), this.getInternalRepositories());
+      final JarRelocatorFacadeFactory jarRelocatorFacadeFactory = this.isNativeRelocation()
+        ? new NativeJarRelocatorFacadeFactory()
+        : ReflectiveJarRelocatorFacadeFactory.create(this.getDownloadDirectoryPath(), this.getInternalRepositories(), this.isOffline());
       this.relocatorFactory = new JarFileRelocatorFactory(jarRelocatorFacadeFactory);
     }
     return this.relocatorFactory;
   }
 
+  /**
+   * Fingerprints the relocator dependencies go through. The default relocation engines are identified by their
+   * version alone, so the fingerprint is known without bootstrapping them.
+   *
+   * @return the fingerprint, <code>null</code> if the relocator has none.
+   */
+  protected final String getRelocatorFingerprint() throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+    if (this.relocatorFactory != null) {
+      return this.relocatorFactory.create(Collections.emptySet()).getFingerprint();
+    }
+    final String engineVersion = this.isNativeRelocation()
+      ? NativeJarRelocatorFacadeFactory.engineVersion()
+      : ReflectiveJarRelocatorFacadeFactory.engineVersion();
+    return RelocationFingerprint.of(Collections.emptySet(), engineVersion);
+  }
+
   protected final DependencyResolverFactory getResolverFactory() {
     if (this.resolverFactory == null) {
-      final URLPinger pinger = new HttpURLPinger();
-      this.resolverFactory = new CachingDependencyResolverFactory(pinger);
+      final URLPinger pinger = new FileURLPinger(new HttpURLPinger(this.getTransport()));
+      final ResolutionCache resolutionCache = this.isResolutionCaching() ? ResolutionCache.forDirectory(this.getDownloadDirectoryPath()) : null;
+      this.resolverFactory = new CachingDependencyResolverFactory(pinger, resolutionCache);
     }
     return this.resolverFactory;
   }
 
+  protected final Transport getTransport() {
+    if (this.transport == null) {
+      this.transport = HttpClientTransport.getShared();
+    }
+    // Applies to custom transports as well, so no component can open a connection while offline.
+    if (this.isOffline() && !(this.transport instanceof OfflineTransport)) {
+      this.transport = new OfflineTransport(this.transport);
+    }
+    return this.transport;
+  }
+
   protected final DependencyVerifierFactory getVerifierFactory() throws NoSuchAlgorithmException {
     if (this.verifierFactory == null) {
       final FilePathStrategy filePathStrategy = ChecksumFilePathStrategy.createStrategy(this.getDownloadDirectoryPath().toFile(), "SHA-1");
       final OutputWriterFactory checksumOutputFactory = new DependencyOutputWriterFactory(filePathStrategy);
       final DependencyVerifierFactory fallback = new PassthroughDependencyVerifierFactory();
       final ChecksumCalculator checksumCalculator = new FileChecksumCalculator("SHA-1");
-      this.verifierFactory = new ChecksumDependencyVerifierFactory(checksumOutputFactory, fallback, checksumCalculator);
+      final VerificationIndex index = VerificationIndex.forDirectory(this.getDownloadDirectoryPath());
+      this.verifierFactory = new ChecksumDependencyVerifierFactory(checksumOutputFactory, fallback, checksumCalculator, index, this.getTransport());
     }
     return this.verifierFactory;
   }
 
+  protected final VersionMediator getVersionMediator() {
+    if (this.versionMediator == null) {
+      this.versionMediator = VersionMediator.NEAREST;
+    }
+    return this.versionMediator;
+  }
+
+  protected final boolean isNativeRelocation() {
+    return this.nativeRelocation;
+  }
+
+  protected final boolean isOffline() {
+    return this.offline;
+  }
+
+  protected final boolean isResolutionCaching() {
+    return this.resolutionCaching;
+  }
+
   protected abstract Application buildApplication() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException;
+
+  private FilePathStrategy deduplicated(final FilePathStrategy strategy) {
+    final ContentStore store = this.getContentStore();
+    if (store == null) {
+      return strategy;
+    }
+    store.collectIfDue();
+    return FilePathStrategy.createContentAddressable(strategy, store);
+  }
 }
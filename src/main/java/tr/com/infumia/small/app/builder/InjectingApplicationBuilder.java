@@ -26,14 +26,21 @@ package tr.com.infumia.small.app.builder;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import tr.com.infumia.small.app.AppendingApplication;
 import tr.com.infumia.small.app.Application;
+import tr.com.infumia.small.downloader.verify.FileChecksumCalculator;
 import tr.com.infumia.small.injector.DependencyInjector;
 import tr.com.infumia.small.injector.loader.Injectable;
 import tr.com.infumia.small.injector.loader.InjectableFactory;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
 import tr.com.infumia.small.resolver.ResolutionResult;
 import tr.com.infumia.small.resolver.data.DependencyData;
 import tr.com.infumia.small.resolver.reader.dependency.DependencyDataProvider;
@@ -41,6 +48,8 @@ import tr.com.infumia.small.resolver.reader.resolution.PreResolutionDataProvider
 
 public final class InjectingApplicationBuilder extends ApplicationBuilder {
 
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
   private final Function<ApplicationBuilder, Injectable> injectableSupplier;
 
   public InjectingApplicationBuilder(final String applicationName, final Injectable injectable) {
@@ -60,7 +69,7 @@ public final class InjectingApplicationBuilder extends ApplicationBuilder {
   public static ApplicationBuilder createAppending(final String applicationName, final ClassLoader classLoader) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
     return new InjectingApplicationBuilder(applicationName, (ApplicationBuilder builder) -> {
       try {
-        return InjectableFactory.create(builder.getDownloadDirectoryPath(), builder.getInternalRepositories(), classLoader);
+        return InjectableFactory.create(builder.getDownloadDirectoryPath(), builder.getInternalRepositories(), classLoader, builder.isOffline());
       } catch (final URISyntaxException | ReflectiveOperationException | NoSuchAlgorithmException |
                      IOException exception) {
         exception.printStackTrace();
@@ -73,10 +82,36 @@ public final class InjectingApplicationBuilder extends ApplicationBuilder {
   public Application buildApplication() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException {
     final DependencyDataProvider dataProvider = this.getDataProviderFactory().create(this.getDependencyFileUrl());
     final DependencyData dependencyData = dataProvider.get();
+    final Injectable injectable = this.injectableSupplier.apply(this);
+    // Relocators without a fingerprint and mediators without an id may produce different jars for the same
+    // dependencies, so they are never planned. The relocator itself is only created once the plan missed.
+    final String relocatorFingerprint = this.getRelocatorFingerprint();
+    final String versionMediatorId = this.getVersionMediator().getId();
+    final LaunchPlan launchPlan = relocatorFingerprint == null || versionMediatorId == null ? null : LaunchPlan.forApplication(this.getDownloadDirectoryPath(), this.getApplicationName(), new FileChecksumCalculator("SHA-256"));
+    final String fingerprint = launchPlan == null ? null : LaunchPlan.fingerprint(this.getApplicationName(), dependencyData, relocatorFingerprint, versionMediatorId);
+    final List<URL> planned = launchPlan == null ? null : launchPlan.load(fingerprint);
+    if (planned != null) {
+      InjectingApplicationBuilder.LOGGER.debug("Injecting {0} jars from the launch plan", planned.size());
+      for (final URL url : planned) {
+        injectable.inject(url);
+      }
+      return new AppendingApplication();
+    }
     final DependencyInjector dependencyInjector = this.createInjector();
     final PreResolutionDataProvider preResolutionDataProvider = this.getPreResolutionDataProviderFactory().create(this.getPreResolutionFileUrl());
     final Map<String, ResolutionResult> preResolutionResultMap = preResolutionDataProvider.get();
-    dependencyInjector.inject(this.injectableSupplier.apply(this), dependencyData, preResolutionResultMap);
+    final List<URL> injected = Collections.synchronizedList(new ArrayList<>());
+    dependencyInjector.inject(url -> {
+      injectable.inject(url);
+      injected.add(url);
+    }, dependencyData, preResolutionResultMap);
+    if (launchPlan != null) {
+      try {
+        launchPlan.save(fingerprint, injected);
+      } catch (final IOException exception) {
+        InjectingApplicationBuilder.LOGGER.log("Could not save the launch plan of {0}: {1}", this.getApplicationName(), exception.getMessage());
+      }
+    }
     return new AppendingApplication();
   }
 }
@@ -28,14 +28,24 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import tr.com.infumia.small.app.Application;
+import tr.com.infumia.small.app.module.CachingModuleExtractor;
+import tr.com.infumia.small.app.module.ModuleExtractor;
+import tr.com.infumia.small.injector.ConcurrentDependencyInjectorFactory;
 import tr.com.infumia.small.injector.DependencyInjector;
 import tr.com.infumia.small.injector.loader.InjectableClassLoader;
 import tr.com.infumia.small.injector.loader.IsolatedInjectableClassLoader;
 import tr.com.infumia.small.resolver.ResolutionResult;
+import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
+import tr.com.infumia.small.resolver.data.Mirror;
+import tr.com.infumia.small.resolver.data.Repository;
 import tr.com.infumia.small.resolver.reader.dependency.DependencyDataProvider;
 import tr.com.infumia.small.resolver.reader.resolution.PreResolutionDataProvider;
 import tr.com.infumia.small.util.Modules;
@@ -51,24 +61,71 @@ public final class IsolatedApplicationBuilder extends ApplicationBuilder {
     super(applicationName);
     this.isolationConfiguration = isolationConfiguration;
     this.arguments = arguments.clone();
+    // The merged tree of the application and its modules is fetched on a worker pool unless configured otherwise.
+    this.injectorFactory(new ConcurrentDependencyInjectorFactory());
+  }
+
+  /**
+   * Merges the dependency data of the application and its modules, so dependencies they share are resolved, verified
+   * and fetched once. Dependencies keep the position of their first declaration.
+   *
+   * @see #mergeDependencies(Collection)
+   */
+  private static DependencyData merge(final List<DependencyData> data) {
+    final Map<String, Mirror> mirrors = new LinkedHashMap<>();
+    final Map<String, Repository> repositories = new LinkedHashMap<>();
+    final List<Dependency> dependencies = new ArrayList<>();
+    for (final DependencyData entry : data) {
+      // Keyed by their text, URL#equals resolves host names.
+      entry.getMirrors().forEach(mirror -> mirrors.putIfAbsent(mirror.getMirroring() + " " + mirror.getOriginal(), mirror));
+      entry.getRepositories().forEach(repository -> repositories.putIfAbsent(repository.getUrl() + " " + repository.getName(), repository));
+      dependencies.addAll(entry.getDependencies());
+    }
+    return new DependencyData(new ArrayList<>(mirrors.values()), new ArrayList<>(repositories.values()), IsolatedApplicationBuilder.mergeDependencies(dependencies));
+  }
+
+  /**
+   * Merges the declarations of the same coordinates into one dependency, whose transitive dependencies are the union
+   * of every declaration's, merged the same way. Modules may declare a shared dependency with different transitive
+   * dependencies, none of them may be lost.
+   */
+  private static List<Dependency> mergeDependencies(final Collection<Dependency> dependencies) {
+    final Map<Dependency, List<Dependency>> declarations = new LinkedHashMap<>();
+    for (final Dependency dependency : dependencies) {
+      declarations.computeIfAbsent(dependency, key -> new ArrayList<>()).add(dependency);
+    }
+    final List<Dependency> merged = new ArrayList<>(declarations.size());
+    for (final List<Dependency> declared : declarations.values()) {
+      final Dependency first = declared.get(0);
+      if (declared.size() == 1) {
+        merged.add(first);
+      } else {
+        final List<Dependency> transitive = new ArrayList<>();
+        declared.forEach(dependency -> transitive.addAll(dependency.getTransitive()));
+        merged.add(new Dependency(first.getGroupId(), first.getArtifactId(), first.getVersion(), first.getSnapshotId(), IsolatedApplicationBuilder.mergeDependencies(transitive)));
+      }
+    }
+    return merged;
   }
 
   @Override
   public Application buildApplication() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException {
     final DependencyInjector injector = this.createInjector();
-    final URL[] moduleUrls = Modules.extract(this.isolationConfiguration.getModuleExtractor(), this.isolationConfiguration.getModules());
+    final ModuleExtractor configuredExtractor = this.isolationConfiguration.getModuleExtractor();
+    final ModuleExtractor moduleExtractor = configuredExtractor == null ? CachingModuleExtractor.forDirectory(this.getDownloadDirectoryPath()) : configuredExtractor;
+    final URL[] moduleUrls = Modules.extract(moduleExtractor, this.isolationConfiguration.getModules());
     final InjectableClassLoader classLoader = new IsolatedInjectableClassLoader(moduleUrls, this.isolationConfiguration.getParentClassloader(), Collections.singleton(Application.class));
     final DependencyDataProvider dataProvider = this.getDataProviderFactory().create(this.getDependencyFileUrl());
-    final DependencyData selfDependencyData = dataProvider.get();
-    final PreResolutionDataProvider preResolutionDataProvider = this.getPreResolutionDataProviderFactory().create(this.getPreResolutionFileUrl());
-    final Map<String, ResolutionResult> preResolutionResultMap = preResolutionDataProvider.get();
-    injector.inject(classLoader, selfDependencyData, preResolutionResultMap);
+    final List<DependencyData> dependencyData = new ArrayList<>(moduleUrls.length + 1);
+    dependencyData.add(dataProvider.get());
     for (final URL module : moduleUrls) {
       final DependencyDataProvider moduleDataProvider = this.getModuleDataProviderFactory().create(module);
-      final DependencyData dependencyData = moduleDataProvider.get();
-      //  fetch isolated pre-resolutions
-      injector.inject(classLoader, dependencyData, preResolutionResultMap);
+      dependencyData.add(moduleDataProvider.get());
     }
+    final PreResolutionDataProvider preResolutionDataProvider = this.getPreResolutionDataProviderFactory().create(this.getPreResolutionFileUrl());
+    //  fetch isolated pre-resolutions
+    final Map<String, ResolutionResult> preResolutionResultMap = preResolutionDataProvider.get();
+    injector.inject(classLoader, IsolatedApplicationBuilder.merge(dependencyData), preResolutionResultMap);
     final Class<Application> applicationClass = (Class<Application>) Class.forName(this.isolationConfiguration.getApplicationClass(), true, classLoader);
     //  Fix constructor resolution
     return applicationClass.getConstructor(Parameters.typesFrom(this.arguments)).newInstance(this.arguments);
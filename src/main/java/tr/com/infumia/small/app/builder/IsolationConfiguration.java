@@ -30,7 +30,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import tr.com.infumia.small.app.module.ModuleExtractor;
-import tr.com.infumia.small.app.module.TemporaryModuleExtractor;
 import tr.com.infumia.small.util.Modules;
 
 public final class IsolationConfiguration {
@@ -58,6 +57,9 @@ public final class IsolationConfiguration {
     return this.applicationClass;
   }
 
+  /**
+   * @return extractor of the modules, <code>null</code> to keep extracted modules in the download directory.
+   */
   public ModuleExtractor getModuleExtractor() {
     return this.moduleExtractor;
   }
@@ -119,9 +121,6 @@ public final class IsolationConfiguration {
     }
 
     ModuleExtractor getModuleExtractor() {
-      if (this.moduleExtractor == null) {
-        this.moduleExtractor = new TemporaryModuleExtractor();
-      }
       return this.moduleExtractor;
     }
 
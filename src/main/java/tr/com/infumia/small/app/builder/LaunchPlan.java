@@ -0,0 +1,179 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.app.builder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import tr.com.infumia.small.downloader.verify.ChecksumCalculator;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.resolver.data.DependencyData;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.Checksums;
+
+/**
+ * Snapshot of a successful boot: the jars that were injected, in order, along with their size, modification time and
+ * checksum. A later boot with the same fingerprint injects them directly, skipping resolution, verification and
+ * relocation, as long as every jar still looks the same on disk.
+ */
+final class LaunchPlan {
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private static final String DIRECTORY = ".small-launch-plans";
+
+  private static final String EXTENSION = ".plan";
+
+  private static final String SEPARATOR = "\t";
+
+  private final ChecksumCalculator checksumCalculator;
+
+  private final Path file;
+
+  private LaunchPlan(final Path file, final ChecksumCalculator checksumCalculator) {
+    this.file = file;
+    this.checksumCalculator = checksumCalculator;
+  }
+
+  static LaunchPlan forApplication(final Path downloadDirectory, final String applicationName, final ChecksumCalculator checksumCalculator) {
+    final String fileName = applicationName.replaceAll("[^A-Za-z0-9._-]", "_") + LaunchPlan.EXTENSION;
+    return new LaunchPlan(downloadDirectory.resolve(LaunchPlan.DIRECTORY).resolve(fileName), checksumCalculator);
+  }
+
+  /**
+   * Fingerprints everything a boot depends on besides the jars themselves.
+   *
+   * @param applicationName name of the application.
+   * @param data dependencies of the application.
+   * @param relocatorFingerprint fingerprint of the relocator the jars went through.
+   * @param versionMediatorId id of the mediator of conflicting versions.
+   *
+   * @return a hex encoded fingerprint.
+   */
+  static String fingerprint(final String applicationName, final DependencyData data, final String relocatorFingerprint, final String versionMediatorId) {
+    final StringBuilder builder = new StringBuilder(applicationName).append('\n').append(relocatorFingerprint).append('\n')
+      .append(versionMediatorId).append('\n');
+    LaunchPlan.appendTree(builder, data.getDependencies());
+    try {
+      final MessageDigest digest = MessageDigest.getInstance(LaunchPlan.ALGORITHM);
+      return Checksums.toHex(digest.digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static void appendTree(final StringBuilder builder, final Collection<Dependency> dependencies) {
+    builder.append('[');
+    for (final Dependency dependency : dependencies) {
+      builder.append(dependency).append(' ');
+      LaunchPlan.appendTree(builder, dependency.getTransitive());
+    }
+    builder.append(']');
+  }
+
+  /**
+   * Reads the jars of the plan. Jars whose size or modification time changed are checksummed again, and the plan is
+   * refreshed if they turn out to be unchanged.
+   *
+   * @param fingerprint fingerprint of the current boot.
+   *
+   * @return the jars to inject in order, <code>null</code> if there is no plan or it is outdated.
+   */
+  List<URL> load(final String fingerprint) {
+    if (!Files.isRegularFile(this.file)) {
+      return null;
+    }
+    try {
+      final List<String> lines = Files.readAllLines(this.file, StandardCharsets.UTF_8);
+      if (lines.isEmpty() || !fingerprint.equals(lines.get(0))) {
+        return null;
+      }
+      final List<URL> urls = new ArrayList<>(lines.size() - 1);
+      boolean touched = false;
+      for (final String line : lines.subList(1, lines.size())) {
+        final String[] parts = line.split(LaunchPlan.SEPARATOR, 4);
+        if (parts.length != 4) {
+          return null;
+        }
+        final URL url = new URL(parts[3]);
+        final Path jar = Paths.get(url.toURI());
+        if (!Files.exists(jar)) {
+          return null;
+        }
+        if (Files.size(jar) != Long.parseLong(parts[0]) || Files.getLastModifiedTime(jar).toMillis() != Long.parseLong(parts[1])) {
+          if (!parts[2].equals(this.checksumCalculator.calculate(jar.toFile()))) {
+            return null;
+          }
+          touched = true;
+        }
+        urls.add(url);
+      }
+      if (touched) {
+        this.save(fingerprint, urls);
+      }
+      return urls;
+    } catch (final IOException | URISyntaxException | RuntimeException exception) {
+      // An unreadable plan is treated as no plan.
+      return null;
+    }
+  }
+
+  /**
+   * Records the jars of a successful boot.
+   *
+   * @param fingerprint fingerprint of the boot.
+   * @param urls injected jars, in injection order.
+   *
+   * @throws IOException if a jar cannot be read or the plan cannot be written.
+   */
+  void save(final String fingerprint, final List<URL> urls) throws IOException {
+    final StringBuilder builder = new StringBuilder(fingerprint).append('\n');
+    for (final URL url : urls) {
+      final File jar;
+      try {
+        jar = new File(url.toURI());
+      } catch (final URISyntaxException | IllegalArgumentException exception) {
+        throw new IOException("Cannot plan " + url, exception);
+      }
+      builder.append(jar.length()).append(LaunchPlan.SEPARATOR)
+        .append(Files.getLastModifiedTime(jar.toPath()).toMillis()).append(LaunchPlan.SEPARATOR)
+        .append(this.checksumCalculator.calculate(jar)).append(LaunchPlan.SEPARATOR)
+        .append(url).append('\n');
+    }
+    Files.createDirectories(this.file.getParent());
+    AtomicFiles.write(this.file, builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,248 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.app.module;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import tr.com.infumia.small.downloader.verify.VerificationIndex;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.Checksums;
+import tr.com.infumia.small.util.FileLocks;
+
+/**
+ * Extracts modules into a directory and keeps them there, keyed by the SHA-256 of their entry in the enclosing jar. An
+ * extracted module is reused only if its own SHA-256 matches the key, which the {@link VerificationIndex} remembers
+ * until the file changes.
+ * <p>
+ * The directory is shared by every application using the download directory, so extracting a module never removes
+ * another one. Every use refreshes the modification time of a module at most once a day, and modules nobody used for
+ * {@link #MAX_UNUSED_AGE} are deleted by a collection that runs at most once a day. Lock files are never deleted, a
+ * process may be holding or waiting for them.
+ */
+public final class CachingModuleExtractor implements ModuleExtractor {
+
+  /**
+   * Modules not used for this long are deleted.
+   */
+  public static final long MAX_UNUSED_AGE = TimeUnit.DAYS.toMillis(30);
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private static final String COLLECTED_FILE_NAME = "collected";
+
+  private static final long COLLECT_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+  private static final String DIRECTORY = ".small-modules";
+
+  private static final String EXTENSION = ".jar";
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final Pattern MODULE = Pattern.compile(".+-[0-9a-f]{64}" + Pattern.quote(CachingModuleExtractor.EXTENSION));
+
+  private final Path directory;
+
+  private final VerificationIndex index;
+
+  public CachingModuleExtractor(final Path directory, final VerificationIndex index) {
+    this.directory = directory;
+    this.index = index;
+  }
+
+  public CachingModuleExtractor(final Path directory) {
+    this(directory, VerificationIndex.forDirectory(directory));
+  }
+
+  /**
+   * Creates an extractor keeping modules in the <code>.small-modules</code> folder of a download directory.
+   *
+   * @param downloadDirectory download directory.
+   *
+   * @return the extractor.
+   */
+  public static CachingModuleExtractor forDirectory(final Path downloadDirectory) {
+    return new CachingModuleExtractor(downloadDirectory.resolve(CachingModuleExtractor.DIRECTORY), VerificationIndex.forDirectory(downloadDirectory));
+  }
+
+  private static String checksum(final InputStream inputStream) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(CachingModuleExtractor.ALGORITHM);
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IOException(exception);
+    }
+    final byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return Checksums.toHex(digest.digest());
+  }
+
+  private static boolean isUnused(final Path module, final long now) throws IOException {
+    return Files.isRegularFile(module) && now - Files.getLastModifiedTime(module).toMillis() > CachingModuleExtractor.MAX_UNUSED_AGE;
+  }
+
+  private static void markUsed(final Path module) {
+    try {
+      final long now = System.currentTimeMillis();
+      if (now - Files.getLastModifiedTime(module).toMillis() >= CachingModuleExtractor.COLLECT_INTERVAL) {
+        Files.setLastModifiedTime(module, FileTime.fromMillis(now));
+      }
+    } catch (final IOException exception) {
+      CachingModuleExtractor.LOGGER.debug("Could not mark module {0} as used: {1}", module, exception.getMessage());
+    }
+  }
+
+  /**
+   * Deletes the modules nobody used for {@link #MAX_UNUSED_AGE}. Each module is deleted under its lock, so a process
+   * extracting it at the same time never loses it.
+   *
+   * @return the amount of deleted modules.
+   */
+  public int collect() {
+    int deleted = 0;
+    final long now = System.currentTimeMillis();
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+      for (final Path path : stream) {
+        if (!CachingModuleExtractor.MODULE.matcher(path.getFileName().toString()).matches() || !CachingModuleExtractor.isUnused(path, now)) {
+          continue;
+        }
+        try (final FileLocks.Lock ignored = FileLocks.lock(path)) {
+          if (CachingModuleExtractor.isUnused(path, now) && Files.deleteIfExists(path)) {
+            deleted++;
+          }
+        } catch (final IOException exception) {
+          // Modules still mapped by another process may not be deletable yet, they are retried on the next collection.
+          CachingModuleExtractor.LOGGER.debug("Could not delete unused module {0}: {1}", path, exception.getMessage());
+        }
+      }
+      Files.write(this.directory.resolve(CachingModuleExtractor.COLLECTED_FILE_NAME), new byte[0]);
+    } catch (final IOException exception) {
+      CachingModuleExtractor.LOGGER.debug("Could not collect modules in {0}: {1}", this.directory, exception.getMessage());
+    }
+    if (deleted > 0) {
+      CachingModuleExtractor.LOGGER.debug("Deleted {0} unused modules from {1}", deleted, this.directory);
+    }
+    return deleted;
+  }
+
+  /**
+   * Runs {@link #collect()} if it did not run within the last day.
+   */
+  public void collectIfDue() {
+    final Path stamp = this.directory.resolve(CachingModuleExtractor.COLLECTED_FILE_NAME);
+    try {
+      if (Files.exists(stamp) &&
+        System.currentTimeMillis() - Files.getLastModifiedTime(stamp).toMillis() < CachingModuleExtractor.COLLECT_INTERVAL) {
+        return;
+      }
+    } catch (final IOException exception) {
+      return;
+    }
+    this.collect();
+  }
+
+  @Override
+  public URL extractModule(final URL url, final String name) throws IOException {
+    final URLConnection connection = url.openConnection();
+    if (!(connection instanceof JarURLConnection)) {
+      throw new AssertionError("Invalid Module URL provided(Non-Jar File)");
+    }
+    final JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+    final ZipEntry module = jarFile.getJarEntry(name + ".isolated-jar");
+    if (module == null) {
+      throw new ModuleNotFoundException(name);
+    }
+    final String checksum;
+    try (final InputStream inputStream = jarFile.getInputStream(module)) {
+      checksum = CachingModuleExtractor.checksum(inputStream);
+    }
+    final Path target = this.directory.resolve(name + "-" + checksum + CachingModuleExtractor.EXTENSION);
+    if (this.isExtracted(target, checksum)) {
+      CachingModuleExtractor.markUsed(target);
+      this.collectIfDue();
+      return target.toUri().toURL();
+    }
+    Files.createDirectories(this.directory);
+    try (final FileLocks.Lock ignored = FileLocks.lock(target)) {
+      if (!this.isExtracted(target, checksum)) {
+        CachingModuleExtractor.LOGGER.debug("Extracting module {0}", name);
+        final Path temporary = AtomicFiles.temporaryFor(target);
+        try {
+          try (final InputStream inputStream = jarFile.getInputStream(module)) {
+            Files.copy(inputStream, temporary);
+          }
+          AtomicFiles.move(temporary, target);
+          this.index.record(target.toFile(), CachingModuleExtractor.ALGORITHM, checksum);
+        } finally {
+          Files.deleteIfExists(temporary);
+        }
+      } else {
+        CachingModuleExtractor.markUsed(target);
+      }
+    }
+    this.collectIfDue();
+    return target.toUri().toURL();
+  }
+
+  /**
+   * Checks the module at the target against the checksum of its entry. A module that does not match, e.g. one left
+   * truncated or modified, is extracted again.
+   */
+  private boolean isExtracted(final Path target, final String checksum) throws IOException {
+    if (!Files.isRegularFile(target)) {
+      return false;
+    }
+    String actual = this.index.lookup(target.toFile(), CachingModuleExtractor.ALGORITHM);
+    if (actual == null) {
+      try (final InputStream inputStream = Files.newInputStream(target)) {
+        actual = CachingModuleExtractor.checksum(inputStream);
+      }
+      if (!checksum.equals(actual)) {
+        CachingModuleExtractor.LOGGER.debug("Module {0} does not match its checksum, extracting it again", target);
+        return false;
+      }
+      this.index.record(target.toFile(), CachingModuleExtractor.ALGORITHM, actual);
+    }
+    return checksum.equals(actual);
+  }
+}
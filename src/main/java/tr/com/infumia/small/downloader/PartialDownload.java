@@ -0,0 +1,246 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Properties;
+import tr.com.infumia.small.transport.ResourceMetadata;
+import tr.com.infumia.small.util.AtomicFiles;
+
+/**
+ * Keeps the bytes of an unfinished download in <code>&lt;file&gt;.part</code>, next to a
+ * <code>&lt;file&gt;.part.meta</code> file with the URL, length and validator they belong to, so an interrupted
+ * download can continue with a range request instead of starting over.
+ * <p>
+ * Only resources with an entity tag or a modification date that accept byte ranges are kept, anything else could not
+ * be resumed safely. Callers must hold the lock of the target file.
+ */
+final class PartialDownload {
+
+  private static final String LENGTH = "length";
+
+  private static final String URL = "url";
+
+  private static final String VALIDATOR = "validator";
+
+  private final Path metaFile;
+
+  private final Path partFile;
+
+  private PartialDownload(final Path partFile, final Path metaFile) {
+    this.partFile = partFile;
+    this.metaFile = metaFile;
+  }
+
+  static PartialDownload forFile(final File file) {
+    final Path path = file.toPath();
+    return new PartialDownload(
+      path.resolveSibling(path.getFileName() + ".part"),
+      path.resolveSibling(path.getFileName() + ".part.meta")
+    );
+  }
+
+  private static String validatorOf(final ResourceMetadata metadata) {
+    if (metadata == null) {
+      return null;
+    }
+    final String eTag = metadata.getETag();
+    // Weak entity tags are not allowed in If-Range.
+    if (eTag != null && !eTag.startsWith("W/")) {
+      return eTag;
+    }
+    return metadata.getLastModified();
+  }
+
+  /**
+   * Starts storing the response. Bytes already stored are kept only if the response continues them.
+   *
+   * @param url resource being downloaded.
+   * @param metadata metadata of the response.
+   * @param offset first byte of the response body.
+   * @param body response body.
+   *
+   * @return the full resource, stored bytes followed by the response body, which is copied to the part file as it is
+   *   read.
+   *
+   * @throws IOException if the part file cannot be prepared.
+   */
+  InputStream begin(final URL url, final ResourceMetadata metadata, final long offset, final InputStream body) throws IOException {
+    if (offset <= 0L) {
+      this.discard();
+      final String validator = PartialDownload.validatorOf(metadata);
+      if (validator == null || !metadata.acceptsRanges() || metadata.getContentLength() <= 0L) {
+        return body;
+      }
+      final Properties properties = new Properties();
+      properties.setProperty(PartialDownload.URL, url.toString());
+      properties.setProperty(PartialDownload.VALIDATOR, validator);
+      properties.setProperty(PartialDownload.LENGTH, Long.toString(metadata.getContentLength()));
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      properties.store(buffer, null);
+      AtomicFiles.write(this.metaFile, buffer.toByteArray());
+      Files.deleteIfExists(this.partFile);
+      return new CopyingInputStream(body, new FileOutputStream(this.partFile.toFile(), true));
+    }
+    final InputStream stored = new FilterInputStream(Files.newInputStream(this.partFile)) {
+      private long remaining = offset;
+
+      @Override
+      public int read() throws IOException {
+        if (this.remaining <= 0L) {
+          return -1;
+        }
+        final int read = super.read();
+        if (read != -1) {
+          this.remaining--;
+        }
+        return read;
+      }
+
+      @Override
+      public int read(final byte[] bytes, final int position, final int length) throws IOException {
+        if (this.remaining <= 0L) {
+          return -1;
+        }
+        final int read = super.read(bytes, position, (int) Math.min(length, this.remaining));
+        if (read > 0) {
+          this.remaining -= read;
+        }
+        return read;
+      }
+    };
+    return new SequenceInputStream(stored, new CopyingInputStream(body, new FileOutputStream(this.partFile.toFile(), true)));
+  }
+
+  /**
+   * Deletes the stored bytes, typically once the download completed.
+   *
+   * @throws IOException if the files cannot be deleted.
+   */
+  void discard() throws IOException {
+    Files.deleteIfExists(this.partFile);
+    Files.deleteIfExists(this.metaFile);
+  }
+
+  /**
+   * Finds out how many bytes of the resource are already stored.
+   *
+   * @param url resource about to be downloaded.
+   * @param metadata what the repository currently reports about the resource, may be <code>null</code>.
+   *
+   * @return the amount of stored bytes that can be resumed from, 0 if the download has to start over.
+   */
+  long resumableLength(final URL url, final ResourceMetadata metadata) {
+    if (!Files.isRegularFile(this.partFile) || !Files.isRegularFile(this.metaFile)) {
+      return 0L;
+    }
+    try {
+      final Properties properties = new Properties();
+      try (final InputStream input = Files.newInputStream(this.metaFile)) {
+        properties.load(input);
+      }
+      final long length = Long.parseLong(properties.getProperty(PartialDownload.LENGTH, "-1"));
+      final long stored = Files.size(this.partFile);
+      final boolean matches = url.toString().equals(properties.getProperty(PartialDownload.URL)) &&
+        (metadata == null || metadata.getContentLength() < 0L || metadata.getContentLength() == length) &&
+        (metadata == null || PartialDownload.validatorOf(metadata) == null ||
+          Objects.equals(PartialDownload.validatorOf(metadata), properties.getProperty(PartialDownload.VALIDATOR)));
+      if (matches && stored > 0L && stored < length) {
+        return stored;
+      }
+    } catch (final IOException | RuntimeException exception) {
+      // Unreadable progress is treated as no progress.
+    }
+    return 0L;
+  }
+
+  String validator() {
+    try (final InputStream input = Files.newInputStream(this.metaFile)) {
+      final Properties properties = new Properties();
+      properties.load(input);
+      return properties.getProperty(PartialDownload.VALIDATOR);
+    } catch (final IOException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Passes bytes through while appending them to the part file.
+   */
+  private static final class CopyingInputStream extends FilterInputStream {
+
+    private final OutputStream copy;
+
+    private CopyingInputStream(final InputStream inputStream, final OutputStream copy) {
+      super(inputStream);
+      this.copy = copy;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        this.copy.close();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = this.in.read();
+      if (read != -1) {
+        this.copy.write(read);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      final int read = this.in.read(bytes, offset, length);
+      if (read > 0) {
+        this.copy.write(bytes, offset, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+      // Skipped bytes would never reach the part file.
+      return 0L;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import tr.com.infumia.small.transport.ResourceMetadata;
+import tr.com.infumia.small.transport.Transport;
+import tr.com.infumia.small.transport.TransportResponse;
+import tr.com.infumia.small.util.Workers;
+
+/**
+ * Downloads a large resource over several connections at once, each one fetching its own byte range straight into
+ * its place in a preallocated file.
+ */
+final class SegmentedDownload {
+
+  /**
+   * Resources smaller than this are downloaded over a single connection.
+   */
+  static final long THRESHOLD = 8L * 1024L * 1024L;
+
+  private static final int BUFFER_SIZE = 128 * 1024;
+
+  private static final int MAX_SEGMENTS = 4;
+
+  private static final long MIN_SEGMENT_SIZE = 2L * 1024L * 1024L;
+
+  private static final Object SHARED_LOCK = new Object();
+
+  private static volatile ExecutorService shared;
+
+  private final long length;
+
+  private final Transport transport;
+
+  private final URL url;
+
+  private final String validator;
+
+  private SegmentedDownload(final Transport transport, final URL url, final long length, final String validator) {
+    this.transport = transport;
+    this.url = url;
+    this.length = length;
+    this.validator = validator;
+  }
+
+  /**
+   * Creates a segmented download if the resource is large enough and the repository accepts byte ranges for it.
+   *
+   * @param transport transport to fetch the segments through.
+   * @param url resource to download.
+   * @param metadata what the repository reported about the resource, may be <code>null</code>.
+   *
+   * @return the download, <code>null</code> if the resource should be downloaded over a single connection.
+   */
+  static SegmentedDownload of(final Transport transport, final URL url, final ResourceMetadata metadata) {
+    if (metadata == null || !metadata.acceptsRanges() || metadata.getContentLength() < SegmentedDownload.THRESHOLD) {
+      return null;
+    }
+    final String eTag = metadata.getETag();
+    // Segments are only stitched together when every one of them is guaranteed to come from the same version.
+    final String validator = eTag != null && !eTag.startsWith("W/") ? eTag : metadata.getLastModified();
+    if (validator == null) {
+      return null;
+    }
+    return new SegmentedDownload(transport, url, metadata.getContentLength(), validator);
+  }
+
+  private static ExecutorService getSharedExecutor() {
+    if (SegmentedDownload.shared == null) {
+      synchronized (SegmentedDownload.SHARED_LOCK) {
+        if (SegmentedDownload.shared == null) {
+          SegmentedDownload.shared = Workers.newPool("small-segments", Workers.DEFAULT_PARALLELISM);
+        }
+      }
+    }
+    return SegmentedDownload.shared;
+  }
+
+  long getLength() {
+    return this.length;
+  }
+
+  /**
+   * Downloads every segment into the target, which is created or truncated first.
+   *
+   * @param target file to write the resource to.
+   *
+   * @throws IOException if any segment fails or the repository stops honoring the ranges.
+   */
+  void writeTo(final Path target) throws IOException {
+    final int segments = (int) Math.max(1L, Math.min(SegmentedDownload.MAX_SEGMENTS, this.length / SegmentedDownload.MIN_SEGMENT_SIZE));
+    final long segmentSize = (this.length + segments - 1L) / segments;
+    try (final FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      // Allocated up front so positional writes never extend the file concurrently.
+      channel.write(ByteBuffer.allocate(1), this.length - 1L);
+      final ExecutorService executor = SegmentedDownload.getSharedExecutor();
+      final List<Future<Void>> futures = new ArrayList<>(segments);
+      for (long start = segmentSize; start < this.length; start += segmentSize) {
+        final long from = start;
+        final long to = Math.min(this.length, start + segmentSize) - 1L;
+        futures.add(executor.submit(() -> {
+          this.writeSegment(channel, from, to);
+          return null;
+        }));
+      }
+      try {
+        this.writeSegment(channel, 0L, Math.min(this.length, segmentSize) - 1L);
+        for (final Future<Void> future : futures) {
+          future.get();
+        }
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while downloading " + this.url, exception);
+      } catch (final ExecutionException exception) {
+        final Throwable cause = exception.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw new IOException(cause);
+      } finally {
+        futures.forEach(future -> future.cancel(true));
+      }
+    }
+  }
+
+  private void writeSegment(final FileChannel channel, final long from, final long to) throws IOException {
+    try (final TransportResponse response = this.transport.fetchRange(this.url, from, to, this.validator);
+         final InputStream body = response.getBody();
+         final ReadableByteChannel source = Channels.newChannel(body)) {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(SegmentedDownload.BUFFER_SIZE);
+      long position = from;
+      while (position <= to) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), to - position + 1L));
+        if (source.read(buffer) < 0) {
+          throw new IOException("Segment " + from + "-" + to + " of " + this.url + " ended at byte " + position);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          position += channel.write(buffer, position);
+        }
+      }
+    }
+  }
+}
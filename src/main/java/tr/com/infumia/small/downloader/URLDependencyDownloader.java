@@ -27,12 +27,14 @@ package tr.com.infumia.small.downloader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import tr.com.infumia.small.downloader.output.OutputWriter;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
+import tr.com.infumia.small.downloader.strategy.FilePathStrategy;
 import tr.com.infumia.small.downloader.verify.DependencyVerifier;
 import tr.com.infumia.small.logging.LogDispatcher;
 import tr.com.infumia.small.logging.ProcessLogger;
@@ -40,7 +42,13 @@ import tr.com.infumia.small.resolver.DependencyResolver;
 import tr.com.infumia.small.resolver.ResolutionResult;
 import tr.com.infumia.small.resolver.UnresolvedDependencyException;
 import tr.com.infumia.small.resolver.data.Dependency;
-import tr.com.infumia.small.util.Connections;
+import tr.com.infumia.small.resolver.pinger.FileURLPinger;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.ResourceMetadata;
+import tr.com.infumia.small.transport.Transport;
+import tr.com.infumia.small.transport.TransportResponse;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.FileLocks;
 
 public final class URLDependencyDownloader implements DependencyDownloader {
 
@@ -52,33 +60,95 @@ public final class URLDependencyDownloader implements DependencyDownloader {
 
   private final OutputWriterFactory outputWriterProducer;
 
+  private final Transport transport;
+
   private final DependencyVerifier verifier;
 
-  public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier) {
+  public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final Transport transport) {
     this.outputWriterProducer = outputWriterProducer;
     this.dependencyResolver = dependencyResolver;
     this.verifier = verifier;
+    this.transport = transport;
+  }
+
+  public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier) {
+    this(outputWriterProducer, dependencyResolver, verifier, HttpClientTransport.getShared());
+  }
+
+  /**
+   * Checks whether the file is the marker stored in place of an aggregator dependency, which has no artifact.
+   *
+   * @param file file selected for a dependency.
+   *
+   * @return <code>true</code> if the file is an aggregator marker.
+   *
+   * @throws IOException if the file cannot be read.
+   */
+  public static boolean isBom(final File file) throws IOException {
+    return file.exists()
+      && file.length() == URLDependencyDownloader.BOM_BYTES.length
+      && Arrays.equals(Files.readAllBytes(file.toPath()), URLDependencyDownloader.BOM_BYTES);
+  }
+
+  /**
+   * Provides an artifact of a local repository without streaming it, through a hard link when both files are on the
+   * same file store and a file system copy otherwise.
+   */
+  private static File fetchLocal(final Path source, final File expectedOutputFile) throws IOException {
+    URLDependencyDownloader.LOGGER.debug("Linking {0}", source);
+    final Path target = expectedOutputFile.toPath();
+    Files.createDirectories(target.getParent());
+    final Path temporary = AtomicFiles.temporaryFor(target);
+    try {
+      try {
+        Files.createLink(temporary, source);
+      } catch (final IOException | UnsupportedOperationException exception) {
+        Files.copy(source, temporary);
+      }
+      AtomicFiles.move(temporary, target);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return expectedOutputFile;
   }
 
-  @SuppressWarnings("ResultOfMethodCallIgnored")
   @Override
   public File download(final Dependency dependency) throws IOException {
-    final File expectedOutputFile = this.outputWriterProducer.getStrategy().selectFileFor(dependency);
-    if (expectedOutputFile.exists()
-      && expectedOutputFile.length() == URLDependencyDownloader.BOM_BYTES.length
-      && Arrays.equals(Files.readAllBytes(expectedOutputFile.toPath()), URLDependencyDownloader.BOM_BYTES)
-    ) {
+    final FilePathStrategy strategy = this.outputWriterProducer.getStrategy();
+    final File expectedOutputFile = strategy.selectFileFor(dependency);
+    if (URLDependencyDownloader.isBom(expectedOutputFile)) {
       return null;
     }
     if (this.verifier.verify(expectedOutputFile, dependency)) {
-      return expectedOutputFile;
+      return strategy.commit(dependency, expectedOutputFile);
+    }
+    try (final FileLocks.Lock ignored = FileLocks.lock(expectedOutputFile.toPath())) {
+      // Another process may have finished the artifact while this one was waiting for the lock.
+      if (URLDependencyDownloader.isBom(expectedOutputFile)) {
+        return null;
+      }
+      if (this.verifier.verify(expectedOutputFile, dependency)) {
+        return strategy.commit(dependency, expectedOutputFile);
+      }
+      final File fetched;
+      try {
+        fetched = this.fetch(dependency, expectedOutputFile);
+      } catch (final IOException | RuntimeException exception) {
+        // A cached resolution may point at an artifact that moved or broke, the next attempt resolves it again.
+        this.dependencyResolver.invalidate(dependency);
+        throw exception;
+      }
+      return fetched == null ? null : strategy.commit(dependency, fetched);
     }
+  }
+
+  @SuppressWarnings("ResultOfMethodCallIgnored")
+  private File fetch(final Dependency dependency, final File expectedOutputFile) throws IOException {
     final ResolutionResult result = this.dependencyResolver.resolve(dependency)
       .orElseThrow(() -> new UnresolvedDependencyException(dependency));
     if (result.isAggregator()) {
       expectedOutputFile.getParentFile().mkdirs();
-      expectedOutputFile.createNewFile();
-      Files.write(expectedOutputFile.toPath(), URLDependencyDownloader.BOM_BYTES);
+      AtomicFiles.write(expectedOutputFile.toPath(), URLDependencyDownloader.BOM_BYTES);
       return null;
     }
     expectedOutputFile.delete();
@@ -88,17 +158,73 @@ public final class URLDependencyDownloader implements DependencyDownloader {
     }
     URLDependencyDownloader.LOGGER.log("Downloading {0}:{1}:{2}...", dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
     final URL url = result.getDependencyURL();
-    URLDependencyDownloader.LOGGER.debug("Connecting to {0}", url);
-    final URLConnection connection = Connections.createDownloadConnection(url);
-    final InputStream inputStream = connection.getInputStream();
-    URLDependencyDownloader.LOGGER.debug("Connection successful! Downloading {0}", dependency.getArtifactId() + "...");
-    final OutputWriter outputWriter = this.outputWriterProducer.create(dependency);
-    URLDependencyDownloader.LOGGER.debug("{0}.Size = {1}", dependency.getArtifactId(), connection.getContentLength());
-    final File downloadResult = outputWriter.writeFrom(inputStream, connection.getContentLength());
-    Connections.tryDisconnect(connection);
-    this.verifier.verify(downloadResult, dependency);
+    final Path local = FileURLPinger.toPath(url);
+    final File downloadResult;
+    if (local != null) {
+      downloadResult = URLDependencyDownloader.fetchLocal(local, expectedOutputFile);
+    } else {
+      downloadResult = this.fetchRemote(dependency, url, expectedOutputFile);
+    }
+    if (!this.verifier.verify(downloadResult, dependency)) {
+      this.dependencyResolver.invalidate(dependency);
+    }
     URLDependencyDownloader.LOGGER.debug("Artifact {0} downloaded successfully!", dependency.getArtifactId());
     URLDependencyDownloader.LOGGER.debug("Downloaded {0} successfully!", dependency.getArtifactId());
     return downloadResult;
   }
+
+  private File fetchRemote(final Dependency dependency, final URL url, final File expectedOutputFile) throws IOException {
+    URLDependencyDownloader.LOGGER.debug("Connecting to {0}", url);
+    final ResourceMetadata probed = this.transport.metadata(url);
+    final PartialDownload partial = PartialDownload.forFile(expectedOutputFile);
+    final long stored = partial.resumableLength(url, probed);
+    if (stored > 0L) {
+      URLDependencyDownloader.LOGGER.debug("Resuming {0} from byte {1}", dependency.getArtifactId(), stored);
+    }
+    final SegmentedDownload segmented = stored > 0L ? null : SegmentedDownload.of(this.transport, url, probed);
+    File downloadResult = segmented == null ? null : this.fetchSegmented(dependency, segmented);
+    if (downloadResult == null) {
+      downloadResult = this.fetchStream(dependency, url, probed, partial, stored);
+    }
+    return downloadResult;
+  }
+
+  private File fetchSegmented(final Dependency dependency, final SegmentedDownload segmented) throws IOException {
+    URLDependencyDownloader.LOGGER.debug("Downloading {0} in segments", dependency.getArtifactId());
+    try {
+      // Segments land in the writer's temporary file, which the verifier digests once before it is moved into place.
+      final OutputWriter outputWriter = this.verifier.wrap(dependency, this.outputWriterProducer.create(dependency));
+      return outputWriter.writeFrom(segmented::writeTo, segmented.getLength());
+    } catch (final IOException exception) {
+      URLDependencyDownloader.LOGGER.debug("Segmented download of {0} failed, falling back to a single connection: {1}", dependency.getArtifactId(), exception.getMessage());
+      return null;
+    }
+  }
+
+  private File fetchStream(final Dependency dependency, final URL url, final ResourceMetadata probed, final PartialDownload partial, final long stored) throws IOException {
+    final File downloadResult;
+    try (final TransportResponse response = this.transport.fetchFrom(url, stored, stored > 0L ? partial.validator() : null)) {
+      final long offset = response.getStatusCode() == HttpURLConnection.HTTP_PARTIAL ? stored : 0L;
+      final ResourceMetadata received = ResourceMetadata.from(response);
+      final InputStream inputStream = partial.begin(url, received, offset, response.getBody());
+      URLDependencyDownloader.LOGGER.debug("Connection successful! Downloading {0}", dependency.getArtifactId() + "...");
+      final OutputWriter outputWriter = this.verifier.wrap(dependency, this.outputWriterProducer.create(dependency));
+      final long contentLength;
+      if (offset > 0L) {
+        contentLength = received.getContentLength();
+      } else {
+        contentLength = response.getContentLength() < 0L && probed != null ? probed.getContentLength() : response.getContentLength();
+      }
+      URLDependencyDownloader.LOGGER.debug("{0}.Size = {1}", dependency.getArtifactId(), contentLength);
+      downloadResult = outputWriter.writeFrom(inputStream, contentLength);
+      final long written = downloadResult == null ? -1L : downloadResult.length();
+      if (contentLength >= 0L && written >= 0L && written != contentLength) {
+        // The connection ended early, the stored part is kept so the next attempt can resume.
+        downloadResult.delete();
+        throw new IOException("Download of " + dependency.getArtifactId() + " ended after " + written + " of " + contentLength + " bytes");
+      }
+    }
+    partial.discard();
+    return downloadResult;
+  }
 }
@@ -27,11 +27,23 @@ package tr.com.infumia.small.downloader;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
 import tr.com.infumia.small.downloader.verify.DependencyVerifier;
 import tr.com.infumia.small.resolver.DependencyResolver;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.Transport;
 
 public final class URLDependencyDownloaderFactory implements DependencyDownloaderFactory {
 
+  private final Transport transport;
+
+  public URLDependencyDownloaderFactory(final Transport transport) {
+    this.transport = transport;
+  }
+
+  public URLDependencyDownloaderFactory() {
+    this(HttpClientTransport.getShared());
+  }
+
   @Override
   public DependencyDownloader create(final OutputWriterFactory outputWriterFactory, final DependencyResolver resolver, final DependencyVerifier verifier) {
-    return new URLDependencyDownloader(outputWriterFactory, resolver, verifier);
+    return new URLDependencyDownloader(outputWriterFactory, resolver, verifier, this.transport);
   }
 }
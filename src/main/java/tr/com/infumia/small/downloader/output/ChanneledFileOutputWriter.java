@@ -24,17 +24,26 @@
 
 package tr.com.infumia.small.downloader.output;
 
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import tr.com.infumia.small.util.AtomicFiles;
 
 public final class ChanneledFileOutputWriter implements OutputWriter {
 
+  private static final int BUFFER_SIZE = 256 * 1024;
+
   private static final Logger LOGGER = Logger.getLogger(ChanneledFileOutputWriter.class.getName());
 
   private final File outputFile;
@@ -43,15 +52,71 @@ public final class ChanneledFileOutputWriter implements OutputWriter {
     this.outputFile = outputFile;
   }
 
+  /**
+   * Copies the source into the target until the source reaches its end. A single read or write may move fewer bytes
+   * than requested, so both sides are looped over.
+   *
+   * @param source channel to read from.
+   * @param target channel to write to.
+   *
+   * @return the amount of bytes copied.
+   *
+   * @throws IOException on read or write failure.
+   */
+  private static long transfer(final ReadableByteChannel source, final FileChannel target) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(ChanneledFileOutputWriter.BUFFER_SIZE);
+    long transferred = 0L;
+    while (source.read(buffer) >= 0 || buffer.position() > 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        transferred += target.write(buffer);
+      }
+      buffer.clear();
+    }
+    return transferred;
+  }
+
+  @Override
+  public File writeFrom(final Content content, final long length) throws IOException {
+    if (!this.outputFile.exists()) {
+      final Path temporary = AtomicFiles.temporaryFor(this.outputFile.toPath());
+      try {
+        content.writeTo(temporary);
+        final long written = Files.size(temporary);
+        if (length >= 0L && written != length) {
+          throw new EOFException("Expected " + length + " bytes for " + this.outputFile.getName() + " but wrote " + written);
+        }
+        AtomicFiles.move(temporary, this.outputFile.toPath());
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    }
+    return this.outputFile;
+  }
+
   @Override
   public File writeFrom(final InputStream inputStream, final long length) throws IOException {
     ChanneledFileOutputWriter.LOGGER.log(Level.FINE, "Attempting to write from inputStream...");
     if (!this.outputFile.exists()) {
-      ChanneledFileOutputWriter.LOGGER.log(Level.FINE, "Writing {0} bytes...", length);
-      try (final ReadableByteChannel channel = Channels.newChannel(inputStream)) {
-        try (final FileOutputStream output = new FileOutputStream(this.outputFile)) {
-          output.getChannel().transferFrom(channel, 0, length);
+      ChanneledFileOutputWriter.LOGGER.log(Level.FINE, "Writing {0} bytes...", length < 0L ? "an unknown amount of" : length);
+      // Other processes must never see a partially written file at the final path.
+      final Path temporary = AtomicFiles.temporaryFor(this.outputFile.toPath());
+      try {
+        final long started = System.nanoTime();
+        final long transferred;
+        try (final ReadableByteChannel channel = Channels.newChannel(inputStream);
+             final FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+          transferred = ChanneledFileOutputWriter.transfer(channel, output);
+        }
+        if (length >= 0L && transferred != length) {
+          throw new EOFException("Expected " + length + " bytes for " + this.outputFile.getName() + " but received " + transferred);
         }
+        final long elapsed = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        ChanneledFileOutputWriter.LOGGER.log(Level.FINE, "Wrote {0} bytes to {1} in {2} ms ({3} bytes/s)",
+          new Object[]{transferred, this.outputFile.getName(), elapsed, transferred * 1000L / elapsed});
+        AtomicFiles.move(temporary, this.outputFile.toPath());
+      } finally {
+        Files.deleteIfExists(temporary);
       }
     }
     inputStream.close();
@@ -0,0 +1,137 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader.output;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.function.Consumer;
+import tr.com.infumia.small.util.Checksums;
+
+/**
+ * Computes the checksum of the written bytes while they stream from the source to the delegate writer.
+ * The checksum is only reported when the whole output file went through the digest. Content written straight into
+ * a file is digested once from that file before it is moved into place.
+ */
+public final class DigestingOutputWriter implements OutputWriter {
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final OutputWriter delegate;
+
+  private final MessageDigest digest;
+
+  private final Consumer<String> onDigested;
+
+  public DigestingOutputWriter(final OutputWriter delegate, final MessageDigest digest, final Consumer<String> onDigested) {
+    this.delegate = delegate;
+    this.digest = digest;
+    this.onDigested = onDigested;
+  }
+
+  private static long update(final MessageDigest digest, final Path file) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(DigestingOutputWriter.BUFFER_SIZE);
+    long count = 0L;
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        count += buffer.remaining();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public File writeFrom(final Content content, final long length) throws IOException {
+    this.digest.reset();
+    final long[] digested = {-1L};
+    final File result = this.delegate.writeFrom(target -> {
+      content.writeTo(target);
+      digested[0] = DigestingOutputWriter.update(this.digest, target);
+    }, length);
+    if (result != null && result.isFile() && result.length() == digested[0]) {
+      this.onDigested.accept(Checksums.toHex(this.digest.digest()));
+    }
+    return result;
+  }
+
+  @Override
+  public File writeFrom(final InputStream inputStream, final long length) throws IOException {
+    this.digest.reset();
+    final DigestingInputStream digestingStream = new DigestingInputStream(inputStream, this.digest);
+    final File result = this.delegate.writeFrom(digestingStream, length);
+    if (result != null && result.isFile() && result.length() == digestingStream.count) {
+      this.onDigested.accept(Checksums.toHex(this.digest.digest()));
+    }
+    return result;
+  }
+
+  private static final class DigestingInputStream extends FilterInputStream {
+
+    private final MessageDigest digest;
+
+    private long count;
+
+    private DigestingInputStream(final InputStream inputStream, final MessageDigest digest) {
+      super(inputStream);
+      this.digest = digest;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = this.in.read();
+      if (read != -1) {
+        this.digest.update((byte) read);
+        this.count++;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      final int read = this.in.read(bytes, offset, length);
+      if (read > 0) {
+        this.digest.update(bytes, offset, read);
+        this.count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+      // Skipped bytes would never reach the digest.
+      return 0L;
+    }
+  }
+}
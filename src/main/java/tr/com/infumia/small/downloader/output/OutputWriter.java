@@ -27,8 +27,50 @@ package tr.com.infumia.small.downloader.output;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public interface OutputWriter {
 
   File writeFrom(final InputStream inputStream, final long length) throws IOException;
+
+  /**
+   * Writes the output from content that is produced straight into a file, such as the segments of a download.
+   * The default implementation stages the content in a temporary file and streams it through
+   * {@link #writeFrom(InputStream, long)}, writers that own a file override it to let the content land in place.
+   *
+   * @param content content to write.
+   * @param length expected amount of bytes, negative if unknown.
+   *
+   * @return the written file.
+   *
+   * @throws IOException if the content or the write fails.
+   */
+  default File writeFrom(final Content content, final long length) throws IOException {
+    final Path staged = Files.createTempFile("small-", ".part");
+    try {
+      content.writeTo(staged);
+      try (final InputStream inputStream = Files.newInputStream(staged)) {
+        return this.writeFrom(inputStream, length);
+      }
+    } finally {
+      Files.deleteIfExists(staged);
+    }
+  }
+
+  /**
+   * Content that writes itself into a file.
+   */
+  @FunctionalInterface
+  interface Content {
+
+    /**
+     * Writes the content into the target, which is created or truncated first.
+     *
+     * @param target file to write to.
+     *
+     * @throws IOException if the content cannot be written.
+     */
+    void writeTo(Path target) throws IOException;
+  }
 }
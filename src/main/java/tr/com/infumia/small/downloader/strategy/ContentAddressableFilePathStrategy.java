@@ -0,0 +1,56 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader.strategy;
+
+import java.io.File;
+import java.io.IOException;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+/**
+ * Keeps the file layout of another strategy but stores the bytes of committed files in a {@link ContentStore}, so
+ * the selected files become views of deduplicated objects.
+ */
+public final class ContentAddressableFilePathStrategy implements FilePathStrategy {
+
+  private final FilePathStrategy delegate;
+
+  private final ContentStore store;
+
+  public ContentAddressableFilePathStrategy(final FilePathStrategy delegate, final ContentStore store) {
+    this.delegate = delegate;
+    this.store = store;
+  }
+
+  @Override
+  public File commit(final Dependency dependency, final File file) throws IOException {
+    return this.store.link(this.delegate.commit(dependency, file));
+  }
+
+  @Override
+  public File selectFileFor(final Dependency dependency) {
+    return this.delegate.selectFileFor(dependency);
+  }
+}
@@ -0,0 +1,344 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader.strategy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.Checksums;
+import tr.com.infumia.small.util.FileLocks;
+
+/**
+ * Content-addressable store of artifact bytes. Objects live under <code>objects/ab/&lt;sha-256&gt;</code> and the
+ * files applications use are views linked to them, preferably hard links and otherwise symbolic links, so identical
+ * jars are kept on disk once no matter how many applications or coordinates refer to them.
+ * <p>
+ * Every view is recorded in an append-only reference file. {@link #collect()} drops references whose view is gone or
+ * no longer linked to its object and deletes objects nobody refers to anymore.
+ */
+public final class ContentStore {
+
+  public static final String STORE_DIRECTORY_NAME = ".small-store";
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private static final String COLLECTED_FILE_NAME = "collected";
+
+  private static final long COLLECT_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final String REFERENCES_FILE_NAME = "refs";
+
+  private static final String SEPARATOR = "\t";
+
+  private static final Map<Path, ContentStore> STORES = new ConcurrentHashMap<>();
+
+  private final Path objectsDirectory;
+
+  private final Map<String, String> references = new HashMap<>();
+
+  private final Path referencesFile;
+
+  private final Path root;
+
+  private boolean loaded;
+
+  public ContentStore(final Path root) {
+    this.root = root;
+    this.objectsDirectory = root.resolve("objects");
+    this.referencesFile = root.resolve(ContentStore.REFERENCES_FILE_NAME);
+  }
+
+  /**
+   * Returns the store shared by every application of the given download root in this JVM.
+   *
+   * @param downloadDirectory download root the store belongs to.
+   *
+   * @return store of the download root.
+   */
+  public static ContentStore forDirectory(final Path downloadDirectory) {
+    final Path root = downloadDirectory.toAbsolutePath().normalize();
+    return ContentStore.STORES.computeIfAbsent(root, path -> new ContentStore(path.resolve(ContentStore.STORE_DIRECTORY_NAME)));
+  }
+
+  private static boolean hasOtherLinks(final Path object) {
+    try {
+      final Object links = Files.getAttribute(object, "unix:nlink");
+      return links instanceof Integer && (Integer) links > 1;
+    } catch (final IOException | UnsupportedOperationException | IllegalArgumentException exception) {
+      return false;
+    }
+  }
+
+  private static String hash(final Path file) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(ContentStore.ALGORITHM);
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IOException(exception);
+    }
+    try (final InputStream input = Files.newInputStream(file)) {
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return Checksums.toHex(digest.digest());
+  }
+
+  private static boolean isLinked(final Path view, final Path object) {
+    try {
+      return Files.exists(object) && Files.exists(view) && Files.isSameFile(view, object);
+    } catch (final IOException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Removes stale references and deletes objects without references.
+   *
+   * @return the amount of deleted objects.
+   */
+  public synchronized int collect() {
+    // Appends of other processes wait for the collection, so rewriting the references never drops one of theirs.
+    try (final FileLocks.Lock ignored = FileLocks.lock(this.referencesFile)) {
+      return this.collectLocked();
+    } catch (final IOException exception) {
+      ContentStore.LOGGER.debug("Could not lock content store {0}: {1}", this.root, exception.getMessage());
+      return 0;
+    }
+  }
+
+  /**
+   * Runs {@link #collect()} if it did not run within the last day.
+   */
+  public void collectIfDue() {
+    final Path stamp = this.root.resolve(ContentStore.COLLECTED_FILE_NAME);
+    try {
+      if (Files.exists(stamp) &&
+        System.currentTimeMillis() - Files.getLastModifiedTime(stamp).toMillis() < ContentStore.COLLECT_INTERVAL) {
+        return;
+      }
+    } catch (final IOException exception) {
+      return;
+    }
+    this.collect();
+  }
+
+  /**
+   * Moves the content of the file into the store and turns the file into a view of the stored object. Files that
+   * cannot be linked, for example because the store is on another file system, are left untouched.
+   *
+   * @param file completely written file.
+   *
+   * @return the file.
+   *
+   * @throws IOException if the file cannot be read.
+   */
+  public synchronized File link(final File file) throws IOException {
+    this.load();
+    final Path view = file.toPath().toAbsolutePath().normalize();
+    final String key = view.toString();
+    final String known = this.references.get(key);
+    if (known != null && ContentStore.isLinked(view, this.objectFor(known))) {
+      return file;
+    }
+    final String hash = ContentStore.hash(view);
+    final Path object = this.objectFor(hash);
+    try {
+      Files.createDirectories(object.getParent());
+      if (!Files.exists(object)) {
+        Files.createLink(object, view);
+      } else if (!Files.isSameFile(view, object)) {
+        this.replaceWithLink(view, object);
+      }
+    } catch (final UnsupportedOperationException | FileSystemException exception) {
+      ContentStore.LOGGER.debug("Could not link {0} into the content store: {1}", view, exception.getMessage());
+      return file;
+    }
+    this.reference(key, hash);
+    return file;
+  }
+
+  private int collectLocked() {
+    // Other processes may have added references since this store was loaded.
+    this.references.clear();
+    this.loaded = false;
+    this.load();
+    final Set<String> referenced = new HashSet<>();
+    boolean changed = false;
+    for (final Iterator<Map.Entry<String, String>> iterator = this.references.entrySet().iterator(); iterator.hasNext(); ) {
+      final Map.Entry<String, String> entry = iterator.next();
+      if (ContentStore.isLinked(Path.of(entry.getKey()), this.objectFor(entry.getValue()))) {
+        referenced.add(entry.getValue());
+      } else {
+        iterator.remove();
+        changed = true;
+      }
+    }
+    int deleted = 0;
+    if (Files.isDirectory(this.objectsDirectory)) {
+      try (final DirectoryStream<Path> prefixes = Files.newDirectoryStream(this.objectsDirectory)) {
+        for (final Path prefix : prefixes) {
+          try (final DirectoryStream<Path> objects = Files.newDirectoryStream(prefix)) {
+            for (final Path object : objects) {
+              if (!referenced.contains(object.getFileName().toString()) && !ContentStore.hasOtherLinks(object) &&
+                Files.deleteIfExists(object)) {
+                deleted++;
+              }
+            }
+          }
+        }
+      } catch (final IOException exception) {
+        ContentStore.LOGGER.debug("Could not collect content store {0}: {1}", this.root, exception.getMessage());
+      }
+    }
+    try {
+      if (changed) {
+        this.compact();
+      }
+      Files.createDirectories(this.root);
+      Files.write(this.root.resolve(ContentStore.COLLECTED_FILE_NAME), new byte[0]);
+    } catch (final IOException exception) {
+      ContentStore.LOGGER.debug("Could not update content store {0}: {1}", this.root, exception.getMessage());
+    }
+    if (deleted > 0) {
+      ContentStore.LOGGER.debug("Deleted {0} unreferenced objects from {1}", deleted, this.root);
+    }
+    return deleted;
+  }
+
+  /**
+   * Rewrites the references file with the references of this store, the caller holds the lock of the file.
+   */
+  private void compact() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    for (final Map.Entry<String, String> entry : this.references.entrySet()) {
+      builder.append(entry.getValue()).append(ContentStore.SEPARATOR).append(entry.getKey()).append('\n');
+    }
+    AtomicFiles.write(this.referencesFile, builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void load() {
+    if (this.loaded) {
+      return;
+    }
+    this.loaded = true;
+    final int lines;
+    try {
+      lines = this.read();
+    } catch (final IOException exception) {
+      ContentStore.LOGGER.debug("Could not read content store references {0}, starting over", this.referencesFile);
+      this.references.clear();
+      return;
+    }
+    if (lines > this.references.size() * 2 + 16) {
+      // Read again under the lock, so references other processes appended since are kept.
+      try (final FileLocks.Lock ignored = FileLocks.lock(this.referencesFile)) {
+        this.references.clear();
+        this.read();
+        this.compact();
+      } catch (final IOException exception) {
+        ContentStore.LOGGER.debug("Could not compact content store references {0}", this.referencesFile);
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (!Files.isRegularFile(this.referencesFile)) {
+      return 0;
+    }
+    int lines = 0;
+    try (final BufferedReader reader = Files.newBufferedReader(this.referencesFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines++;
+        final int separator = line.indexOf(ContentStore.SEPARATOR);
+        if (separator > 0) {
+          this.references.put(line.substring(separator + 1), line.substring(0, separator));
+        }
+      }
+    }
+    return lines;
+  }
+
+  private Path objectFor(final String hash) {
+    return this.objectsDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+  }
+
+  private void reference(final String view, final String hash) {
+    if (view.contains(ContentStore.SEPARATOR) || view.contains("\n") || view.contains("\r") ||
+      hash.equals(this.references.put(view, hash))) {
+      return;
+    }
+    // Appends wait for compactions of other processes, which would otherwise replace the file they append to.
+    try (final FileLocks.Lock ignored = FileLocks.lock(this.referencesFile);
+         final Writer writer = Files.newBufferedWriter(this.referencesFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      writer.write(hash + ContentStore.SEPARATOR + view + '\n');
+    } catch (final IOException exception) {
+      ContentStore.LOGGER.debug("Could not record content store reference {0}: {1}", view, exception.getMessage());
+    }
+  }
+
+  private void replaceWithLink(final Path view, final Path object) throws IOException {
+    final Path temporary = view.resolveSibling(view.getFileName() + ".small-link");
+    Files.deleteIfExists(temporary);
+    try {
+      Files.createLink(temporary, object);
+    } catch (final UnsupportedOperationException | FileSystemException exception) {
+      Files.createSymbolicLink(temporary, object);
+    }
+    try {
+      Files.move(temporary, view, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final IOException exception) {
+      Files.deleteIfExists(temporary);
+      throw exception;
+    }
+  }
+}
@@ -25,10 +25,15 @@
 package tr.com.infumia.small.downloader.strategy;
 
 import java.io.File;
+import java.io.IOException;
 import tr.com.infumia.small.resolver.data.Dependency;
 
 public interface FilePathStrategy {
 
+  static FilePathStrategy createContentAddressable(final FilePathStrategy delegate, final ContentStore store) {
+    return new ContentAddressableFilePathStrategy(delegate, store);
+  }
+
   static FilePathStrategy createDefault(final File root) {
     return FolderedFilePathStrategy.createStrategy(root);
   }
@@ -37,5 +42,19 @@ public interface FilePathStrategy {
     return RelocationFilePathStrategy.createStrategy(root, applicationName);
   }
 
+  /**
+   * Called once a file for the dependency has been completely written and verified.
+   *
+   * @param dependency dependency the file belongs to.
+   * @param file the written file.
+   *
+   * @return the file to use from now on.
+   *
+   * @throws IOException if the file cannot be committed.
+   */
+  default File commit(final Dependency dependency, final File file) throws IOException {
+    return file;
+  }
+
   File selectFileFor(final Dependency dependency);
 }
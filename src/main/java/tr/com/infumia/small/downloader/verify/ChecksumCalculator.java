@@ -26,8 +26,29 @@ package tr.com.infumia.small.downloader.verify;
 
 import java.io.File;
 import java.io.IOException;
+import java.security.MessageDigest;
 
 public interface ChecksumCalculator {
 
   String calculate(final File file) throws IOException;
+
+  /**
+   * Creates a digest that yields the same checksum as {@link #calculate(File)} when fed with the file contents.
+   *
+   * @return a fresh digest, or <code>null</code> if the calculator can not checksum streamed bytes.
+   *
+   * @throws IOException on failure to create the digest.
+   */
+  default MessageDigest createDigest() throws IOException {
+    return null;
+  }
+
+  /**
+   * Names the algorithm, so recorded checksums of different calculators are never mistaken for each other.
+   *
+   * @return the algorithm, or <code>null</code> if checksums of this calculator must not be recorded.
+   */
+  default String getAlgorithm() {
+    return null;
+  }
 }
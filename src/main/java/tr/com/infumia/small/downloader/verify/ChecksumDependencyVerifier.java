@@ -28,10 +28,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import tr.com.infumia.small.downloader.output.DigestingOutputWriter;
 import tr.com.infumia.small.downloader.output.OutputWriter;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
 import tr.com.infumia.small.logging.LogDispatcher;
@@ -39,7 +42,9 @@ import tr.com.infumia.small.logging.ProcessLogger;
 import tr.com.infumia.small.resolver.DependencyResolver;
 import tr.com.infumia.small.resolver.ResolutionResult;
 import tr.com.infumia.small.resolver.data.Dependency;
-import tr.com.infumia.small.util.Connections;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.Transport;
+import tr.com.infumia.small.transport.TransportResponse;
 
 public final class ChecksumDependencyVerifier implements DependencyVerifier {
 
@@ -49,15 +54,27 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
 
   private final DependencyVerifier fallbackVerifier;
 
+  private final VerificationIndex index;
+
   private final OutputWriterFactory outputWriterFactory;
 
   private final DependencyResolver resolver;
 
-  public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator) {
+  private final Map<Dependency, String> streamedChecksums = new ConcurrentHashMap<>();
+
+  private final Transport transport;
+
+  public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator, final VerificationIndex index, final Transport transport) {
     this.resolver = resolver;
     this.outputWriterFactory = outputWriterFactory;
     this.fallbackVerifier = fallbackVerifier;
     this.checksumCalculator = checksumCalculator;
+    this.index = index;
+    this.transport = transport;
+  }
+
+  public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator) {
+    this(resolver, outputWriterFactory, fallbackVerifier, checksumCalculator, null, HttpClientTransport.getShared());
   }
 
   @Override
@@ -84,13 +101,32 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
       ChecksumDependencyVerifier.LOGGER.log("Required checksum not found for {0}, using fallbackVerifier!", dependency.getArtifactId());
       return this.fallbackVerifier.verify(file, dependency);
     }
-    final String actualChecksum = this.checksumCalculator.calculate(file);
     final String expectedChecksum = new String(Files.readAllBytes(checksumFile.toPath())).trim();
+    final String streamedChecksum = this.streamedChecksums.remove(dependency);
+    final String algorithm = this.checksumCalculator.getAlgorithm();
+    if (streamedChecksum == null && this.index != null && algorithm != null && expectedChecksum.equals(this.index.lookup(file, algorithm))) {
+      ChecksumDependencyVerifier.LOGGER.debug("Checksum matched for {0} (verification index)", dependency.getArtifactId());
+      return true;
+    }
+    final String actualChecksum = streamedChecksum != null ? streamedChecksum : this.checksumCalculator.calculate(file);
     ChecksumDependencyVerifier.LOGGER.debug("{0} -> Actual checksum: {1};", dependency.getArtifactId(), actualChecksum);
     ChecksumDependencyVerifier.LOGGER.debug("{0} -> Expected checksum: {1};", dependency.getArtifactId(), expectedChecksum);
     final boolean match = Objects.equals(actualChecksum, expectedChecksum);
     ChecksumDependencyVerifier.LOGGER.debug("Checksum {0} for {1}", match ? "matched" : "match failed", dependency.getArtifactId());
-    return Objects.equals(actualChecksum, expectedChecksum);
+    if (match && this.index != null && algorithm != null) {
+      this.index.record(file, algorithm, actualChecksum);
+    }
+    return match;
+  }
+
+  @Override
+  public OutputWriter wrap(final Dependency dependency, final OutputWriter outputWriter) throws IOException {
+    this.streamedChecksums.remove(dependency);
+    final MessageDigest digest = this.checksumCalculator.createDigest();
+    if (digest == null) {
+      return outputWriter;
+    }
+    return new DigestingOutputWriter(outputWriter, digest, checksum -> this.streamedChecksums.put(dependency, checksum));
   }
 
   @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -105,11 +141,15 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
         checksumFile.createNewFile();
         return true;
       }
-      final URLConnection connection = Connections.createDownloadConnection(checkSumUrl);
-      final InputStream inputStream = connection.getInputStream();
-      final OutputWriter outputWriter = this.outputWriterFactory.create(dependency);
-      outputWriter.writeFrom(inputStream, connection.getContentLength());
-      Connections.tryDisconnect(connection);
+      if (!this.transport.isSupported(checkSumUrl)) {
+        ChecksumDependencyVerifier.LOGGER.debug("Checksum for {0} is out of reach", dependency.getArtifactId());
+        return false;
+      }
+      try (final TransportResponse response = this.transport.fetch(checkSumUrl)) {
+        final InputStream inputStream = response.getBody();
+        final OutputWriter outputWriter = this.outputWriterFactory.create(dependency);
+        outputWriter.writeFrom(inputStream, response.getContentLength());
+      }
       ChecksumDependencyVerifier.LOGGER.debug("Downloaded checksum for {0}", dependency.getArtifactId());
     }
     return true;
@@ -28,6 +28,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
 import tr.com.infumia.small.resolver.DependencyResolver;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.Transport;
 
 public final class ChecksumDependencyVerifierFactory implements DependencyVerifierFactory {
 
@@ -37,17 +39,27 @@ public final class ChecksumDependencyVerifierFactory implements DependencyVerifi
 
   private final DependencyVerifierFactory fallbackVerifierFactory;
 
+  private final VerificationIndex index;
+
   private final OutputWriterFactory outputWriterFactory;
 
-  public ChecksumDependencyVerifierFactory(final OutputWriterFactory outputWriterFactory, final DependencyVerifierFactory fallbackVerifierFactory, final ChecksumCalculator checksumCalculator) {
+  private final Transport transport;
+
+  public ChecksumDependencyVerifierFactory(final OutputWriterFactory outputWriterFactory, final DependencyVerifierFactory fallbackVerifierFactory, final ChecksumCalculator checksumCalculator, final VerificationIndex index, final Transport transport) {
     this.outputWriterFactory = outputWriterFactory;
     this.fallbackVerifierFactory = fallbackVerifierFactory;
     this.checksumCalculator = checksumCalculator;
+    this.index = index;
+    this.transport = transport;
+  }
+
+  public ChecksumDependencyVerifierFactory(final OutputWriterFactory outputWriterFactory, final DependencyVerifierFactory fallbackVerifierFactory, final ChecksumCalculator checksumCalculator) {
+    this(outputWriterFactory, fallbackVerifierFactory, checksumCalculator, null, HttpClientTransport.getShared());
   }
 
   @Override
   public DependencyVerifier create(final DependencyResolver resolver) {
     ChecksumDependencyVerifierFactory.LOGGER.log(Level.FINEST, "Creating verifier...");
-    return new ChecksumDependencyVerifier(resolver, this.outputWriterFactory, this.fallbackVerifierFactory.create(resolver), this.checksumCalculator);
+    return new ChecksumDependencyVerifier(resolver, this.outputWriterFactory, this.fallbackVerifierFactory.create(resolver), this.checksumCalculator, this.index, this.transport);
   }
 }
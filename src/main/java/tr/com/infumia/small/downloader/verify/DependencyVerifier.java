@@ -26,6 +26,7 @@ package tr.com.infumia.small.downloader.verify;
 
 import java.io.File;
 import java.io.IOException;
+import tr.com.infumia.small.downloader.output.OutputWriter;
 import tr.com.infumia.small.resolver.data.Dependency;
 
 public interface DependencyVerifier {
@@ -33,4 +34,18 @@ public interface DependencyVerifier {
   File getChecksumFile(final Dependency dependency);
 
   boolean verify(final File file, final Dependency dependency) throws IOException;
+
+  /**
+   * Wraps the writer of a fresh download, allowing the verifier to observe the bytes while they are written.
+   *
+   * @param dependency the dependency being downloaded.
+   * @param outputWriter the writer the download goes through.
+   *
+   * @return the writer to use for the download.
+   *
+   * @throws IOException on failure to prepare the writer.
+   */
+  default OutputWriter wrap(final Dependency dependency, final OutputWriter outputWriter) throws IOException {
+    return outputWriter;
+  }
 }
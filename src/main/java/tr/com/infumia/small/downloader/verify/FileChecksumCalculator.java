@@ -31,6 +31,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import tr.com.infumia.small.util.Checksums;
 
 public final class FileChecksumCalculator implements ChecksumCalculator {
 
@@ -38,10 +39,12 @@ public final class FileChecksumCalculator implements ChecksumCalculator {
 
   private static final Logger LOGGER = Logger.getLogger(FileChecksumCalculator.class.getName());
 
-  private final MessageDigest digest;
+  private final String algorithm;
 
   public FileChecksumCalculator(final String algorithm) throws NoSuchAlgorithmException {
-    this.digest = MessageDigest.getInstance(algorithm);
+    // Fails early on unknown algorithms, digests themselves are created per call to stay thread-safe.
+    MessageDigest.getInstance(algorithm);
+    this.algorithm = algorithm;
   }
 
   @Override
@@ -51,22 +54,30 @@ public final class FileChecksumCalculator implements ChecksumCalculator {
     if (file.isDirectory()) {
       return FileChecksumCalculator.DIRECTORY_HASH;
     }
-    this.digest.reset();
+    final MessageDigest digest = this.createDigest();
     try (final FileInputStream fis = new FileInputStream(file)) {
       final byte[] byteArray = new byte[1024];
       int bytesCount;
       while ((bytesCount = fis.read(byteArray)) != -1) {
-        this.digest.update(byteArray, 0, bytesCount);
+        digest.update(byteArray, 0, bytesCount);
       }
     }
-    final byte[] bytes = this.digest.digest();
-    final StringBuilder sb = new StringBuilder();
-    for (final byte b : bytes) {
-      sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-    }
-    sb.trimToSize();
-    final String result = sb.toString();
+    final String result = Checksums.toHex(digest.digest());
     FileChecksumCalculator.LOGGER.log(Level.FINEST, "Hash for {0} -> {1}", new Object[]{file.getPath(), result});
     return result;
   }
+
+  @Override
+  public MessageDigest createDigest() throws IOException {
+    try {
+      return MessageDigest.getInstance(this.algorithm);
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IOException(exception);
+    }
+  }
+
+  @Override
+  public String getAlgorithm() {
+    return this.algorithm;
+  }
 }
@@ -0,0 +1,281 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.downloader.verify;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.FileLocks;
+
+/**
+ * Remembers the last verified checksum of each file under a download root, per algorithm, keyed by path, size,
+ * modification time and file key (inode), so unchanged files can be verified again with a single stat call instead of
+ * re-hashing them.
+ * The index is persisted as an append-only file in the download root and compacted when loaded.
+ */
+public final class VerificationIndex {
+
+  public static final String INDEX_FILE_NAME = ".small-verification.idx";
+
+  private static final Map<Path, VerificationIndex> INDEXES = new ConcurrentHashMap<>();
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final String SEPARATOR = "\t";
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private final Path indexFile;
+
+  private boolean loaded;
+
+  public VerificationIndex(final Path indexFile) {
+    this.indexFile = indexFile;
+  }
+
+  /**
+   * Returns the index shared by every verifier of the given download root in this JVM.
+   *
+   * @param downloadDirectory download root the index belongs to.
+   *
+   * @return index of the download root.
+   */
+  public static VerificationIndex forDirectory(final Path downloadDirectory) {
+    final Path root = downloadDirectory.toAbsolutePath().normalize();
+    return VerificationIndex.INDEXES.computeIfAbsent(root, path -> new VerificationIndex(path.resolve(VerificationIndex.INDEX_FILE_NAME)));
+  }
+
+  private static String key(final String algorithm, final String path) {
+    return algorithm + VerificationIndex.SEPARATOR + path;
+  }
+
+  private static Entry stat(final String algorithm, final String path, final File file, final String checksum) throws IOException {
+    final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    final Object fileKey = attributes.fileKey();
+    return new Entry(
+      algorithm,
+      path,
+      attributes.size(),
+      attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+      fileKey == null ? "-" : fileKey.toString(),
+      checksum
+    );
+  }
+
+  /**
+   * Looks up the last verified checksum of the file.
+   *
+   * @param file file to look up.
+   * @param algorithm algorithm of the checksum.
+   *
+   * @return the recorded checksum, or <code>null</code> if there is none or the file changed since it was recorded.
+   */
+  public synchronized String lookup(final File file, final String algorithm) {
+    this.load();
+    final String path = file.getAbsolutePath();
+    final String key = VerificationIndex.key(algorithm, path);
+    final Entry entry = this.entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    try {
+      if (entry.isSameFile(VerificationIndex.stat(algorithm, path, file, entry.checksum))) {
+        return entry.checksum;
+      }
+    } catch (final IOException exception) {
+      // File is gone or not readable, it has to be verified properly.
+    }
+    this.entries.remove(key);
+    return null;
+  }
+
+  /**
+   * Records the checksum a file has been verified against.
+   *
+   * @param file verified file.
+   * @param algorithm algorithm of the checksum.
+   * @param checksum checksum the file matched.
+   */
+  public synchronized void record(final File file, final String algorithm, final String checksum) {
+    this.load();
+    final String path = file.getAbsolutePath();
+    final String key = VerificationIndex.key(algorithm, path);
+    if (key.contains("\n") || key.contains("\r") || path.contains(VerificationIndex.SEPARATOR) || algorithm.contains(VerificationIndex.SEPARATOR)) {
+      return;
+    }
+    try {
+      final Entry entry = VerificationIndex.stat(algorithm, path, file, checksum);
+      if (entry.equals(this.entries.put(key, entry))) {
+        return;
+      }
+      Files.createDirectories(this.indexFile.getParent());
+      // Appends wait for compactions of other processes, which would otherwise replace the file they append to.
+      try (final FileLocks.Lock ignored = FileLocks.lock(this.indexFile);
+           final Writer writer = Files.newBufferedWriter(this.indexFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        writer.write(entry.toLine());
+      }
+    } catch (final IOException exception) {
+      VerificationIndex.LOGGER.debug("Could not record verification of {0}: {1}", path, exception.getMessage());
+    }
+  }
+
+  /**
+   * Rewrites the index with its latest records only. The index is read again under its lock, so records other
+   * processes appended since it was loaded are kept.
+   */
+  private void compact() throws IOException {
+    try (final FileLocks.Lock ignored = FileLocks.lock(this.indexFile)) {
+      this.entries.clear();
+      this.read();
+      final StringBuilder builder = new StringBuilder();
+      for (final Entry entry : this.entries.values()) {
+        builder.append(entry.toLine());
+      }
+      AtomicFiles.write(this.indexFile, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private void load() {
+    if (this.loaded) {
+      return;
+    }
+    this.loaded = true;
+    final int lines;
+    try {
+      lines = this.read();
+    } catch (final IOException | RuntimeException exception) {
+      VerificationIndex.LOGGER.debug("Could not read verification index {0}, starting over", this.indexFile);
+      this.entries.clear();
+      return;
+    }
+    // Later records shadow earlier ones, rewrite the file once it is mostly stale lines.
+    if (lines > this.entries.size() * 2 + 16) {
+      try {
+        this.compact();
+      } catch (final IOException | RuntimeException exception) {
+        VerificationIndex.LOGGER.debug("Could not compact verification index {0}", this.indexFile);
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (!Files.isRegularFile(this.indexFile)) {
+      return 0;
+    }
+    int lines = 0;
+    try (final BufferedReader reader = Files.newBufferedReader(this.indexFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines++;
+        final Entry entry = Entry.fromLine(line);
+        if (entry != null) {
+          this.entries.put(VerificationIndex.key(entry.algorithm, entry.path), entry);
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static final class Entry {
+
+    private final String algorithm;
+
+    private final String checksum;
+
+    private final String fileKey;
+
+    private final long modified;
+
+    private final String path;
+
+    private final long size;
+
+    private Entry(final String algorithm, final String path, final long size, final long modified, final String fileKey, final String checksum) {
+      this.algorithm = algorithm;
+      this.path = path;
+      this.size = size;
+      this.modified = modified;
+      this.fileKey = fileKey;
+      this.checksum = checksum;
+    }
+
+    private static Entry fromLine(final String line) {
+      final String[] parts = line.split(VerificationIndex.SEPARATOR);
+      // Lines without an algorithm predate it and are dropped, their files are verified again once.
+      if (parts.length != 6) {
+        return null;
+      }
+      return new Entry(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]), parts[4], parts[5]);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.algorithm, this.path, this.size, this.modified, this.fileKey, this.checksum);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || this.getClass() != o.getClass()) {
+        return false;
+      }
+      final Entry that = (Entry) o;
+      return this.isSameFile(that) && this.algorithm.equals(that.algorithm) && this.checksum.equals(that.checksum);
+    }
+
+    private boolean isSameFile(final Entry that) {
+      return this.size == that.size &&
+        this.modified == that.modified &&
+        this.path.equals(that.path) &&
+        this.fileKey.equals(that.fileKey);
+    }
+
+    private String toLine() {
+      return this.algorithm + VerificationIndex.SEPARATOR +
+        this.path + VerificationIndex.SEPARATOR +
+        this.size + VerificationIndex.SEPARATOR +
+        this.modified + VerificationIndex.SEPARATOR +
+        this.fileKey + VerificationIndex.SEPARATOR +
+        this.checksum + '\n';
+    }
+  }
+}
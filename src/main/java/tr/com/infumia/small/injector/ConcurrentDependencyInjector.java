@@ -0,0 +1,147 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.injector;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import tr.com.infumia.small.injector.helper.InjectionHelper;
+import tr.com.infumia.small.injector.helper.InjectionHelperFactory;
+import tr.com.infumia.small.injector.loader.Injectable;
+import tr.com.infumia.small.resolver.ResolutionResult;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.resolver.data.DependencyData;
+import tr.com.infumia.small.resolver.graph.DependencyGraph;
+import tr.com.infumia.small.util.Workers;
+
+/**
+ * Downloads, verifies and relocates the whole dependency tree on a bounded worker pool and injects the results in the
+ * same dependency graph order {@link SimpleDependencyInjector} uses, once every artifact has landed.
+ */
+public final class ConcurrentDependencyInjector implements DependencyInjector {
+
+  private final InjectionHelperFactory injectionHelperFactory;
+
+  private final int parallelism;
+
+  public ConcurrentDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final int parallelism) {
+    this.injectionHelperFactory = injectionHelperFactory;
+    this.parallelism = parallelism;
+  }
+
+  public ConcurrentDependencyInjector(final InjectionHelperFactory injectionHelperFactory) {
+    this(injectionHelperFactory, Workers.DEFAULT_PARALLELISM);
+  }
+
+  private static File await(final Dependency dependency, final CompletableFuture<File> fetch) throws ReflectiveOperationException {
+    try {
+      return fetch.get();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InjectionFailedException(dependency, exception);
+    } catch (final ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof ReflectiveOperationException) {
+        throw (ReflectiveOperationException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new InjectionFailedException(dependency, (Exception) cause);
+    }
+  }
+
+  private static void schedule(final Executor executor, final InjectionHelper injectionHelper, final DependencyGraph graph, final Collection<Dependency> dependencies, final Map<Dependency, CompletableFuture<File>> fetches) {
+    for (final Dependency dependency : dependencies) {
+      final CompletableFuture<File> fetch = new CompletableFuture<>();
+      if (fetches.putIfAbsent(dependency, fetch) != null) {
+        continue;
+      }
+      executor.execute(() -> {
+        try {
+          final File depJar = injectionHelper.fetch(dependency);
+          // Transitive dependencies of aggregators are never injected, so they are not fetched either.
+          if (depJar != null) {
+            ConcurrentDependencyInjector.schedule(executor, injectionHelper, graph, graph.getChildren(dependency), fetches);
+          }
+          fetch.complete(depJar);
+        } catch (final Throwable throwable) {
+          fetch.completeExceptionally(throwable);
+        }
+      });
+    }
+  }
+
+  @Override
+  public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+    final InjectionHelper helper = this.injectionHelperFactory.create(data, preResolvedResults);
+    final DependencyGraph graph = this.injectionHelperFactory.createGraph(data);
+    final Map<Dependency, CompletableFuture<File>> fetches = new ConcurrentHashMap<>();
+    final ExecutorService executor = Workers.newPool("small-fetch", this.parallelism);
+    try {
+      ConcurrentDependencyInjector.schedule(executor, helper, graph, graph.getRoots(), fetches);
+      this.injectDependencies(injectable, graph, fetches);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void injectDependencies(final Injectable injectable, final DependencyGraph graph, final Map<Dependency, CompletableFuture<File>> fetches) throws ReflectiveOperationException {
+    final Collection<Dependency> injected = new HashSet<>();
+    for (final Dependency dependency : graph.getArtifacts()) {
+      // Reachable dependencies were scheduled by a dependant that fetched before it completed.
+      if (!graph.isReachable(dependency, injected)) {
+        continue;
+      }
+      try {
+        // Fetch failures surface here, so they are handled like SimpleDependencyInjector handles them.
+        final File depJar = ConcurrentDependencyInjector.await(dependency, fetches.get(dependency));
+        if (depJar == null) {
+          continue;
+        }
+        injectable.inject(depJar.toURI().toURL());
+        injected.add(dependency);
+      } catch (final IOException e) {
+        throw new InjectionFailedException(dependency, e);
+      } catch (final IllegalAccessException | InvocationTargetException | URISyntaxException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.injector;
+
+import tr.com.infumia.small.injector.helper.InjectionHelperFactory;
+import tr.com.infumia.small.util.Workers;
+
+public final class ConcurrentDependencyInjectorFactory implements DependencyInjectorFactory {
+
+  private final int parallelism;
+
+  public ConcurrentDependencyInjectorFactory(final int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  public ConcurrentDependencyInjectorFactory() {
+    this(Workers.DEFAULT_PARALLELISM);
+  }
+
+  @Override
+  public DependencyInjector create(final InjectionHelperFactory injectionHelperFactory) {
+    return new ConcurrentDependencyInjector(injectionHelperFactory, this.parallelism);
+  }
+}
@@ -0,0 +1,50 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.injector;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+/**
+ * Thrown in offline mode when dependencies are neither downloaded yet nor available from a local repository.
+ */
+public final class MissingDependenciesException extends RuntimeException {
+
+  private final Collection<Dependency> dependencies;
+
+  public MissingDependenciesException(final Collection<Dependency> dependencies) {
+    super("Small is offline and cannot provide " + dependencies.size() + " dependencies: " + dependencies.stream()
+      .map(Dependency::toString)
+      .collect(Collectors.joining(", ")));
+    this.dependencies = Collections.unmodifiableCollection(dependencies);
+  }
+
+  public Collection<Dependency> getDependencies() {
+    return this.dependencies;
+  }
+}
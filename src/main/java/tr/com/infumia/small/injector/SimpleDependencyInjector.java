@@ -30,6 +30,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import tr.com.infumia.small.injector.helper.InjectionHelper;
 import tr.com.infumia.small.injector.helper.InjectionHelperFactory;
@@ -37,6 +38,7 @@ import tr.com.infumia.small.injector.loader.Injectable;
 import tr.com.infumia.small.resolver.ResolutionResult;
 import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
+import tr.com.infumia.small.resolver.graph.DependencyGraph;
 
 public final class SimpleDependencyInjector implements DependencyInjector {
 
@@ -49,18 +51,20 @@ public final class SimpleDependencyInjector implements DependencyInjector {
   @Override
   public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
     final InjectionHelper helper = this.injectionHelperFactory.create(data, preResolvedResults);
-    this.injectDependencies(injectable, helper, data.getDependencies());
-  }
-
-  private void injectDependencies(final Injectable injectable, final InjectionHelper injectionHelper, final Collection<Dependency> dependencies) throws ReflectiveOperationException {
-    for (final Dependency dependency : dependencies) {
+    final DependencyGraph graph = this.injectionHelperFactory.createGraph(data);
+    final Collection<Dependency> injected = new HashSet<>();
+    for (final Dependency dependency : graph.getArtifacts()) {
+      // Transitive dependencies of aggregators are skipped unless another dependant was injected.
+      if (!graph.isReachable(dependency, injected)) {
+        continue;
+      }
       try {
-        final File depJar = injectionHelper.fetch(dependency);
+        final File depJar = helper.fetch(dependency);
         if (depJar == null) {
           continue;
         }
         injectable.inject(depJar.toURI().toURL());
-        this.injectDependencies(injectable, injectionHelper, dependency.getTransitive());
+        injected.add(dependency);
       } catch (final IOException e) {
         throw new InjectionFailedException(dependency, e);
       } catch (final IllegalAccessException | InvocationTargetException | URISyntaxException e) {
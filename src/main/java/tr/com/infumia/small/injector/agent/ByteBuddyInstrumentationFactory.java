@@ -31,11 +31,12 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.UUID;
 import tr.com.infumia.small.app.builder.ApplicationBuilder;
+import tr.com.infumia.small.app.module.CachingModuleExtractor;
 import tr.com.infumia.small.app.module.ModuleExtractor;
 import tr.com.infumia.small.app.module.TemporaryModuleExtractor;
 import tr.com.infumia.small.injector.loader.InjectableClassLoader;
@@ -51,6 +52,7 @@ import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
 import tr.com.infumia.small.resolver.data.Repository;
 import tr.com.infumia.small.resolver.mirrors.SimpleMirrorSelector;
+import tr.com.infumia.small.util.FacadeRegistry;
 import tr.com.infumia.small.util.Packages;
 
 public final class ByteBuddyInstrumentationFactory implements InstrumentationFactory {
@@ -63,22 +65,56 @@ public final class ByteBuddyInstrumentationFactory implements InstrumentationFac
 
   private static final String BYTE_BUDDY_AGENT_CLASS = "net#bytebuddy#agent#ByteBuddyAgent";
 
+  private static final Dependency BYTE_BUDDY_AGENT_DEPENDENCY = new Dependency(
+    "net.bytebuddy",
+    "byte-buddy-agent",
+    "1.11.0",
+    null,
+    Collections.emptySet()
+  );
+
   private final URL agentJarUrl;
 
+  private final Path downloadPath;
+
   private final ModuleExtractor extractor;
 
+  private final boolean offline;
+
   private final JarRelocatorFacadeFactory relocatorFacadeFactory;
 
-  public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory) {
+  public ByteBuddyInstrumentationFactory(final URL agentJarUrl, final ModuleExtractor extractor, final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath, final boolean offline) {
+    this.agentJarUrl = agentJarUrl;
+    this.extractor = extractor;
     this.relocatorFacadeFactory = relocatorFacadeFactory;
-    this.agentJarUrl = InstrumentationInjectable.class.getClassLoader().getResource(ByteBuddyInstrumentationFactory.AGENT_JAR);
-    this.extractor = new TemporaryModuleExtractor();
+    this.downloadPath = downloadPath;
+    this.offline = offline;
+  }
+
+  public ByteBuddyInstrumentationFactory(final URL agentJarUrl, final ModuleExtractor extractor, final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath) {
+    this(agentJarUrl, extractor, relocatorFacadeFactory, downloadPath, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
   }
 
   public ByteBuddyInstrumentationFactory(final URL agentJarUrl, final ModuleExtractor extractor, final JarRelocatorFacadeFactory relocatorFacadeFactory) {
-    this.agentJarUrl = agentJarUrl;
-    this.extractor = extractor;
-    this.relocatorFacadeFactory = relocatorFacadeFactory;
+    this(agentJarUrl, extractor, relocatorFacadeFactory, null);
+  }
+
+  public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath, final boolean offline) {
+    this(
+      InstrumentationInjectable.class.getClassLoader().getResource(ByteBuddyInstrumentationFactory.AGENT_JAR),
+      downloadPath == null ? new TemporaryModuleExtractor() : CachingModuleExtractor.forDirectory(downloadPath),
+      relocatorFacadeFactory,
+      downloadPath,
+      offline
+    );
+  }
+
+  public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath) {
+    this(relocatorFacadeFactory, downloadPath, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
+  }
+
+  public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory) {
+    this(relocatorFacadeFactory, null);
   }
 
   private static String generatePattern() {
@@ -86,23 +122,25 @@ public final class ByteBuddyInstrumentationFactory implements InstrumentationFac
   }
 
   private static DependencyData getDependency() throws MalformedURLException {
-    final Dependency byteBuddy = new Dependency(
-      "net.bytebuddy",
-      "byte-buddy-agent",
-      "1.11.0",
-      null,
-      new HashSet<>()
-    );
     final Repository centralRepository = new Repository(new URL(SimpleMirrorSelector.CENTRAL_URL));
     return new DependencyData(
       Collections.emptySet(),
       Collections.singleton(centralRepository),
-      Collections.singleton(byteBuddy)
+      Collections.singleton(ByteBuddyInstrumentationFactory.BYTE_BUDDY_AGENT_DEPENDENCY)
     );
   }
 
+  /**
+   * Attaches the agent, once per JVM and download root; the instrumentation is shared by every later call.
+   *
+   * @return instrumentation of the attached agent.
+   */
   @Override
   public Instrumentation create() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException {
+    return FacadeRegistry.get(ByteBuddyInstrumentationFactory.BYTE_BUDDY_AGENT_DEPENDENCY, this.downloadPath, this::attach);
+  }
+
+  private Instrumentation attach() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException {
     final URL extractedURL = this.extractor.extractModule(this.agentJarUrl, "loader-agent");
     final String pattern = ByteBuddyInstrumentationFactory.generatePattern();
     final String relocatedAgentClass = String.format("%s.%s", pattern, ByteBuddyInstrumentationFactory.AGENT_CLASS);
@@ -116,7 +154,12 @@ public final class ByteBuddyInstrumentationFactory implements InstrumentationFac
       .attribute("Manifest-Version", "1.0")
       .attribute("Agent-Class", relocatedAgentClass)
       .generate();
-    ApplicationBuilder.injecting("Small-Agent", classLoader)
+    final ApplicationBuilder builder = ApplicationBuilder.injecting("Small-Agent", classLoader);
+    if (this.downloadPath != null) {
+      builder.downloadDirectoryPath(this.downloadPath);
+    }
+    builder
+      .offline(this.offline)
       .dataProviderFactory(dataUrl -> ByteBuddyInstrumentationFactory::getDependency)
       .relocatorFactory(rules -> new PassthroughRelocator())
       .relocationHelperFactory(rel -> (dependency, file) -> file)
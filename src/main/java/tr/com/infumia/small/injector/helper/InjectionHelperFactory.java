@@ -24,20 +24,26 @@
 
 package tr.com.infumia.small.injector.helper;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import tr.com.infumia.small.downloader.DependencyDownloader;
 import tr.com.infumia.small.downloader.DependencyDownloaderFactory;
+import tr.com.infumia.small.downloader.URLDependencyDownloader;
 import tr.com.infumia.small.downloader.output.DependencyOutputWriterFactory;
 import tr.com.infumia.small.downloader.output.OutputWriterFactory;
 import tr.com.infumia.small.downloader.strategy.FilePathStrategy;
 import tr.com.infumia.small.downloader.verify.DependencyVerifierFactory;
 import tr.com.infumia.small.injector.DependencyInjectorFactory;
+import tr.com.infumia.small.injector.MissingDependenciesException;
 import tr.com.infumia.small.relocation.Relocator;
 import tr.com.infumia.small.relocation.RelocatorFactory;
 import tr.com.infumia.small.relocation.helper.RelocationHelper;
@@ -45,9 +51,12 @@ import tr.com.infumia.small.relocation.helper.RelocationHelperFactory;
 import tr.com.infumia.small.resolver.DependencyResolver;
 import tr.com.infumia.small.resolver.DependencyResolverFactory;
 import tr.com.infumia.small.resolver.ResolutionResult;
+import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
 import tr.com.infumia.small.resolver.data.Repository;
 import tr.com.infumia.small.resolver.enquirer.RepositoryEnquirerFactory;
+import tr.com.infumia.small.resolver.graph.DependencyGraph;
+import tr.com.infumia.small.resolver.graph.VersionMediator;
 import tr.com.infumia.small.resolver.mirrors.MirrorSelector;
 import tr.com.infumia.small.resolver.reader.dependency.DependencyDataProviderFactory;
 
@@ -59,8 +68,12 @@ public final class InjectionHelperFactory {
 
   private final RepositoryEnquirerFactory enquirerFactory;
 
+  private final FilePathStrategy filePathStrategy;
+
   private final MirrorSelector mirrorSelector;
 
+  private final boolean offline;
+
   private final RelocationHelperFactory relocationHelperFactory;
 
   private final RelocatorFactory relocatorFactory;
@@ -69,7 +82,9 @@ public final class InjectionHelperFactory {
 
   private final DependencyVerifierFactory verifier;
 
-  public InjectionHelperFactory(final Path downloadDirectoryPath, final RelocatorFactory relocatorFactory, final DependencyDataProviderFactory dataProviderFactory, final RelocationHelperFactory relocationHelperFactory, final DependencyInjectorFactory injectorFactory, final DependencyResolverFactory resolverFactory, final RepositoryEnquirerFactory enquirerFactory, final DependencyDownloaderFactory downloaderFactory, final DependencyVerifierFactory verifier, final MirrorSelector mirrorSelector) {
+  private final VersionMediator versionMediator;
+
+  public InjectionHelperFactory(final Path downloadDirectoryPath, final RelocatorFactory relocatorFactory, final DependencyDataProviderFactory dataProviderFactory, final RelocationHelperFactory relocationHelperFactory, final DependencyInjectorFactory injectorFactory, final DependencyResolverFactory resolverFactory, final RepositoryEnquirerFactory enquirerFactory, final DependencyDownloaderFactory downloaderFactory, final DependencyVerifierFactory verifier, final MirrorSelector mirrorSelector, final FilePathStrategy filePathStrategy, final boolean offline, final VersionMediator versionMediator) {
     this.downloadDirectoryPath = downloadDirectoryPath;
     this.relocatorFactory = relocatorFactory;
     this.relocationHelperFactory = relocationHelperFactory;
@@ -78,6 +93,21 @@ public final class InjectionHelperFactory {
     this.downloaderFactory = downloaderFactory;
     this.verifier = verifier;
     this.mirrorSelector = mirrorSelector;
+    this.filePathStrategy = filePathStrategy;
+    this.offline = offline;
+    this.versionMediator = versionMediator;
+  }
+
+  public InjectionHelperFactory(final Path downloadDirectoryPath, final RelocatorFactory relocatorFactory, final DependencyDataProviderFactory dataProviderFactory, final RelocationHelperFactory relocationHelperFactory, final DependencyInjectorFactory injectorFactory, final DependencyResolverFactory resolverFactory, final RepositoryEnquirerFactory enquirerFactory, final DependencyDownloaderFactory downloaderFactory, final DependencyVerifierFactory verifier, final MirrorSelector mirrorSelector, final FilePathStrategy filePathStrategy, final boolean offline) {
+    this(downloadDirectoryPath, relocatorFactory, dataProviderFactory, relocationHelperFactory, injectorFactory, resolverFactory, enquirerFactory, downloaderFactory, verifier, mirrorSelector, filePathStrategy, offline, VersionMediator.NEAREST);
+  }
+
+  public InjectionHelperFactory(final Path downloadDirectoryPath, final RelocatorFactory relocatorFactory, final DependencyDataProviderFactory dataProviderFactory, final RelocationHelperFactory relocationHelperFactory, final DependencyInjectorFactory injectorFactory, final DependencyResolverFactory resolverFactory, final RepositoryEnquirerFactory enquirerFactory, final DependencyDownloaderFactory downloaderFactory, final DependencyVerifierFactory verifier, final MirrorSelector mirrorSelector, final FilePathStrategy filePathStrategy) {
+    this(downloadDirectoryPath, relocatorFactory, dataProviderFactory, relocationHelperFactory, injectorFactory, resolverFactory, enquirerFactory, downloaderFactory, verifier, mirrorSelector, filePathStrategy, false);
+  }
+
+  public InjectionHelperFactory(final Path downloadDirectoryPath, final RelocatorFactory relocatorFactory, final DependencyDataProviderFactory dataProviderFactory, final RelocationHelperFactory relocationHelperFactory, final DependencyInjectorFactory injectorFactory, final DependencyResolverFactory resolverFactory, final RepositoryEnquirerFactory enquirerFactory, final DependencyDownloaderFactory downloaderFactory, final DependencyVerifierFactory verifier, final MirrorSelector mirrorSelector) {
+    this(downloadDirectoryPath, relocatorFactory, dataProviderFactory, relocationHelperFactory, injectorFactory, resolverFactory, enquirerFactory, downloaderFactory, verifier, mirrorSelector, FilePathStrategy.createDefault(downloadDirectoryPath.toFile()));
   }
 
   public InjectionHelper create(final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws IOException, NoSuchAlgorithmException, URISyntaxException {
@@ -85,10 +115,45 @@ public final class InjectionHelperFactory {
       .select(data.getRepositories(), data.getMirrors());
     final Relocator relocator = this.relocatorFactory.create(Collections.emptySet());
     final RelocationHelper relocationHelper = this.relocationHelperFactory.create(relocator);
-    final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(this.downloadDirectoryPath.toFile());
-    final OutputWriterFactory outputWriterFactory = new DependencyOutputWriterFactory(filePathStrategy);
+    final OutputWriterFactory outputWriterFactory = new DependencyOutputWriterFactory(this.filePathStrategy);
     final DependencyResolver resolver = this.resolverFactory.create(repositories, preResolvedResults, this.enquirerFactory);
+    if (this.offline) {
+      // Everything missing is reported at once instead of failing on the first dependency after a partial injection.
+      final Collection<Dependency> missing = new ArrayList<>();
+      final DependencyGraph graph = this.createGraph(data);
+      this.collectMissing(graph, graph.getRoots(), resolver, new HashSet<>(), missing);
+      if (!missing.isEmpty()) {
+        throw new MissingDependenciesException(missing);
+      }
+    }
     final DependencyDownloader downloader = this.downloaderFactory.create(outputWriterFactory, resolver, this.verifier.create(resolver));
     return new InjectionHelper(downloader, relocationHelper);
   }
+
+  public DependencyGraph createGraph(final DependencyData data) {
+    return DependencyGraph.resolve(data.getDependencies(), this.versionMediator);
+  }
+
+  private void collectMissing(final DependencyGraph graph, final Collection<Dependency> dependencies, final DependencyResolver resolver, final Set<Dependency> visited, final Collection<Dependency> missing) throws IOException {
+    for (final Dependency dependency : dependencies) {
+      if (!visited.add(dependency)) {
+        continue;
+      }
+      final File file = this.filePathStrategy.selectFileFor(dependency);
+      if (URLDependencyDownloader.isBom(file)) {
+        continue;
+      }
+      if (!file.exists()) {
+        final ResolutionResult result = resolver.resolve(dependency).orElse(null);
+        if (result != null && result.isAggregator()) {
+          continue;
+        }
+        if (result == null || !"file".equalsIgnoreCase(result.getDependencyURL().getProtocol())) {
+          missing.add(dependency);
+          continue;
+        }
+      }
+      this.collectMissing(graph, graph.getChildren(dependency), resolver, visited, missing);
+    }
+  }
 }
@@ -43,6 +43,20 @@ public final class InjectableFactory {
   }
 
   public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
+    return InjectableFactory.create(downloadPath, repositories, classLoader, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
+  }
+
+  /**
+   * Creates the injectable for the class loader, falling back to an attached agent.
+   *
+   * @param downloadPath download root to store the agent's dependencies in.
+   * @param repositories repositories to download the agent's dependencies from.
+   * @param classLoader class loader to inject into.
+   * @param offline whether bootstrapping the agent may reach the network.
+   *
+   * @return the injectable.
+   */
+  public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
     final boolean isJigsawActive = InjectableFactory.isJigsawActive();
     Injectable injectable = null;
     if (isJigsawActive && classLoader instanceof URLClassLoader) {
@@ -55,7 +69,7 @@ public final class InjectableFactory {
       }
     }
     if (injectable == null) {
-      injectable = InstrumentationInjectable.create(downloadPath, repositories);
+      injectable = InstrumentationInjectable.create(downloadPath, repositories, offline);
     }
     return injectable;
   }
@@ -33,8 +33,10 @@ import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.jar.JarFile;
+import tr.com.infumia.small.app.builder.ApplicationBuilder;
 import tr.com.infumia.small.injector.agent.ByteBuddyInstrumentationFactory;
 import tr.com.infumia.small.injector.agent.InstrumentationFactory;
+import tr.com.infumia.small.relocation.facade.JarRelocatorFacadeFactory;
 import tr.com.infumia.small.relocation.facade.ReflectiveJarRelocatorFacadeFactory;
 import tr.com.infumia.small.resolver.data.Repository;
 
@@ -47,7 +49,12 @@ public final class InstrumentationInjectable implements Injectable {
   }
 
   public static Injectable create(final Path downloadPath, final Collection<Repository> repositories) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException {
-    return InstrumentationInjectable.create(new ByteBuddyInstrumentationFactory(ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories)));
+    return InstrumentationInjectable.create(downloadPath, repositories, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
+  }
+
+  public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException {
+    final JarRelocatorFacadeFactory relocatorFacadeFactory = ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, offline);
+    return InstrumentationInjectable.create(new ByteBuddyInstrumentationFactory(relocatorFacadeFactory, downloadPath, offline));
   }
 
   public static Injectable create(final InstrumentationFactory factory) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException {
@@ -41,6 +41,15 @@ public final class JarFileRelocator implements Relocator {
     this.relocatorFacadeFactory = relocatorFacadeFactory;
   }
 
+  @Override
+  public String getFingerprint() {
+    final String engineVersion = this.relocatorFacadeFactory.getEngineVersion();
+    if (engineVersion == null) {
+      return null;
+    }
+    return RelocationFingerprint.of(this.relocations, engineVersion);
+  }
+
   @SuppressWarnings("ResultOfMethodCallIgnored")
   @Override
   public void relocate(final File input, final File output) throws IOException, ReflectiveOperationException {
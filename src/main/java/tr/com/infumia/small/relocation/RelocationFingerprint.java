@@ -0,0 +1,102 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.TreeSet;
+import tr.com.infumia.small.util.Checksums;
+
+/**
+ * Derives stable identifiers for relocation outputs, so a relocated jar can be reused by every application that
+ * relocates the same input with the same rules and engine.
+ */
+public final class RelocationFingerprint {
+
+  private static final String ALGORITHM = "SHA-256";
+
+  private RelocationFingerprint() {
+  }
+
+  /**
+   * Computes the cache key of a relocation output.
+   *
+   * @param inputChecksum checksum of the input jar.
+   * @param fingerprint fingerprint of the relocator, see {@link #of(Collection, String)}.
+   *
+   * @return a hex encoded key.
+   */
+  public static String key(final String inputChecksum, final String fingerprint) {
+    return RelocationFingerprint.hash(inputChecksum.trim() + "\n" + fingerprint);
+  }
+
+  /**
+   * Fingerprints a rule set for an engine. Package patterns are normalized to their dotted form and inclusions and
+   * exclusions are sorted, rule order is kept as it decides which rule wins.
+   *
+   * @param rules rules to fingerprint.
+   * @param engineVersion version of the engine applying the rules.
+   *
+   * @return a hex encoded fingerprint.
+   */
+  public static String of(final Collection<RelocationRule> rules, final String engineVersion) {
+    final StringBuilder builder = new StringBuilder(engineVersion).append('\n');
+    for (final RelocationRule rule : rules) {
+      builder.append(RelocationFingerprint.normalize(rule.getOriginalPackagePattern())).append('>')
+        .append(RelocationFingerprint.normalize(rule.getRelocatedPackagePattern()))
+        .append("|+").append(RelocationFingerprint.normalize(rule.getInclusions()))
+        .append("|-").append(RelocationFingerprint.normalize(rule.getExclusions()))
+        .append('\n');
+    }
+    return RelocationFingerprint.hash(builder.toString());
+  }
+
+  private static String hash(final String value) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance(RelocationFingerprint.ALGORITHM);
+      return Checksums.toHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static String normalize(final String pattern) {
+    return pattern.trim().replace('/', '.');
+  }
+
+  private static String normalize(final Collection<String> patterns) {
+    if (patterns == null) {
+      return "";
+    }
+    final TreeSet<String> sorted = new TreeSet<>();
+    for (final String pattern : patterns) {
+      sorted.add(RelocationFingerprint.normalize(pattern));
+    }
+    return String.join(",", sorted);
+  }
+}
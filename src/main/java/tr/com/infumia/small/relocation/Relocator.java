@@ -29,5 +29,15 @@ import java.io.IOException;
 
 public interface Relocator {
 
+  /**
+   * Identifies the output of this relocator. Relocators reporting the same fingerprint must produce equivalent jars
+   * from the same input, which allows relocated jars to be shared across applications.
+   *
+   * @return the fingerprint, or {@code null} if outputs must not be shared.
+   */
+  default String getFingerprint() {
+    return null;
+  }
+
   void relocate(final File input, final File output) throws IOException, ReflectiveOperationException;
 }
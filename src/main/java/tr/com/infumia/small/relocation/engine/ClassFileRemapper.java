@@ -0,0 +1,460 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relocates a class file by rewriting its constant pool in place, without a bytecode library.
+ * <p>
+ * Every reference to a UTF-8 constant that holds a class name, descriptor, signature or string value is collected
+ * along with its role. Constants whose references all map to the same value are rewritten in place; when roles
+ * disagree the constant is duplicated and the diverging references are pointed at the copy. The rest of the class
+ * file is copied byte for byte.
+ */
+public final class ClassFileRemapper {
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private static final int MAX_CONSTANTS = 0xFFFF;
+
+  private final RelocationRemapper remapper;
+
+  public ClassFileRemapper(final RelocationRemapper remapper) {
+    this.remapper = remapper;
+  }
+
+  /**
+   * Relocates a class file.
+   *
+   * @param classFile class file contents.
+   *
+   * @return the relocated class file, or {@code null} if nothing had to change.
+   *
+   * @throws IOException if the class file is malformed.
+   */
+  public byte[] remap(final byte[] classFile) throws IOException {
+    if (this.remapper.isEmpty()) {
+      return null;
+    }
+    try {
+      return new Rewrite(classFile).run();
+    } catch (final IndexOutOfBoundsException exception) {
+      throw new IOException("Truncated class file", exception);
+    }
+  }
+
+  private enum Role {
+    DESCRIPTOR,
+    INTERNAL_NAME,
+    PACKAGE,
+    VALUE
+  }
+
+  private static final class Reference {
+
+    private final int offset;
+
+    private final Role role;
+
+    private Reference(final Role role, final int offset) {
+      this.role = role;
+      this.offset = offset;
+    }
+  }
+
+  private final class Rewrite {
+
+    private final byte[] data;
+
+    private final Map<Integer, List<Reference>> references = new LinkedHashMap<>();
+
+    private int constantCount;
+
+    private int[] offsets;
+
+    private int poolEnd;
+
+    private byte[] tags;
+
+    private Rewrite(final byte[] data) {
+      this.data = data;
+    }
+
+    private int annotation(final int start) {
+      this.reference(start, Role.DESCRIPTOR);
+      final int pairs = this.u2(start + 2);
+      int position = start + 4;
+      for (int index = 0; index < pairs; index++) {
+        position = this.elementValue(position + 2);
+      }
+      return position;
+    }
+
+    private int annotations(final int start) {
+      final int count = this.u2(start);
+      int position = start + 2;
+      for (int index = 0; index < count; index++) {
+        position = this.annotation(position);
+      }
+      return position;
+    }
+
+    private int attributes(final int start) {
+      final int count = this.u2(start);
+      int position = start + 2;
+      for (int index = 0; index < count; index++) {
+        final String name = this.utf8(this.u2(position));
+        final int length = this.u4(position + 2);
+        this.attribute(name, position + 6, length);
+        position += 6 + length;
+      }
+      return position;
+    }
+
+    private void attribute(final String name, final int start, final int length) {
+      switch (name) {
+        case "Signature":
+          this.reference(start, Role.DESCRIPTOR);
+          break;
+        case "Code": {
+          final int codeLength = this.u4(start + 4);
+          final int exceptions = start + 8 + codeLength;
+          this.attributes(exceptions + 2 + this.u2(exceptions) * 8);
+          break;
+        }
+        case "LocalVariableTable":
+        case "LocalVariableTypeTable": {
+          final int count = this.u2(start);
+          for (int index = 0; index < count; index++) {
+            this.reference(start + 2 + index * 10 + 6, Role.DESCRIPTOR);
+          }
+          break;
+        }
+        case "RuntimeVisibleAnnotations":
+        case "RuntimeInvisibleAnnotations":
+          this.annotations(start);
+          break;
+        case "RuntimeVisibleParameterAnnotations":
+        case "RuntimeInvisibleParameterAnnotations": {
+          final int parameters = this.data[start] & 0xFF;
+          int position = start + 1;
+          for (int index = 0; index < parameters; index++) {
+            position = this.annotations(position);
+          }
+          break;
+        }
+        case "RuntimeVisibleTypeAnnotations":
+        case "RuntimeInvisibleTypeAnnotations": {
+          final int count = this.u2(start);
+          int position = start + 2;
+          for (int index = 0; index < count; index++) {
+            position = this.typeAnnotationTarget(position);
+            position += 1 + (this.data[position] & 0xFF) * 2;
+            position = this.annotation(position);
+          }
+          break;
+        }
+        case "AnnotationDefault":
+          this.elementValue(start);
+          break;
+        case "Record": {
+          final int count = this.u2(start);
+          int position = start + 2;
+          for (int index = 0; index < count; index++) {
+            this.reference(position + 2, Role.DESCRIPTOR);
+            position = this.attributes(position + 4);
+          }
+          break;
+        }
+        default:
+          break;
+      }
+    }
+
+    private byte[] build(final Map<Integer, String> replacements, final List<String> appended,
+                         final Map<Integer, Integer> redirects) throws IOException {
+      final int newCount = this.constantCount + appended.size();
+      if (newCount > ClassFileRemapper.MAX_CONSTANTS) {
+        throw new IOException("Constant pool overflow while relocating");
+      }
+      final byte[] body = redirects.isEmpty() ? this.data : this.data.clone();
+      redirects.forEach((offset, index) -> {
+        body[offset] = (byte) (index >>> 8);
+        body[offset + 1] = index.byteValue();
+      });
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream(this.data.length + 256);
+      final DataOutputStream output = new DataOutputStream(buffer);
+      output.write(body, 0, 8);
+      output.writeShort(newCount);
+      for (int index = 1; index < this.constantCount; index++) {
+        if (this.tags[index] == 0) {
+          continue;
+        }
+        final String replacement = replacements.get(index);
+        if (replacement == null) {
+          output.write(body, this.offsets[index], this.entryLength(index));
+        } else {
+          output.writeByte(1);
+          output.writeUTF(replacement);
+        }
+      }
+      for (final String value : appended) {
+        output.writeByte(1);
+        output.writeUTF(value);
+      }
+      output.write(body, this.poolEnd, body.length - this.poolEnd);
+      output.flush();
+      return buffer.toByteArray();
+    }
+
+    private int elementValue(final int start) {
+      final char tag = (char) (this.data[start] & 0xFF);
+      switch (tag) {
+        case 's':
+          this.reference(start + 1, Role.VALUE);
+          return start + 3;
+        case 'e':
+          this.reference(start + 1, Role.DESCRIPTOR);
+          return start + 5;
+        case 'c':
+          this.reference(start + 1, Role.DESCRIPTOR);
+          return start + 3;
+        case '@':
+          return this.annotation(start + 1);
+        case '[': {
+          final int count = this.u2(start + 1);
+          int position = start + 3;
+          for (int index = 0; index < count; index++) {
+            position = this.elementValue(position);
+          }
+          return position;
+        }
+        default:
+          return start + 3;
+      }
+    }
+
+    private int entryLength(final int index) {
+      switch (this.tags[index]) {
+        case 1:
+          return 3 + this.u2(this.offsets[index] + 1);
+        case 3:
+        case 4:
+        case 9:
+        case 10:
+        case 11:
+        case 12:
+        case 17:
+        case 18:
+          return 5;
+        case 5:
+        case 6:
+          return 9;
+        case 7:
+        case 8:
+        case 16:
+        case 19:
+        case 20:
+          return 3;
+        case 15:
+          return 4;
+        default:
+          throw new IllegalStateException("Unknown constant tag " + this.tags[index]);
+      }
+    }
+
+    private String map(final Role role, final String value) {
+      switch (role) {
+        case DESCRIPTOR:
+          return ClassFileRemapper.this.remapper.mapDescriptor(value);
+        case INTERNAL_NAME:
+          return ClassFileRemapper.this.remapper.mapInternalName(value);
+        case PACKAGE:
+          return ClassFileRemapper.this.remapper.mapPackage(value);
+        default:
+          return ClassFileRemapper.this.remapper.mapValue(value);
+      }
+    }
+
+    private int members(final int start) {
+      final int count = this.u2(start);
+      int position = start + 2;
+      for (int index = 0; index < count; index++) {
+        this.reference(position + 4, Role.DESCRIPTOR);
+        position = this.attributes(position + 6);
+      }
+      return position;
+    }
+
+    private void pool() throws IOException {
+      if (this.u4(0) != ClassFileRemapper.MAGIC) {
+        throw new IOException("Not a class file");
+      }
+      this.constantCount = this.u2(8);
+      this.tags = new byte[this.constantCount];
+      this.offsets = new int[this.constantCount];
+      int position = 10;
+      for (int index = 1; index < this.constantCount; index++) {
+        final byte tag = this.data[position];
+        this.tags[index] = tag;
+        this.offsets[index] = position;
+        position += this.entryLength(index);
+        switch (tag) {
+          case 5:
+          case 6:
+            index++;
+            break;
+          case 7:
+            this.reference(this.offsets[index] + 1, Role.INTERNAL_NAME);
+            break;
+          case 8:
+            this.reference(this.offsets[index] + 1, Role.VALUE);
+            break;
+          case 12:
+            this.reference(this.offsets[index] + 3, Role.DESCRIPTOR);
+            break;
+          case 16:
+            this.reference(this.offsets[index] + 1, Role.DESCRIPTOR);
+            break;
+          case 20:
+            this.reference(this.offsets[index] + 1, Role.PACKAGE);
+            break;
+          default:
+            break;
+        }
+      }
+      this.poolEnd = position;
+    }
+
+    private void reference(final int offset, final Role role) {
+      this.references.computeIfAbsent(this.u2(offset), key -> new ArrayList<>(2))
+        .add(new Reference(role, offset));
+    }
+
+    private byte[] run() throws IOException {
+      this.pool();
+      int position = this.poolEnd + 6;
+      position += 2 + this.u2(position) * 2;
+      position = this.members(position);
+      position = this.members(position);
+      this.attributes(position);
+      final Map<Integer, String> replacements = new HashMap<>();
+      final List<String> appended = new ArrayList<>();
+      final Map<Integer, Integer> redirects = new HashMap<>();
+      final Map<String, Integer> appendedIndexes = new HashMap<>();
+      for (final Map.Entry<Integer, List<Reference>> entry : this.references.entrySet()) {
+        final int index = entry.getKey();
+        final String original = this.utf8(index);
+        String primary = null;
+        for (final Reference reference : entry.getValue()) {
+          final String mapped = this.map(reference.role, original);
+          if (primary == null) {
+            primary = mapped;
+            if (!mapped.equals(original)) {
+              replacements.put(index, mapped);
+            }
+          } else if (!mapped.equals(primary)) {
+            final Integer target = appendedIndexes.computeIfAbsent(mapped, value -> {
+              appended.add(value);
+              return this.constantCount + appended.size() - 1;
+            });
+            redirects.put(reference.offset, target);
+          }
+        }
+      }
+      if (replacements.isEmpty() && appended.isEmpty()) {
+        return null;
+      }
+      return this.build(replacements, appended, redirects);
+    }
+
+    private int typeAnnotationTarget(final int start) {
+      final int type = this.data[start] & 0xFF;
+      switch (type) {
+        case 0x00:
+        case 0x01:
+        case 0x16:
+          return start + 2;
+        case 0x10:
+        case 0x11:
+        case 0x12:
+        case 0x17:
+        case 0x42:
+        case 0x43:
+        case 0x44:
+        case 0x45:
+        case 0x46:
+          return start + 3;
+        case 0x13:
+        case 0x14:
+        case 0x15:
+          return start + 1;
+        case 0x40:
+        case 0x41:
+          return start + 3 + this.u2(start + 1) * 6;
+        case 0x47:
+        case 0x48:
+        case 0x49:
+        case 0x4A:
+        case 0x4B:
+          return start + 4;
+        default:
+          throw new IllegalStateException("Unknown type annotation target " + type);
+      }
+    }
+
+    private int u2(final int offset) {
+      return (this.data[offset] & 0xFF) << 8 | this.data[offset + 1] & 0xFF;
+    }
+
+    private int u4(final int offset) {
+      return (this.data[offset] & 0xFF) << 24 | (this.data[offset + 1] & 0xFF) << 16 |
+        (this.data[offset + 2] & 0xFF) << 8 | this.data[offset + 3] & 0xFF;
+    }
+
+    private String utf8(final int index) {
+      final int offset = this.offsets[index];
+      if (this.tags[index] != 1) {
+        throw new IllegalStateException("Constant " + index + " is not a UTF-8 entry");
+      }
+      try {
+        return new DataInputStream(new ByteArrayInputStream(this.data, offset + 1, this.u2(offset + 1) + 2)).readUTF();
+      } catch (final IOException exception) {
+        throw new IllegalStateException(exception);
+      }
+    }
+  }
+}
@@ -0,0 +1,439 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import tr.com.infumia.small.relocation.RelocationRule;
+import tr.com.infumia.small.util.Workers;
+
+/**
+ * Relocates jar files in-process.
+ * <p>
+ * Entries are processed in parallel chunks. Only class files, the manifest and service descriptors are inflated, and
+ * only the ones whose content actually changes are deflated again; everything else, renamed or not, has its
+ * compressed bytes transferred verbatim. Archives the raw reader cannot handle are relocated through
+ * {@link ZipFile}/{@link ZipOutputStream} with the same rules.
+ */
+public final class JarRelocationEngine {
+
+  /**
+   * Changes whenever the output of the engine changes for the same input and rules.
+   */
+  public static final String VERSION = "1";
+
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+
+  private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+  private static final int PARALLEL_THRESHOLD = 64;
+
+  private static final String SERVICES_PREFIX = "META-INF/services/";
+
+  private static final Object SHARED_LOCK = new Object();
+
+  private static volatile ExecutorService shared;
+
+  private final ClassFileRemapper classRemapper;
+
+  private final ExecutorService executor;
+
+  private final int parallelism;
+
+  private final RelocationRemapper remapper;
+
+  public JarRelocationEngine(final Collection<RelocationRule> rules, final ExecutorService executor,
+                             final int parallelism) {
+    this.remapper = new RelocationRemapper(rules);
+    this.classRemapper = new ClassFileRemapper(this.remapper);
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  public JarRelocationEngine(final Collection<RelocationRule> rules) {
+    this(rules, JarRelocationEngine.getSharedExecutor(), Runtime.getRuntime().availableProcessors());
+  }
+
+  public static ExecutorService getSharedExecutor() {
+    if (JarRelocationEngine.shared == null) {
+      synchronized (JarRelocationEngine.SHARED_LOCK) {
+        if (JarRelocationEngine.shared == null) {
+          JarRelocationEngine.shared = Workers.newPool("small-relocator", Runtime.getRuntime().availableProcessors());
+        }
+      }
+    }
+    return JarRelocationEngine.shared;
+  }
+
+  private static byte[] deflate(final Deflater deflater, final byte[] content) {
+    deflater.reset();
+    deflater.setInput(content);
+    deflater.finish();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+    final byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      final int length = deflater.deflate(buffer);
+      output.write(buffer, 0, length);
+    }
+    return output.toByteArray();
+  }
+
+  private static byte[] inflate(final Inflater inflater, final ZipRecord record, final byte[] compressed)
+    throws IOException {
+    if (record.method == ZipArchiveReader.METHOD_STORED) {
+      return compressed;
+    }
+    if (record.size > Integer.MAX_VALUE - 8) {
+      throw new IOException("Entry too large to relocate: " + record.name);
+    }
+    inflater.reset();
+    // A trailing dummy byte lets the inflater finish raw deflate streams.
+    final byte[] input = new byte[compressed.length + 1];
+    System.arraycopy(compressed, 0, input, 0, compressed.length);
+    inflater.setInput(input);
+    final byte[] output = new byte[(int) record.size];
+    int length = 0;
+    try {
+      while (!inflater.finished() && length < output.length) {
+        final int inflated = inflater.inflate(output, length, output.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+    } catch (final DataFormatException exception) {
+      throw new IOException("Corrupt entry " + record.name, exception);
+    }
+    if (length != output.length) {
+      throw new IOException("Unexpected size for entry " + record.name);
+    }
+    return output;
+  }
+
+  private static boolean isSignatureFile(final String name) {
+    final String[] parts = name.split("/");
+    if (parts.length != 2 || !"META-INF".equalsIgnoreCase(parts[0])) {
+      return false;
+    }
+    final String file = parts[1].toUpperCase();
+    return file.endsWith(".SF") || file.endsWith(".DSA") || file.endsWith(".RSA") || file.endsWith(".EC") ||
+      file.startsWith("SIG-");
+  }
+
+  private static boolean isSkipped(final String name) {
+    return JarRelocationEngine.INDEX_LIST.equals(name) || JarRelocationEngine.isSignatureFile(name);
+  }
+
+  private static byte[] stripDigests(final byte[] content) throws IOException {
+    final Manifest input = new Manifest(new ByteArrayInputStream(content));
+    boolean digested = false;
+    final Manifest output = new Manifest();
+    output.getMainAttributes().putAll(input.getMainAttributes());
+    for (final Map.Entry<String, Attributes> entry : input.getEntries().entrySet()) {
+      final Attributes attributes = new Attributes();
+      for (final Map.Entry<Object, Object> attribute : entry.getValue().entrySet()) {
+        if (attribute.getKey().toString().endsWith("-Digest")) {
+          digested = true;
+        } else {
+          attributes.put(attribute.getKey(), attribute.getValue());
+        }
+      }
+      if (!attributes.isEmpty()) {
+        output.getEntries().put(entry.getKey(), attributes);
+      }
+    }
+    if (!digested) {
+      return null;
+    }
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length);
+    output.write(buffer);
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Relocates a jar file.
+   *
+   * @param input jar to read.
+   * @param output jar to write, replaced if it exists.
+   *
+   * @throws IOException if reading or writing fails.
+   */
+  public void relocate(final File input, final File output) throws IOException {
+    try (final FileChannel source = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+      final List<ZipRecord> records = ZipArchiveReader.readCentralDirectory(source);
+      if (records != null) {
+        final List<Processed> processed = this.process(source, records);
+        try (final FileChannel target = FileChannel.open(output.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+          this.write(source, target, processed);
+          return;
+        } catch (final ZipArchiveWriter.ZipLimitException ignored) {
+          // Too large for the raw writer, fall through to the streaming path.
+        }
+      }
+    }
+    this.relocateStreaming(input, output);
+  }
+
+  private boolean needsContent(final String name) {
+    if (JarRelocationEngine.MANIFEST.equals(name)) {
+      return true;
+    }
+    return !this.remapper.isEmpty() &&
+      (name.endsWith(".class") || name.startsWith(JarRelocationEngine.SERVICES_PREFIX));
+  }
+
+  private List<Processed> process(final FileChannel source, final List<ZipRecord> records) throws IOException {
+    final int size = records.size();
+    if (size < JarRelocationEngine.PARALLEL_THRESHOLD || this.parallelism < 2) {
+      return this.processChunk(source, records);
+    }
+    final int chunks = Math.min(size, this.parallelism * JarRelocationEngine.CHUNKS_PER_WORKER);
+    final int chunkSize = (size + chunks - 1) / chunks;
+    final List<Future<List<Processed>>> futures = new ArrayList<>(chunks);
+    for (int start = chunkSize; start < size; start += chunkSize) {
+      final List<ZipRecord> chunk = records.subList(start, Math.min(size, start + chunkSize));
+      futures.add(this.executor.submit(() -> this.processChunk(source, chunk)));
+    }
+    final List<Processed> processed = new ArrayList<>(size);
+    try {
+      processed.addAll(this.processChunk(source, records.subList(0, Math.min(size, chunkSize))));
+      for (final Future<List<Processed>> future : futures) {
+        processed.addAll(future.get());
+      }
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while relocating", exception);
+    } catch (final ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return processed;
+  }
+
+  private List<Processed> processChunk(final FileChannel source, final List<ZipRecord> records) throws IOException {
+    final List<Processed> processed = new ArrayList<>(records.size());
+    final Inflater inflater = new Inflater(true);
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    final CRC32 crc = new CRC32();
+    try {
+      for (final ZipRecord record : records) {
+        if (JarRelocationEngine.isSkipped(record.name)) {
+          processed.add(null);
+          continue;
+        }
+        final String name = this.remapper.mapEntryName(record.name);
+        if (record.isDirectory()) {
+          processed.add(new Processed(name, record, -1, null, 0, 0));
+          continue;
+        }
+        final long offset = ZipArchiveReader.dataOffset(source, record);
+        if (!this.needsContent(record.name)) {
+          processed.add(new Processed(name, record, offset, null, 0, 0));
+          continue;
+        }
+        final byte[] content = JarRelocationEngine.inflate(inflater, record,
+          ZipArchiveReader.readData(source, offset, record));
+        final byte[] transformed = this.transform(record.name, content);
+        if (transformed == null) {
+          processed.add(new Processed(name, record, offset, null, 0, 0));
+          continue;
+        }
+        crc.reset();
+        crc.update(transformed);
+        final byte[] data = record.method == ZipArchiveReader.METHOD_STORED
+          ? transformed
+          : JarRelocationEngine.deflate(deflater, transformed);
+        processed.add(new Processed(name, record, offset, data, crc.getValue(), transformed.length));
+      }
+    } finally {
+      inflater.end();
+      deflater.end();
+    }
+    return processed;
+  }
+
+  private void relocateStreaming(final File input, final File output) throws IOException {
+    try (final ZipFile zip = new ZipFile(input);
+         final OutputStream stream = Files.newOutputStream(output.toPath());
+         final ZipOutputStream target = new ZipOutputStream(stream)) {
+      final Set<String> written = new HashSet<>();
+      for (final Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+        final ZipEntry entry = entries.nextElement();
+        if (JarRelocationEngine.isSkipped(entry.getName())) {
+          continue;
+        }
+        final String name = this.remapper.mapEntryName(entry.getName());
+        for (int index = name.indexOf('/'); index >= 0 && index < name.length() - 1; index = name.indexOf('/', index + 1)) {
+          final String parent = name.substring(0, index + 1);
+          if (written.add(parent)) {
+            final ZipEntry directory = new ZipEntry(parent);
+            directory.setTime(entry.getTime());
+            target.putNextEntry(directory);
+            target.closeEntry();
+          }
+        }
+        if (!written.add(name)) {
+          continue;
+        }
+        final ZipEntry relocated = new ZipEntry(name);
+        relocated.setTime(entry.getTime());
+        target.putNextEntry(relocated);
+        if (!entry.isDirectory()) {
+          try (final InputStream in = zip.getInputStream(entry)) {
+            final byte[] content = in.readAllBytes();
+            final byte[] transformed = this.transform(entry.getName(), content);
+            target.write(transformed == null ? content : transformed);
+          }
+        }
+        target.closeEntry();
+      }
+    }
+  }
+
+  private byte[] transform(final String name, final byte[] content) throws IOException {
+    if (JarRelocationEngine.MANIFEST.equals(name)) {
+      return JarRelocationEngine.stripDigests(content);
+    }
+    if (name.endsWith(".class")) {
+      return this.classRemapper.remap(content);
+    }
+    if (name.startsWith(JarRelocationEngine.SERVICES_PREFIX)) {
+      return this.transformServices(content);
+    }
+    return null;
+  }
+
+  private byte[] transformServices(final byte[] content) {
+    final String original = new String(content, StandardCharsets.UTF_8);
+    final String[] lines = original.split("\n", -1);
+    final StringBuilder builder = new StringBuilder(original.length() + 32);
+    boolean changed = false;
+    for (int index = 0; index < lines.length; index++) {
+      final String line = lines[index];
+      if (index > 0) {
+        builder.append('\n');
+      }
+      final String trimmed = line.trim();
+      final String mapped = trimmed.isEmpty() || trimmed.startsWith("#") ? trimmed : this.remapper.mapValue(trimmed);
+      if (mapped.equals(trimmed)) {
+        builder.append(line);
+      } else {
+        builder.append(mapped);
+        changed = true;
+      }
+    }
+    return changed ? builder.toString().getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  private void write(final FileChannel source, final FileChannel target, final List<Processed> processed)
+    throws IOException {
+    final ZipArchiveWriter writer = new ZipArchiveWriter(target);
+    final Set<String> written = new HashSet<>();
+    for (final Processed entry : processed) {
+      if (entry == null) {
+        continue;
+      }
+      final String name = entry.name;
+      for (int index = name.indexOf('/'); index >= 0 && index < name.length() - 1; index = name.indexOf('/', index + 1)) {
+        final String parent = name.substring(0, index + 1);
+        if (written.add(parent)) {
+          writer.writeDirectory(parent, entry.record.dosTime);
+        }
+      }
+      if (!written.add(name)) {
+        continue;
+      }
+      if (entry.record.isDirectory()) {
+        writer.writeDirectory(name, entry.record.dosTime);
+      } else if (entry.data == null) {
+        writer.writeRaw(name, entry.record, source, entry.offset);
+      } else {
+        writer.writeCompressed(name, entry.record, entry.record.method, entry.crc, entry.size, entry.data);
+      }
+    }
+    writer.finish();
+  }
+
+  private static final class Processed {
+
+    private final long crc;
+
+    private final byte[] data;
+
+    private final String name;
+
+    private final long offset;
+
+    private final ZipRecord record;
+
+    private final long size;
+
+    private Processed(final String name, final ZipRecord record, final long offset, final byte[] data,
+                      final long crc, final long size) {
+      this.name = name;
+      this.record = record;
+      this.offset = offset;
+      this.data = data;
+      this.crc = crc;
+      this.size = size;
+    }
+  }
+}
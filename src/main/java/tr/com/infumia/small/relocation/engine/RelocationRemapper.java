@@ -0,0 +1,434 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import tr.com.infumia.small.relocation.RelocationRule;
+
+/**
+ * Maps class names, descriptors, signatures, string constants and resource paths according to a set of
+ * {@link RelocationRule}s. The matching semantics follow lucko/jar-relocator: a rule applies to every path starting
+ * with its package, restricted by Ant-style inclusion and exclusion patterns.
+ */
+public final class RelocationRemapper {
+
+  private static final Pattern CLASS_PATTERN = Pattern.compile("(\\[*)?L(.+);");
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private static final String SERVICES_PREFIX = "META-INF/services/";
+
+  private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+  private final List<Rule> rules = new ArrayList<>();
+
+  public RelocationRemapper(final Collection<RelocationRule> rules) {
+    for (final RelocationRule rule : rules) {
+      this.rules.add(new Rule(rule));
+    }
+  }
+
+  private static Set<String> normalizePatterns(final Collection<String> patterns) {
+    if (patterns == null || patterns.isEmpty()) {
+      return null;
+    }
+    final Set<String> normalized = new LinkedHashSet<>();
+    for (final String pattern : patterns) {
+      final String classPattern = pattern.replace('.', '/');
+      normalized.add(classPattern);
+      if (classPattern.endsWith("/*")) {
+        normalized.add(classPattern.substring(0, classPattern.lastIndexOf('/')));
+      }
+    }
+    return normalized;
+  }
+
+  private static boolean matchPath(final String pattern, final String path) {
+    final String[] patternTokens = RelocationRemapper.tokenize(pattern);
+    final String[] pathTokens = RelocationRemapper.tokenize(path);
+    return RelocationRemapper.matchTokens(patternTokens, 0, pathTokens, 0);
+  }
+
+  private static boolean matchSegment(final String pattern, final int patternIndex, final String segment, final int segmentIndex) {
+    if (patternIndex == pattern.length()) {
+      return segmentIndex == segment.length();
+    }
+    final char current = pattern.charAt(patternIndex);
+    if (current == '*') {
+      for (int index = segmentIndex; index <= segment.length(); index++) {
+        if (RelocationRemapper.matchSegment(pattern, patternIndex + 1, segment, index)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    if (segmentIndex == segment.length()) {
+      return false;
+    }
+    return (current == '?' || current == segment.charAt(segmentIndex)) &&
+      RelocationRemapper.matchSegment(pattern, patternIndex + 1, segment, segmentIndex + 1);
+  }
+
+  private static boolean matchTokens(final String[] pattern, final int patternIndex, final String[] path, final int pathIndex) {
+    if (patternIndex == pattern.length) {
+      return pathIndex == path.length;
+    }
+    if ("**".equals(pattern[patternIndex])) {
+      for (int index = pathIndex; index <= path.length; index++) {
+        if (RelocationRemapper.matchTokens(pattern, patternIndex + 1, path, index)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    if (pathIndex == path.length) {
+      return false;
+    }
+    return RelocationRemapper.matchSegment(pattern[patternIndex], 0, path[pathIndex], 0) &&
+      RelocationRemapper.matchTokens(pattern, patternIndex + 1, path, pathIndex + 1);
+  }
+
+  private static String replaceFirst(final String value, final String target, final String replacement) {
+    final int index = value.indexOf(target);
+    if (index < 0) {
+      return value;
+    }
+    return value.substring(0, index) + replacement + value.substring(index + target.length());
+  }
+
+  private static String[] tokenize(final String path) {
+    return path.replaceAll("^/+|/+$", "").split("/+");
+  }
+
+  public boolean isEmpty() {
+    return this.rules.isEmpty();
+  }
+
+  /**
+   * Maps a field or method descriptor, or a generic signature.
+   *
+   * @param descriptor descriptor or signature to map.
+   *
+   * @return the mapped value, the same instance if nothing changed.
+   */
+  public String mapDescriptor(final String descriptor) {
+    if (this.rules.isEmpty() || descriptor.indexOf('L') < 0) {
+      return descriptor;
+    }
+    try {
+      final SignatureMapper mapper = new SignatureMapper(descriptor);
+      final String mapped = mapper.map();
+      return mapped.equals(descriptor) ? descriptor : mapped;
+    } catch (final RuntimeException exception) {
+      return descriptor;
+    }
+  }
+
+  /**
+   * Maps the name of a jar entry. Classes and resources under a relocated package move with it, service descriptors
+   * are renamed after the service they describe.
+   *
+   * @param name entry name.
+   *
+   * @return the mapped name.
+   */
+  public String mapEntryName(final String name) {
+    if (this.rules.isEmpty()) {
+      return name;
+    }
+    if (name.startsWith(RelocationRemapper.VERSIONS_PREFIX)) {
+      final int versionEnd = name.indexOf('/', RelocationRemapper.VERSIONS_PREFIX.length());
+      if (versionEnd > 0) {
+        return name.substring(0, versionEnd + 1) + this.mapEntryName(name.substring(versionEnd + 1));
+      }
+    }
+    if (name.startsWith(RelocationRemapper.SERVICES_PREFIX) && name.length() > RelocationRemapper.SERVICES_PREFIX.length()) {
+      return RelocationRemapper.SERVICES_PREFIX + this.mapClassName(name.substring(RelocationRemapper.SERVICES_PREFIX.length()));
+    }
+    if (name.endsWith(RelocationRemapper.CLASS_SUFFIX)) {
+      final String className = name.substring(0, name.length() - RelocationRemapper.CLASS_SUFFIX.length());
+      return this.mapInternalName(className) + RelocationRemapper.CLASS_SUFFIX;
+    }
+    return this.mapPath(name);
+  }
+
+  /**
+   * Maps an internal name (<code>com/example/Type</code>) or, for arrays, a descriptor.
+   *
+   * @param name internal name to map.
+   *
+   * @return the mapped name.
+   */
+  public String mapInternalName(final String name) {
+    if (name.startsWith("[")) {
+      return this.mapDescriptor(name);
+    }
+    return this.mapPath(name);
+  }
+
+  public String mapPackage(final String name) {
+    final String mapped = this.mapPath(name + "/");
+    return mapped.substring(0, mapped.length() - 1);
+  }
+
+  /**
+   * Maps a string constant that may hold a binary class name (<code>com.example.Type</code>), a descriptor of one, or
+   * a resource path.
+   *
+   * @param value constant to map.
+   *
+   * @return the mapped constant.
+   */
+  public String mapValue(final String value) {
+    if (this.rules.isEmpty()) {
+      return value;
+    }
+    String name = value;
+    String prefix = "";
+    String suffix = "";
+    final Matcher matcher = RelocationRemapper.CLASS_PATTERN.matcher(value);
+    if (matcher.matches()) {
+      prefix = (matcher.group(1) == null ? "" : matcher.group(1)) + "L";
+      suffix = ";";
+      name = matcher.group(2);
+    }
+    for (final Rule rule : this.rules) {
+      if (rule.canRelocateClass(name)) {
+        return prefix + rule.relocateClass(name) + suffix;
+      }
+      if (rule.canRelocatePath(name)) {
+        return prefix + rule.relocatePath(name) + suffix;
+      }
+    }
+    return value;
+  }
+
+  private String mapClassName(final String name) {
+    for (final Rule rule : this.rules) {
+      if (rule.canRelocateClass(name)) {
+        return rule.relocateClass(name);
+      }
+    }
+    return name;
+  }
+
+  private String mapPath(final String path) {
+    for (final Rule rule : this.rules) {
+      if (rule.canRelocatePath(path)) {
+        return rule.relocatePath(path);
+      }
+    }
+    return path;
+  }
+
+  private static final class Rule {
+
+    private final Set<String> excludes;
+
+    private final Set<String> includes;
+
+    private final String pathPattern;
+
+    private final String pattern;
+
+    private final String relocatedPathPattern;
+
+    private final String relocatedPattern;
+
+    private Rule(final RelocationRule rule) {
+      this.pattern = rule.getOriginalPackagePattern().replace('/', '.');
+      this.pathPattern = rule.getOriginalPackagePattern().replace('.', '/');
+      this.relocatedPattern = rule.getRelocatedPackagePattern().replace('/', '.');
+      this.relocatedPathPattern = rule.getRelocatedPackagePattern().replace('.', '/');
+      this.includes = RelocationRemapper.normalizePatterns(rule.getInclusions());
+      this.excludes = RelocationRemapper.normalizePatterns(rule.getExclusions());
+    }
+
+    private boolean canRelocateClass(final String name) {
+      return name.indexOf('/') == -1 && this.canRelocatePath(name.replace('.', '/'));
+    }
+
+    private boolean canRelocatePath(final String path) {
+      final String name = path.endsWith(RelocationRemapper.CLASS_SUFFIX)
+        ? path.substring(0, path.length() - RelocationRemapper.CLASS_SUFFIX.length())
+        : path;
+      if (!name.startsWith(this.pathPattern) && !name.startsWith("/" + this.pathPattern)) {
+        return false;
+      }
+      return this.isIncluded(name) && !this.isExcluded(name);
+    }
+
+    private boolean isExcluded(final String path) {
+      if (this.excludes == null) {
+        return false;
+      }
+      for (final String exclude : this.excludes) {
+        if (RelocationRemapper.matchPath(exclude, path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isIncluded(final String path) {
+      if (this.includes == null) {
+        return true;
+      }
+      for (final String include : this.includes) {
+        if (RelocationRemapper.matchPath(include, path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private String relocateClass(final String name) {
+      return RelocationRemapper.replaceFirst(name, this.pattern, this.relocatedPattern);
+    }
+
+    private String relocatePath(final String path) {
+      return RelocationRemapper.replaceFirst(path, this.pathPattern, this.relocatedPathPattern);
+    }
+  }
+
+  /**
+   * Walks a descriptor or signature and maps the qualified name of every class type in it.
+   */
+  private final class SignatureMapper {
+
+    private final StringBuilder output;
+
+    private final String signature;
+
+    private int position;
+
+    private SignatureMapper(final String signature) {
+      this.signature = signature;
+      this.output = new StringBuilder(signature.length() + 16);
+    }
+
+    private String map() {
+      if (this.peek() == '<') {
+        this.formalTypeParameters();
+      }
+      while (this.position < this.signature.length()) {
+        final char current = this.peek();
+        if (current == '(' || current == ')' || current == '^') {
+          this.copy();
+        } else {
+          this.type();
+        }
+      }
+      return this.output.toString();
+    }
+
+    private void classType() {
+      this.copy();
+      final int start = this.position;
+      while (!this.isClassNameEnd(this.peek())) {
+        this.position++;
+      }
+      this.output.append(RelocationRemapper.this.mapInternalName(this.signature.substring(start, this.position)));
+      while (true) {
+        final char current = this.peek();
+        if (current == '<') {
+          this.copy();
+          while (this.peek() != '>') {
+            this.type();
+          }
+          this.copy();
+        } else if (current == '.') {
+          this.copy();
+          while (!this.isClassNameEnd(this.peek())) {
+            this.copy();
+          }
+        } else {
+          this.copy();
+          return;
+        }
+      }
+    }
+
+    private void copy() {
+      this.output.append(this.signature.charAt(this.position++));
+    }
+
+    private void formalTypeParameters() {
+      this.copy();
+      while (this.peek() != '>') {
+        while (this.peek() != ':') {
+          this.copy();
+        }
+        while (this.peek() == ':') {
+          this.copy();
+          final char next = this.peek();
+          if (next == 'L' || next == 'T' || next == '[') {
+            this.type();
+          }
+        }
+      }
+      this.copy();
+    }
+
+    private boolean isClassNameEnd(final char current) {
+      return current == '<' || current == ';' || current == '.';
+    }
+
+    private char peek() {
+      return this.signature.charAt(this.position);
+    }
+
+    private void type() {
+      final char current = this.peek();
+      switch (current) {
+        case 'L':
+          this.classType();
+          break;
+        case 'T':
+          while (this.peek() != ';') {
+            this.copy();
+          }
+          this.copy();
+          break;
+        case '[':
+        case '+':
+        case '-':
+          this.copy();
+          this.type();
+          break;
+        default:
+          this.copy();
+          break;
+      }
+    }
+  }
+}
@@ -0,0 +1,188 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the central directory of a zip archive and gives positional access to the compressed bytes of its entries,
+ * so that several threads can read from the same channel.
+ */
+final class ZipArchiveReader {
+
+  static final int METHOD_DEFLATED = 8;
+
+  static final int METHOD_STORED = 0;
+
+  private static final int CENTRAL_HEADER = 0x02014b50;
+
+  private static final int END_HEADER = 0x06054b50;
+
+  private static final int END_SIZE = 22;
+
+  private static final int FLAG_ENCRYPTED = 0x1;
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+
+  private static final int LOCAL_SIZE = 30;
+
+  private static final long MAX_U32 = 0xFFFFFFFFL;
+
+  private static final int MAX_U16 = 0xFFFF;
+
+  private static final int ZIP64_LOCATOR = 0x07064b50;
+
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+
+  private ZipArchiveReader() {
+  }
+
+  /**
+   * Reads the central directory.
+   *
+   * @param channel archive to read.
+   *
+   * @return the entries in directory order, or {@code null} if the archive uses features this reader does not copy
+   *   verbatim (ZIP64, encryption, spanning, unusual compression methods or leading data).
+   *
+   * @throws IOException if reading fails.
+   */
+  static List<ZipRecord> readCentralDirectory(final FileChannel channel) throws IOException {
+    final long size = channel.size();
+    if (size < ZipArchiveReader.END_SIZE) {
+      return null;
+    }
+    final int tailLength = (int) Math.min(size, ZipArchiveReader.END_SIZE + ZipArchiveReader.MAX_U16);
+    final long tailStart = size - tailLength;
+    final ByteBuffer tail = ZipArchiveReader.read(channel, tailStart, tailLength);
+    int end = -1;
+    for (int index = tailLength - ZipArchiveReader.END_SIZE; index >= 0; index--) {
+      if (tail.getInt(index) == ZipArchiveReader.END_HEADER) {
+        end = index;
+        break;
+      }
+    }
+    if (end < 0) {
+      return null;
+    }
+    if (end >= ZipArchiveReader.ZIP64_LOCATOR_SIZE &&
+      tail.getInt(end - ZipArchiveReader.ZIP64_LOCATOR_SIZE) == ZipArchiveReader.ZIP64_LOCATOR) {
+      return null;
+    }
+    final int disk = ZipArchiveReader.u16(tail, end + 4);
+    final int directoryDisk = ZipArchiveReader.u16(tail, end + 6);
+    final int count = ZipArchiveReader.u16(tail, end + 10);
+    final long directorySize = ZipArchiveReader.u32(tail, end + 12);
+    final long directoryOffset = ZipArchiveReader.u32(tail, end + 16);
+    if (disk != 0 || directoryDisk != 0 || count == ZipArchiveReader.MAX_U16 ||
+      directoryOffset + directorySize != tailStart + end) {
+      return null;
+    }
+    final ByteBuffer directory = ZipArchiveReader.read(channel, directoryOffset, (int) directorySize);
+    final List<ZipRecord> records = new ArrayList<>(count);
+    int position = 0;
+    for (int index = 0; index < count; index++) {
+      if (directory.getInt(position) != ZipArchiveReader.CENTRAL_HEADER) {
+        return null;
+      }
+      final int versionMadeBy = ZipArchiveReader.u16(directory, position + 4);
+      final int flags = ZipArchiveReader.u16(directory, position + 8);
+      final int method = ZipArchiveReader.u16(directory, position + 10);
+      final int dosTime = directory.getInt(position + 12);
+      final long crc = ZipArchiveReader.u32(directory, position + 16);
+      final long compressedSize = ZipArchiveReader.u32(directory, position + 20);
+      final long uncompressedSize = ZipArchiveReader.u32(directory, position + 24);
+      final int nameLength = ZipArchiveReader.u16(directory, position + 28);
+      final int extraLength = ZipArchiveReader.u16(directory, position + 30);
+      final int commentLength = ZipArchiveReader.u16(directory, position + 32);
+      final int externalAttributes = directory.getInt(position + 38);
+      final long localHeaderOffset = ZipArchiveReader.u32(directory, position + 42);
+      if ((flags & ZipArchiveReader.FLAG_ENCRYPTED) != 0 ||
+        method != ZipArchiveReader.METHOD_STORED && method != ZipArchiveReader.METHOD_DEFLATED ||
+        compressedSize == ZipArchiveReader.MAX_U32 || uncompressedSize == ZipArchiveReader.MAX_U32 ||
+        localHeaderOffset == ZipArchiveReader.MAX_U32) {
+        return null;
+      }
+      final byte[] name = new byte[nameLength];
+      directory.get(position + 46, name);
+      records.add(new ZipRecord(new String(name, StandardCharsets.UTF_8), versionMadeBy, method, dosTime, crc,
+        compressedSize, uncompressedSize, externalAttributes, localHeaderOffset));
+      position += 46 + nameLength + extraLength + commentLength;
+    }
+    return records;
+  }
+
+  /**
+   * Resolves the offset of the compressed data of an entry from its local header.
+   *
+   * @param channel archive to read.
+   * @param record entry to locate.
+   *
+   * @return absolute offset of the first data byte.
+   *
+   * @throws IOException if the local header is missing or cannot be read.
+   */
+  static long dataOffset(final FileChannel channel, final ZipRecord record) throws IOException {
+    final ByteBuffer header = ZipArchiveReader.read(channel, record.localHeaderOffset, ZipArchiveReader.LOCAL_SIZE);
+    if (header.getInt(0) != ZipArchiveReader.LOCAL_HEADER) {
+      throw new IOException("Missing local header for " + record.name);
+    }
+    return record.localHeaderOffset + ZipArchiveReader.LOCAL_SIZE + ZipArchiveReader.u16(header, 26) +
+      ZipArchiveReader.u16(header, 28);
+  }
+
+  static byte[] readData(final FileChannel channel, final long offset, final ZipRecord record) throws IOException {
+    if (record.compressedSize > Integer.MAX_VALUE - 1) {
+      throw new IOException("Entry too large to relocate: " + record.name);
+    }
+    return ZipArchiveReader.read(channel, offset, (int) record.compressedSize).array();
+  }
+
+  private static ByteBuffer read(final FileChannel channel, final long offset, final int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of archive");
+      }
+    }
+    return buffer;
+  }
+
+  private static int u16(final ByteBuffer buffer, final int index) {
+    return buffer.getShort(index) & 0xFFFF;
+  }
+
+  private static long u32(final ByteBuffer buffer, final int index) {
+    return buffer.getInt(index) & ZipArchiveReader.MAX_U32;
+  }
+}
@@ -0,0 +1,181 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a zip archive entry by entry. Entry data is either supplied already compressed or transferred verbatim from
+ * another archive, so nothing is inflated or deflated here.
+ */
+final class ZipArchiveWriter {
+
+  private static final int CENTRAL_HEADER = 0x02014b50;
+
+  private static final int DIRECTORY_ATTRIBUTES = 0x10;
+
+  private static final int END_HEADER = 0x06054b50;
+
+  private static final int FLAG_UTF8 = 0x800;
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+
+  private static final long MAX_U32 = 0xFFFFFFFFL;
+
+  private static final int MAX_U16 = 0xFFFF;
+
+  private static final int VERSION_NEEDED = 20;
+
+  private final FileChannel channel;
+
+  private final ByteArrayOutputStream directory = new ByteArrayOutputStream();
+
+  private int count;
+
+  private long position;
+
+  ZipArchiveWriter(final FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.position = channel.position();
+  }
+
+  void finish() throws IOException {
+    final long directoryOffset = this.position;
+    final long directorySize = this.directory.size();
+    this.ensureFits(directoryOffset + directorySize);
+    this.writeFully(ByteBuffer.wrap(this.directory.toByteArray()));
+    final ByteBuffer end = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+    end.putInt(ZipArchiveWriter.END_HEADER);
+    end.putShort((short) 0);
+    end.putShort((short) 0);
+    end.putShort((short) this.count);
+    end.putShort((short) this.count);
+    end.putInt((int) directorySize);
+    end.putInt((int) directoryOffset);
+    end.putShort((short) 0);
+    end.flip();
+    this.writeFully(end);
+  }
+
+  void writeCompressed(final String name, final ZipRecord source, final int method, final long crc, final long size,
+                       final byte[] data) throws IOException {
+    this.writeHeaders(name, source.versionMadeBy, method, source.dosTime, crc, data.length, size,
+      source.externalAttributes);
+    this.writeFully(ByteBuffer.wrap(data));
+  }
+
+  void writeDirectory(final String name, final int dosTime) throws IOException {
+    this.writeHeaders(name, ZipArchiveWriter.VERSION_NEEDED, ZipArchiveReader.METHOD_STORED, dosTime, 0, 0, 0,
+      ZipArchiveWriter.DIRECTORY_ATTRIBUTES);
+  }
+
+  void writeRaw(final String name, final ZipRecord source, final FileChannel input, final long offset)
+    throws IOException {
+    this.writeHeaders(name, source.versionMadeBy, source.method, source.dosTime, source.crc, source.compressedSize,
+      source.size, source.externalAttributes);
+    long transferred = 0;
+    while (transferred < source.compressedSize) {
+      final long written = input.transferTo(offset + transferred, source.compressedSize - transferred, this.channel);
+      if (written <= 0) {
+        throw new IOException("Could not copy " + source.name);
+      }
+      transferred += written;
+    }
+    this.position += transferred;
+  }
+
+  private void ensureFits(final long end) throws ZipLimitException {
+    if (end >= ZipArchiveWriter.MAX_U32 || this.count > ZipArchiveWriter.MAX_U16) {
+      throw new ZipLimitException();
+    }
+  }
+
+  private void writeFully(final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      this.position += this.channel.write(buffer);
+    }
+  }
+
+  private void writeHeaders(final String name, final int versionMadeBy, final int method, final int dosTime,
+                            final long crc, final long compressedSize, final long size, final int externalAttributes)
+    throws IOException {
+    final byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+    final int flags = encodedName.length == name.length() ? 0 : ZipArchiveWriter.FLAG_UTF8;
+    final long offset = this.position;
+    this.count++;
+    this.ensureFits(offset + 30 + encodedName.length + compressedSize);
+    final ByteBuffer local = ByteBuffer.allocate(30 + encodedName.length).order(ByteOrder.LITTLE_ENDIAN);
+    local.putInt(ZipArchiveWriter.LOCAL_HEADER);
+    local.putShort((short) ZipArchiveWriter.VERSION_NEEDED);
+    local.putShort((short) flags);
+    local.putShort((short) method);
+    local.putInt(dosTime);
+    local.putInt((int) crc);
+    local.putInt((int) compressedSize);
+    local.putInt((int) size);
+    local.putShort((short) encodedName.length);
+    local.putShort((short) 0);
+    local.put(encodedName);
+    local.flip();
+    this.writeFully(local);
+    final ByteBuffer central = ByteBuffer.allocate(46 + encodedName.length).order(ByteOrder.LITTLE_ENDIAN);
+    central.putInt(ZipArchiveWriter.CENTRAL_HEADER);
+    central.putShort((short) versionMadeBy);
+    central.putShort((short) ZipArchiveWriter.VERSION_NEEDED);
+    central.putShort((short) flags);
+    central.putShort((short) method);
+    central.putInt(dosTime);
+    central.putInt((int) crc);
+    central.putInt((int) compressedSize);
+    central.putInt((int) size);
+    central.putShort((short) encodedName.length);
+    central.putShort((short) 0);
+    central.putShort((short) 0);
+    central.putShort((short) 0);
+    central.putShort((short) 0);
+    central.putInt(externalAttributes);
+    central.putInt((int) offset);
+    central.put(encodedName);
+    this.directory.write(central.array(), 0, central.capacity());
+  }
+
+  /**
+   * Signals that the archive being written would need ZIP64 records.
+   */
+  static final class ZipLimitException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private ZipLimitException() {
+      super("Archive exceeds the limits of a non-ZIP64 archive");
+    }
+  }
+}
@@ -0,0 +1,67 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+/**
+ * A central directory entry of a zip archive.
+ */
+final class ZipRecord {
+
+  final long compressedSize;
+
+  final long crc;
+
+  final int dosTime;
+
+  final int externalAttributes;
+
+  final long localHeaderOffset;
+
+  final int method;
+
+  final String name;
+
+  final long size;
+
+  final int versionMadeBy;
+
+  ZipRecord(final String name, final int versionMadeBy, final int method, final int dosTime, final long crc,
+            final long compressedSize, final long size, final int externalAttributes, final long localHeaderOffset) {
+    this.name = name;
+    this.versionMadeBy = versionMadeBy;
+    this.method = method;
+    this.dosTime = dosTime;
+    this.crc = crc;
+    this.compressedSize = compressedSize;
+    this.size = size;
+    this.externalAttributes = externalAttributes;
+    this.localHeaderOffset = localHeaderOffset;
+  }
+
+  boolean isDirectory() {
+    return this.name.endsWith("/");
+  }
+}
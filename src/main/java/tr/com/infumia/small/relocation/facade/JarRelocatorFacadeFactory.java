@@ -32,4 +32,13 @@ import tr.com.infumia.small.relocation.RelocationRule;
 public interface JarRelocatorFacadeFactory {
 
   JarRelocatorFacade createFacade(final File input, final File output, final Collection<RelocationRule> relocationRules) throws IllegalAccessException, InstantiationException, InvocationTargetException;
+
+  /**
+   * Identifies the engine behind the facades, changing whenever the engine output changes.
+   *
+   * @return the engine version, or {@code null} if it is unknown.
+   */
+  default String getEngineVersion() {
+    return null;
+  }
 }
@@ -0,0 +1,58 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.facade;
+
+import java.io.File;
+import java.util.Collection;
+import tr.com.infumia.small.relocation.RelocationRule;
+import tr.com.infumia.small.relocation.engine.JarRelocationEngine;
+
+/**
+ * Relocates jars with the built-in {@link JarRelocationEngine}, so no relocation library has to be downloaded and
+ * isolated first.
+ */
+public final class NativeJarRelocatorFacadeFactory implements JarRelocatorFacadeFactory {
+
+  /**
+   * Returns the engine version reported by this factory, without creating one.
+   *
+   * @return the engine version.
+   */
+  public static String engineVersion() {
+    return "small-native:" + JarRelocationEngine.VERSION;
+  }
+
+  @Override
+  public JarRelocatorFacade createFacade(final File input, final File output, final Collection<RelocationRule> relocationRules) {
+    final JarRelocationEngine engine = new JarRelocationEngine(relocationRules);
+    return () -> engine.relocate(input, output);
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return NativeJarRelocatorFacadeFactory.engineVersion();
+  }
+}
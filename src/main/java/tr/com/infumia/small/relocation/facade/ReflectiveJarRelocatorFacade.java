@@ -24,22 +24,26 @@
 
 package tr.com.infumia.small.relocation.facade;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 public final class ReflectiveJarRelocatorFacade implements JarRelocatorFacade {
 
-  private final Object relocator;
+  private final MethodHandle relocatorRunMethod;
 
-  private final Method relocatorRunMethod;
-
-  ReflectiveJarRelocatorFacade(final Object relocator, final Method relocatorRunMethod) {
-    this.relocator = relocator;
+  /**
+   * @param relocatorRunMethod <code>()void</code>, bound to a JarRelocator instance.
+   */
+  ReflectiveJarRelocatorFacade(final MethodHandle relocatorRunMethod) {
     this.relocatorRunMethod = relocatorRunMethod;
   }
 
   @Override
-  public void run() throws InvocationTargetException, IllegalAccessException {
-    this.relocatorRunMethod.invoke(this.relocator);
+  public void run() throws InvocationTargetException {
+    try {
+      this.relocatorRunMethod.invokeExact();
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
   }
 }
@@ -26,9 +26,10 @@ package tr.com.infumia.small.relocation.facade;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
@@ -45,34 +46,64 @@ import tr.com.infumia.small.relocation.RelocationRule;
 import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
 import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.util.FacadeRegistry;
 import tr.com.infumia.small.util.Packages;
 
 public final class ReflectiveJarRelocatorFacadeFactory implements JarRelocatorFacadeFactory {
 
+  private static final Dependency JAR_RELOCATOR_DEPENDENCY = new Dependency(
+    Packages.fix("me#lucko"),
+    "jar-relocator",
+    "1.4",
+    null,
+    Arrays.asList(
+      new Dependency(Packages.fix("org#ow2#asm"), "asm", "9.1", null, Collections.emptySet()),
+      new Dependency(Packages.fix("org#ow2#asm"), "asm-commons", "9.1", null, Collections.emptySet())
+    )
+  );
+
   private static final String JAR_RELOCATOR_PACKAGE = "me#lucko#jarrelocator#JarRelocator";
 
   private static final String RELOCATION_PACKAGE = "me#lucko#jarrelocator#Relocation";
 
-  private final Constructor<?> jarRelocatorConstructor;
+  private final MethodHandle jarRelocatorConstructor;
 
-  private final Method jarRelocatorRunMethod;
+  private final MethodHandle jarRelocatorRunMethod;
 
-  private final Constructor<?> relocationConstructor;
+  private final MethodHandle relocationConstructor;
 
-  private ReflectiveJarRelocatorFacadeFactory(final Constructor<?> jarRelocatorConstructor, final Constructor<?> relocationConstructor, final Method jarRelocatorRunMethod) {
+  private ReflectiveJarRelocatorFacadeFactory(final MethodHandle jarRelocatorConstructor, final MethodHandle relocationConstructor, final MethodHandle jarRelocatorRunMethod) {
     this.jarRelocatorConstructor = jarRelocatorConstructor;
     this.relocationConstructor = relocationConstructor;
     this.jarRelocatorRunMethod = jarRelocatorRunMethod;
   }
 
+  /**
+   * Bootstraps jar-relocator into an isolated class loader, once per JVM and download root.
+   *
+   * @param downloadPath download root to store jar-relocator in.
+   * @param repositories repositories to download jar-relocator from.
+   * @param offline whether the bootstrap may reach the network.
+   *
+   * @return the shared factory.
+   */
+  public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
+    return FacadeRegistry.get(ReflectiveJarRelocatorFacadeFactory.JAR_RELOCATOR_DEPENDENCY, downloadPath, () ->
+      ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, new IsolatedInjectableClassLoader(), offline));
+  }
+
   public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
-    final InjectableClassLoader classLoader = new IsolatedInjectableClassLoader();
-    return ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, classLoader);
+    return ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
   }
 
   public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
+    return ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, classLoader, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
+  }
+
+  public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException {
     ApplicationBuilder.injecting("Small", classLoader)
       .downloadDirectoryPath(downloadPath)
+      .offline(offline)
       .preResolutionDataProviderFactory(a -> Collections::emptyMap)
       .dataProviderFactory(url -> () -> ReflectiveJarRelocatorFacadeFactory.getJarRelocatorDependency(repositories))
       .relocatorFactory(rules -> new PassthroughRelocator())
@@ -80,46 +111,46 @@ public final class ReflectiveJarRelocatorFacadeFactory implements JarRelocatorFa
       .build();
     final Class<?> jarRelocatorClass = Class.forName(Packages.fix(ReflectiveJarRelocatorFacadeFactory.JAR_RELOCATOR_PACKAGE), true, classLoader);
     final Class<?> relocationClass = Class.forName(Packages.fix(ReflectiveJarRelocatorFacadeFactory.RELOCATION_PACKAGE), true, classLoader);
-    final Constructor<?> jarRelocatorConstructor = jarRelocatorClass.getConstructor(File.class, File.class, Collection.class);
-    final Constructor<?> relocationConstructor = relocationClass.getConstructor(String.class, String.class, Collection.class, Collection.class);
-    final Method runMethod = jarRelocatorClass.getMethod("run");
+    final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    final MethodHandle jarRelocatorConstructor = lookup.findConstructor(jarRelocatorClass, MethodType.methodType(void.class, File.class, File.class, Collection.class))
+      .asType(MethodType.methodType(Object.class, File.class, File.class, Collection.class));
+    final MethodHandle relocationConstructor = lookup.findConstructor(relocationClass, MethodType.methodType(void.class, String.class, String.class, Collection.class, Collection.class))
+      .asType(MethodType.methodType(Object.class, String.class, String.class, Collection.class, Collection.class));
+    final MethodHandle runMethod = lookup.findVirtual(jarRelocatorClass, "run", MethodType.methodType(void.class))
+      .asType(MethodType.methodType(void.class, Object.class));
     return new ReflectiveJarRelocatorFacadeFactory(jarRelocatorConstructor, relocationConstructor, runMethod);
   }
 
-  private static Object createRelocation(final Constructor<?> relocationConstructor, final RelocationRule rule) throws IllegalAccessException, InvocationTargetException, InstantiationException {
-    return relocationConstructor.newInstance(rule.getOriginalPackagePattern(), rule.getRelocatedPackagePattern(), rule.getExclusions(), rule.getInclusions());
+  /**
+   * Returns the engine version reported by this factory, without bootstrapping jar-relocator.
+   *
+   * @return the engine version.
+   */
+  public static String engineVersion() {
+    return ReflectiveJarRelocatorFacadeFactory.JAR_RELOCATOR_DEPENDENCY.toString();
   }
 
-  private static Object createRelocator(final Constructor<?> jarRelocatorConstructor, final File input, final File output, final Collection<Object> rules) throws IllegalAccessException, InvocationTargetException, InstantiationException {
-    return jarRelocatorConstructor.newInstance(input, output, rules);
+  private static Object createRelocation(final MethodHandle relocationConstructor, final RelocationRule rule) throws InvocationTargetException {
+    try {
+      return (Object) relocationConstructor.invokeExact(rule.getOriginalPackagePattern(), rule.getRelocatedPackagePattern(), (Collection<?>) rule.getExclusions(), (Collection<?>) rule.getInclusions());
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
+  }
+
+  private static Object createRelocator(final MethodHandle jarRelocatorConstructor, final File input, final File output, final Collection<Object> rules) throws InvocationTargetException {
+    try {
+      return (Object) jarRelocatorConstructor.invokeExact(input, output, (Collection<?>) rules);
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
   }
 
   private static DependencyData getJarRelocatorDependency(final Collection<Repository> repositories) throws MalformedURLException {
-    final Dependency asm = new Dependency(
-      Packages.fix("org#ow2#asm"),
-      "asm",
-      "9.1",
-      null,
-      new HashSet<>()
-    );
-    final Dependency asmCommons = new Dependency(
-      Packages.fix("org#ow2#asm"),
-      "asm-commons",
-      "9.1",
-      null,
-      new HashSet<>()
-    );
-    final Dependency jarRelocator = new Dependency(
-      Packages.fix("me#lucko"),
-      "jar-relocator",
-      "1.4",
-      null,
-      new HashSet<>(Arrays.asList(asm, asmCommons))
-    );
     return new DependencyData(
       Collections.emptySet(),
       repositories,
-      Collections.singleton(jarRelocator)
+      Collections.singleton(ReflectiveJarRelocatorFacadeFactory.JAR_RELOCATOR_DEPENDENCY)
     );
   }
 
@@ -130,6 +161,11 @@ public final class ReflectiveJarRelocatorFacadeFactory implements JarRelocatorFa
       relocations.add(ReflectiveJarRelocatorFacadeFactory.createRelocation(this.relocationConstructor, rule));
     }
     final Object relocator = ReflectiveJarRelocatorFacadeFactory.createRelocator(this.jarRelocatorConstructor, input, output, relocations);
-    return new ReflectiveJarRelocatorFacade(relocator, this.jarRelocatorRunMethod);
+    return new ReflectiveJarRelocatorFacade(this.jarRelocatorRunMethod.bindTo(relocator));
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return ReflectiveJarRelocatorFacadeFactory.engineVersion();
   }
 }
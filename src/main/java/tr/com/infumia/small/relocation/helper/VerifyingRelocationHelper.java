@@ -27,15 +27,32 @@ package tr.com.infumia.small.relocation.helper;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import tr.com.infumia.small.downloader.strategy.FilePathStrategy;
+import tr.com.infumia.small.downloader.verify.ChecksumCalculator;
+import tr.com.infumia.small.downloader.verify.VerificationIndex;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.relocation.RelocationFingerprint;
 import tr.com.infumia.small.relocation.Relocator;
 import tr.com.infumia.small.relocation.meta.MetaMediator;
 import tr.com.infumia.small.relocation.meta.MetaMediatorFactory;
 import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.FileLocks;
 
 public final class VerifyingRelocationHelper implements RelocationHelper {
 
+  private static final String FINGERPRINT_ATTRIBUTE = "small.fingerprint";
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final String OWNER_ATTRIBUTE = "small.owner";
+
+  private final ChecksumCalculator checksumCalculator;
+
   private final MetaMediatorFactory mediatorFactory;
 
   private final FilePathStrategy outputFilePathStrategy;
@@ -44,32 +61,102 @@ public final class VerifyingRelocationHelper implements RelocationHelper {
 
   private final String selfHash;
 
-  public VerifyingRelocationHelper(final String selfHash, final FilePathStrategy outputFilePathStrategy, final Relocator relocator, final MetaMediatorFactory mediatorFactory) throws URISyntaxException, NoSuchAlgorithmException, IOException {
+  private final Path sharedDirectory;
+
+  private final VerificationIndex verificationIndex;
+
+  /**
+   * Creates a helper that shares relocated jars between applications. Outputs are stored under
+   * <code>sharedDirectory</code>, keyed by the checksum of the input jar and the fingerprint of the relocator.
+   * Relocators without a fingerprint fall back to per-application outputs owned by <code>selfHash</code>.
+   *
+   * @param selfHash checksum of the running application.
+   * @param outputFilePathStrategy per-application output locations.
+   * @param relocator relocator to use.
+   * @param mediatorFactory factory for relocation meta data.
+   * @param sharedDirectory root of the shared relocation cache, <code>null</code> to disable sharing.
+   * @param checksumCalculator calculator for input checksums.
+   * @param verificationIndex index of already verified checksums, may be <code>null</code>.
+   */
+  public VerifyingRelocationHelper(final String selfHash, final FilePathStrategy outputFilePathStrategy, final Relocator relocator, final MetaMediatorFactory mediatorFactory, final Path sharedDirectory, final ChecksumCalculator checksumCalculator, final VerificationIndex verificationIndex) {
     this.mediatorFactory = mediatorFactory;
     this.outputFilePathStrategy = outputFilePathStrategy;
     this.relocator = relocator;
     this.selfHash = selfHash;
+    this.sharedDirectory = sharedDirectory;
+    this.checksumCalculator = checksumCalculator;
+    this.verificationIndex = verificationIndex;
+  }
+
+  public VerifyingRelocationHelper(final String selfHash, final FilePathStrategy outputFilePathStrategy, final Relocator relocator, final MetaMediatorFactory mediatorFactory) throws URISyntaxException, NoSuchAlgorithmException, IOException {
+    this(selfHash, outputFilePathStrategy, relocator, mediatorFactory, null, null, null);
   }
 
   @Override
   public File relocate(final Dependency dependency, final File file) throws IOException, ReflectiveOperationException {
-    final File relocatedFile = this.outputFilePathStrategy.selectFileFor(dependency);
+    final String fingerprint = this.relocator.getFingerprint();
+    if (fingerprint == null || this.sharedDirectory == null || this.checksumCalculator == null) {
+      final File relocatedFile = this.relocate(file, this.outputFilePathStrategy.selectFileFor(dependency), VerifyingRelocationHelper.OWNER_ATTRIBUTE, this.selfHash);
+      return this.outputFilePathStrategy.commit(dependency, relocatedFile);
+    }
+    final String key = RelocationFingerprint.key(this.checksum(file), fingerprint);
+    final File relocatedFile = this.sharedDirectory
+      .resolve(key.substring(0, 2))
+      .resolve(key)
+      .resolve(file.getName())
+      .toFile();
+    return this.outputFilePathStrategy.commit(dependency, this.relocate(file, relocatedFile, VerifyingRelocationHelper.FINGERPRINT_ATTRIBUTE, key));
+  }
+
+  private String checksum(final File file) throws IOException {
+    // Keys are always made with this helper's algorithm, whichever verifier checked the file before.
+    final String algorithm = this.checksumCalculator.getAlgorithm();
+    if (this.verificationIndex == null || algorithm == null) {
+      return this.checksumCalculator.calculate(file);
+    }
+    final String recorded = this.verificationIndex.lookup(file, algorithm);
+    if (recorded != null) {
+      return recorded;
+    }
+    final String checksum = this.checksumCalculator.calculate(file);
+    this.verificationIndex.record(file, algorithm, checksum);
+    return checksum;
+  }
+
+  private boolean isRelocated(final File relocatedFile, final MetaMediator metaMediator, final String attribute, final String expected) {
+    if (!relocatedFile.exists() || expected == null) {
+      return false;
+    }
+    try {
+      final String actual = metaMediator.readAttribute(attribute);
+      return actual != null && expected.trim().equals(actual.trim());
+    } catch (final Exception exception) {
+      // Possible incomplete relocation present, it gets replaced.
+      return false;
+    }
+  }
+
+  private File relocate(final File file, final File relocatedFile, final String attribute, final String expected) throws IOException, ReflectiveOperationException {
     final MetaMediator metaMediator = this.mediatorFactory.create(relocatedFile.toPath());
-    if (relocatedFile.exists()) {
+    if (this.isRelocated(relocatedFile, metaMediator, attribute, expected)) {
+      VerifyingRelocationHelper.LOGGER.debug("Reusing relocated {0}", relocatedFile.getName());
+      return relocatedFile;
+    }
+    try (final FileLocks.Lock ignored = FileLocks.lock(relocatedFile.toPath())) {
+      // Another process may have relocated the jar while this one was waiting for the lock.
+      if (this.isRelocated(relocatedFile, metaMediator, attribute, expected)) {
+        return relocatedFile;
+      }
+      // Renaming the output into place also replaces views of shared objects rather than writing through them.
+      final Path temporary = AtomicFiles.temporaryFor(relocatedFile.toPath());
       try {
-        final String ownerHash = metaMediator.readAttribute("small.owner");
-        if (this.selfHash != null && ownerHash != null && this.selfHash.trim().equals(ownerHash.trim())) {
-          return relocatedFile;
-        }
-      } catch (final Exception exception) {
-        // Possible incomplete relocation present.
-        //  Log incident
-        //noinspection ResultOfMethodCallIgnored
-        relocatedFile.delete();
+        this.relocator.relocate(file, temporary.toFile());
+        AtomicFiles.move(temporary, relocatedFile.toPath());
+      } finally {
+        Files.deleteIfExists(temporary);
       }
+      metaMediator.writeAttribute(attribute, expected);
     }
-    this.relocator.relocate(file, relocatedFile);
-    metaMediator.writeAttribute("small.owner", this.selfHash);
     return relocatedFile;
   }
 }
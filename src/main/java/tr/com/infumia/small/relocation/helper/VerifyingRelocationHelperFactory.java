@@ -28,9 +28,12 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import tr.com.infumia.small.downloader.strategy.FilePathStrategy;
+import tr.com.infumia.small.downloader.verify.ChecksumCalculator;
 import tr.com.infumia.small.downloader.verify.FileChecksumCalculator;
+import tr.com.infumia.small.downloader.verify.VerificationIndex;
 import tr.com.infumia.small.relocation.Relocator;
 import tr.com.infumia.small.relocation.meta.MetaMediatorFactory;
 
@@ -38,24 +41,41 @@ public class VerifyingRelocationHelperFactory implements RelocationHelperFactory
 
   private static final URL JAR_URL = VerifyingRelocationHelperFactory.class.getProtectionDomain().getCodeSource().getLocation();
 
+  private final ChecksumCalculator checksumCalculator;
+
   private final MetaMediatorFactory mediatorFactory;
 
   private final FilePathStrategy relocationFilePathStrategy;
 
   private final String selfHash;
 
-  public VerifyingRelocationHelperFactory(final String selfHash, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory) {
+  private final Path sharedDirectory;
+
+  private final VerificationIndex verificationIndex;
+
+  public VerifyingRelocationHelperFactory(final String selfHash, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory, final Path sharedDirectory, final ChecksumCalculator checksumCalculator, final VerificationIndex verificationIndex) {
     this.relocationFilePathStrategy = relocationFilePathStrategy;
     this.mediatorFactory = mediatorFactory;
     this.selfHash = selfHash;
+    this.sharedDirectory = sharedDirectory;
+    this.checksumCalculator = checksumCalculator;
+    this.verificationIndex = verificationIndex;
+  }
+
+  public VerifyingRelocationHelperFactory(final FileChecksumCalculator calculator, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory, final Path sharedDirectory, final VerificationIndex verificationIndex) throws URISyntaxException, IOException {
+    this(calculator.calculate(new File(VerifyingRelocationHelperFactory.JAR_URL.toURI())), relocationFilePathStrategy, mediatorFactory, sharedDirectory, calculator, verificationIndex);
+  }
+
+  public VerifyingRelocationHelperFactory(final String selfHash, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory) {
+    this(selfHash, relocationFilePathStrategy, mediatorFactory, null, null, null);
   }
 
   public VerifyingRelocationHelperFactory(final FileChecksumCalculator calculator, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory) throws URISyntaxException, IOException {
-    this(calculator.calculate(new File(VerifyingRelocationHelperFactory.JAR_URL.toURI())), relocationFilePathStrategy, mediatorFactory);
+    this(calculator, relocationFilePathStrategy, mediatorFactory, null, null);
   }
 
   @Override
   public RelocationHelper create(final Relocator relocator) throws URISyntaxException, IOException, NoSuchAlgorithmException {
-    return new VerifyingRelocationHelper(this.selfHash, this.relocationFilePathStrategy, relocator, this.mediatorFactory);
+    return new VerifyingRelocationHelper(this.selfHash, this.relocationFilePathStrategy, relocator, this.mediatorFactory, this.sharedDirectory, this.checksumCalculator, this.verificationIndex);
   }
 }
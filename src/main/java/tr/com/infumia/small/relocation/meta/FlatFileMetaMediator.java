@@ -27,6 +27,7 @@ package tr.com.infumia.small.relocation.meta;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import tr.com.infumia.small.util.AtomicFiles;
 
 public final class FlatFileMetaMediator implements MetaMediator {
 
@@ -47,9 +48,6 @@ public final class FlatFileMetaMediator implements MetaMediator {
 
   @Override
   public void writeAttribute(final String name, final String value) throws IOException {
-    final Path attributeFile = this.metaFolderPath.resolve(name);
-    Files.deleteIfExists(attributeFile);
-    Files.createFile(attributeFile);
-    Files.write(attributeFile, value.getBytes());
+    AtomicFiles.write(this.metaFolderPath.resolve(name), value.getBytes());
   }
 }
@@ -25,13 +25,14 @@
 package tr.com.infumia.small.resolver;
 
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import tr.com.infumia.small.logging.LogDispatcher;
@@ -48,58 +49,130 @@ public final class CachingDependencyResolver implements DependencyResolver {
 
   private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
 
-  private final Map<Dependency, ResolutionResult> cachedResults = new ConcurrentHashMap<>();
+  private final Map<Dependency, CompletableFuture<ResolutionResult>> cachedResults = new ConcurrentHashMap<>();
+
+  private final String cacheScope;
+
+  private final ConcurrentResolutionEngine engine;
 
   private final Map<String, ResolutionResult> preResolvedResults;
 
   private final Map<Dependency, List<String>> predefinedRepositories;
 
-  private final Collection<RepositoryEnquirer> repositories;
+  private final List<RepositoryEnquirer> repositories;
+
+  private final ResolutionCache resolutionCache;
 
   private final URLPinger urlPinger;
 
   public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults,
-                                   final Map<Dependency, List<String>> predefinedRepositories) {
+                                   final Map<Dependency, List<String>> predefinedRepositories, final ResolutionCache resolutionCache, final ConcurrentResolutionEngine engine) {
     this.urlPinger = urlPinger;
     this.preResolvedResults = new ConcurrentHashMap<>(preResolvedResults);
     this.repositories = repositories.stream()
       .map(enquirerFactory::create)
-      .collect(Collectors.toSet());
+      .collect(Collectors.toList());
     this.predefinedRepositories = predefinedRepositories;
+    this.resolutionCache = resolutionCache;
+    this.engine = engine;
+    this.cacheScope = resolutionCache == null ? null : ResolutionCache.scopeOf(repositories);
+  }
+
+  public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults,
+                                   final Map<Dependency, List<String>> predefinedRepositories, final ResolutionCache resolutionCache) {
+    this(urlPinger, repositories, enquirerFactory, preResolvedResults, predefinedRepositories, resolutionCache, ConcurrentResolutionEngine.getShared());
+  }
+
+  public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults,
+                                   final Map<Dependency, List<String>> predefinedRepositories) {
+    this(urlPinger, repositories, enquirerFactory, preResolvedResults, predefinedRepositories, null);
   }
 
   public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults) {
     this(urlPinger, repositories, enquirerFactory, preResolvedResults, new HashMap<>());
   }
 
+  @Override
+  public void invalidate(final Dependency dependency) {
+    this.cachedResults.remove(dependency);
+    if (this.resolutionCache != null) {
+      this.resolutionCache.remove(this.cacheScope, dependency);
+    }
+  }
+
+  /**
+   * Resolves the dependency once, concurrent requests for it wait for the same resolution. Resolutions run outside the
+   * map, so requests for unrelated dependencies never wait on a slow one. Failed resolutions are not remembered.
+   */
   @Override
   public Optional<ResolutionResult> resolve(final Dependency dependency) {
-    return Optional.ofNullable(this.cachedResults.computeIfAbsent(dependency, this::attemptResolve));
+    final CompletableFuture<ResolutionResult> created = new CompletableFuture<>();
+    final CompletableFuture<ResolutionResult> existing = this.cachedResults.putIfAbsent(dependency, created);
+    if (existing != null) {
+      try {
+        return Optional.ofNullable(existing.join());
+      } catch (final CompletionException exception) {
+        if (exception.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exception.getCause();
+        }
+        throw exception;
+      }
+    }
+    final ResolutionResult result;
+    try {
+      result = this.attemptResolve(dependency);
+    } catch (final RuntimeException exception) {
+      this.cachedResults.remove(dependency, created);
+      created.completeExceptionally(exception);
+      throw exception;
+    }
+    if (result == null) {
+      this.cachedResults.remove(dependency, created);
+    }
+    created.complete(result);
+    return Optional.ofNullable(result);
   }
 
   private ResolutionResult attemptResolve(final Dependency dependency) {
-    final ResolutionResult preResolvedResult = this.preResolvedResults.get(dependency.toString());
+    // Pre-resolutions shipped with the application take precedence over anything cached.
+    final ResolutionResult preResolvedResult = this.resolvePreResolved(dependency);
     if (preResolvedResult != null) {
-      if (preResolvedResult.isAggregator()) {
-        return preResolvedResult;
-      }
-      final boolean isDependencyURLValid = this.urlPinger.ping(preResolvedResult.getDependencyURL());
-      final URL checksumURL = preResolvedResult.getChecksumURL();
-      final boolean isChecksumURLValid = checksumURL == null || this.urlPinger.ping(checksumURL);
-      if (isDependencyURLValid && isChecksumURLValid) {
-        return preResolvedResult;
-      }
+      return preResolvedResult;
+    }
+    if (this.resolutionCache == null) {
+      return this.resolveRemotely(dependency);
+    }
+    final ResolutionResult cachedResult = this.resolutionCache.get(this.cacheScope, dependency);
+    if (cachedResult != null) {
+      CachingDependencyResolver.LOGGER.debug("Resolved {0} from resolution cache", dependency.getArtifactId());
+      return cachedResult;
     }
-    final List<RepositoryEnquirer> enquirers = new ArrayList<>(this.repositories);
+    final ResolutionResult result = this.resolveRemotely(dependency);
+    if (result != null) {
+      this.resolutionCache.put(this.cacheScope, dependency, result);
+    }
+    return result;
+  }
+
+  private ResolutionResult resolvePreResolved(final Dependency dependency) {
+    final ResolutionResult preResolvedResult = this.preResolvedResults.get(dependency.toString());
+    if (preResolvedResult == null || preResolvedResult.isAggregator()) {
+      return preResolvedResult;
+    }
+    final boolean isDependencyURLValid = this.urlPinger.ping(preResolvedResult.getDependencyURL());
+    final URL checksumURL = preResolvedResult.getChecksumURL();
+    final boolean isChecksumURLValid = checksumURL == null || this.urlPinger.ping(checksumURL);
+    return isDependencyURLValid && isChecksumURLValid ? preResolvedResult : null;
+  }
+
+  private ResolutionResult resolveRemotely(final Dependency dependency) {
     final List<String> predefinedRepositories = this.predefinedRepositories.get(dependency);
     if (predefinedRepositories != null) {
-      final Optional<ResolutionResult> result = enquirers.stream()
+      final List<RepositoryEnquirer> predefinedEnquirers = this.repositories.stream()
         .filter(enquirer -> predefinedRepositories.contains(enquirer.repository().getName()))
-        .map(enquirer -> enquirer.enquire(dependency))
-        .filter(Objects::nonNull)
-        .findFirst();
-      if (result.isPresent()) {
-        final ResolutionResult found = result.get();
+        .collect(Collectors.toList());
+      final ResolutionResult found = this.engine.enquire(dependency, predefinedEnquirers);
+      if (found != null) {
         final String foundUrl = Optional.ofNullable(found.getDependencyURL())
           .map(Objects::toString)
           .orElse(CachingDependencyResolver.FAILED_RESOLUTION_MESSAGE);
@@ -107,12 +180,9 @@ public final class CachingDependencyResolver implements DependencyResolver {
         return found;
       }
     }
-    final Optional<ResolutionResult> result = enquirers.stream().parallel()
-      .map(enquirer -> enquirer.enquire(dependency))
-      .filter(Objects::nonNull)
-      .findFirst();
-    final String resolvedResult = result.map(ResolutionResult::getDependencyURL).map(Objects::toString).orElse(CachingDependencyResolver.FAILED_RESOLUTION_MESSAGE);
+    final ResolutionResult result = this.engine.enquire(dependency, this.repositories);
+    final String resolvedResult = Optional.ofNullable(result).map(ResolutionResult::getDependencyURL).map(Objects::toString).orElse(CachingDependencyResolver.FAILED_RESOLUTION_MESSAGE);
     CachingDependencyResolver.LOGGER.debug("Resolved {0} @ {1}", dependency.getArtifactId(), resolvedResult);
-    return result.orElse(null);
+    return result;
   }
 }
@@ -25,6 +25,7 @@
 package tr.com.infumia.small.resolver;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import tr.com.infumia.small.resolver.data.Repository;
 import tr.com.infumia.small.resolver.enquirer.RepositoryEnquirerFactory;
@@ -32,14 +33,28 @@ import tr.com.infumia.small.resolver.pinger.URLPinger;
 
 public final class CachingDependencyResolverFactory implements DependencyResolverFactory {
 
+  private final ConcurrentResolutionEngine engine;
+
+  private final ResolutionCache resolutionCache;
+
   private final URLPinger urlPinger;
 
-  public CachingDependencyResolverFactory(final URLPinger urlPinger) {
+  public CachingDependencyResolverFactory(final URLPinger urlPinger, final ResolutionCache resolutionCache, final ConcurrentResolutionEngine engine) {
     this.urlPinger = urlPinger;
+    this.resolutionCache = resolutionCache;
+    this.engine = engine;
+  }
+
+  public CachingDependencyResolverFactory(final URLPinger urlPinger, final ResolutionCache resolutionCache) {
+    this(urlPinger, resolutionCache, ConcurrentResolutionEngine.getShared());
+  }
+
+  public CachingDependencyResolverFactory(final URLPinger urlPinger) {
+    this(urlPinger, null);
   }
 
   @Override
   public DependencyResolver create(final Collection<Repository> repositories, final Map<String, ResolutionResult> preResolvedResults, final RepositoryEnquirerFactory enquirerFactory) {
-    return new CachingDependencyResolver(this.urlPinger, repositories, enquirerFactory, preResolvedResults);
+    return new CachingDependencyResolver(this.urlPinger, repositories, enquirerFactory, preResolvedResults, new HashMap<>(), this.resolutionCache, this.engine);
   }
 }
@@ -0,0 +1,196 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.resolver.enquirer.RepositoryEnquirer;
+import tr.com.infumia.small.util.Workers;
+
+/**
+ * Enquires the candidate repositories concurrently on a dedicated executor, completes as soon as the
+ * {@link ResolutionPolicy} allows it and cancels the enquiries that are still running.
+ * <p>
+ * Under {@link ResolutionPolicy#FIRST_RESPONSE} enquiries are hedged in the given order: each repository is enquired
+ * once the ones ranked above it answered negatively or had the time they usually need, so a ranked order sends most
+ * lookups to the cheapest repository only. Under {@link ResolutionPolicy#PRIORITY} every repository is enquired at once.
+ */
+public final class ConcurrentResolutionEngine {
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final long MAX_HEDGE_DELAY = 250L;
+
+  private static volatile ConcurrentResolutionEngine shared;
+
+  private final ExecutorService executor;
+
+  private final ResolutionPolicy policy;
+
+  public ConcurrentResolutionEngine(final ExecutorService executor, final ResolutionPolicy policy) {
+    this.executor = executor;
+    this.policy = policy;
+  }
+
+  public ConcurrentResolutionEngine(final ResolutionPolicy policy) {
+    this(Workers.newPool("small-resolver", Workers.DEFAULT_PARALLELISM), policy);
+  }
+
+  public ConcurrentResolutionEngine() {
+    this(ResolutionPolicy.FIRST_RESPONSE);
+  }
+
+  /**
+   * Returns the engine shared by every resolver of this JVM, its workers are daemon threads.
+   *
+   * @return shared engine using {@link ResolutionPolicy#FIRST_RESPONSE}.
+   */
+  public static ConcurrentResolutionEngine getShared() {
+    ConcurrentResolutionEngine engine = ConcurrentResolutionEngine.shared;
+    if (engine == null) {
+      synchronized (ConcurrentResolutionEngine.class) {
+        engine = ConcurrentResolutionEngine.shared;
+        if (engine == null) {
+          engine = new ConcurrentResolutionEngine();
+          ConcurrentResolutionEngine.shared = engine;
+        }
+      }
+    }
+    return engine;
+  }
+
+  /**
+   * Enquires the given repositories for the dependency.
+   *
+   * @param dependency dependency to resolve.
+   * @param enquirers candidate repositories, ordered by priority.
+   *
+   * @return the winning result, <code>null</code> if no repository has the dependency.
+   */
+  public ResolutionResult enquire(final Dependency dependency, final List<RepositoryEnquirer> enquirers) {
+    if (enquirers.isEmpty()) {
+      return null;
+    }
+    if (enquirers.size() == 1) {
+      return enquirers.get(0).enquire(dependency);
+    }
+    final Enquiry enquiry = new Enquiry(this.policy, enquirers.size());
+    final List<Future<?>> futures = new ArrayList<>(enquirers.size());
+    try {
+      for (int index = 0; index < enquirers.size(); index++) {
+        if (index > 0 && this.policy == ResolutionPolicy.FIRST_RESPONSE) {
+          final long delay = Math.min((long) enquirers.get(index - 1).expectedCost(), ConcurrentResolutionEngine.MAX_HEDGE_DELAY);
+          if (enquiry.awaitAnswers(index, delay)) {
+            break;
+          }
+        }
+        final int rank = index;
+        final RepositoryEnquirer enquirer = enquirers.get(index);
+        futures.add(this.executor.submit(() -> {
+          ResolutionResult result = null;
+          try {
+            result = enquirer.enquire(dependency);
+          } catch (final RuntimeException exception) {
+            ConcurrentResolutionEngine.LOGGER.debug("Enquiry of {0} failed for {1}: {2}", enquirer.repository().getUrl(), dependency.getArtifactId(), exception);
+          } finally {
+            enquiry.answer(rank, result);
+          }
+        }));
+      }
+      return enquiry.outcome.get();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (final ExecutionException exception) {
+      return null;
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private static final class Enquiry {
+
+    private final boolean[] answered;
+
+    private final CompletableFuture<ResolutionResult> outcome = new CompletableFuture<>();
+
+    private final ResolutionPolicy policy;
+
+    private final ResolutionResult[] results;
+
+    private int remaining;
+
+    private Enquiry(final ResolutionPolicy policy, final int size) {
+      this.policy = policy;
+      this.answered = new boolean[size];
+      this.results = new ResolutionResult[size];
+      this.remaining = size;
+    }
+
+    private synchronized void answer(final int rank, final ResolutionResult result) {
+      this.answered[rank] = true;
+      this.results[rank] = result;
+      this.remaining--;
+      this.notifyAll();
+      if (this.policy == ResolutionPolicy.FIRST_RESPONSE) {
+        if (result != null) {
+          this.outcome.complete(result);
+        } else if (this.remaining == 0) {
+          this.outcome.complete(null);
+        }
+        return;
+      }
+      for (int index = 0; index < this.answered.length; index++) {
+        if (!this.answered[index]) {
+          return;
+        }
+        if (this.results[index] != null) {
+          this.outcome.complete(this.results[index]);
+          return;
+        }
+      }
+      this.outcome.complete(null);
+    }
+
+    private synchronized boolean awaitAnswers(final int count, final long millis) throws InterruptedException {
+      final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+      long left = deadline - System.nanoTime();
+      while (!this.outcome.isDone() && this.answered.length - this.remaining < count && left > 0L) {
+        TimeUnit.NANOSECONDS.timedWait(this, left);
+        left = deadline - System.nanoTime();
+      }
+      return this.outcome.isDone();
+    }
+  }
+}
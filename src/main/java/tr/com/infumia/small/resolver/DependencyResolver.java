@@ -30,5 +30,13 @@ import tr.com.infumia.small.resolver.data.Dependency;
 @FunctionalInterface
 public interface DependencyResolver {
 
+  /**
+   * Forgets the resolution of a dependency whose artifact could not be fetched or verified.
+   *
+   * @param dependency the dependency.
+   */
+  default void invalidate(final Dependency dependency) {
+  }
+
   Optional<ResolutionResult> resolve(final Dependency dependency);
 }
@@ -0,0 +1,322 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.Checksums;
+import tr.com.infumia.small.util.FileLocks;
+
+/**
+ * Disk-backed store of {@link ResolutionResult}s, so a new process can skip repository round-trips for dependencies it
+ * resolved recently. Entries expire after a TTL, which is shorter for snapshots since they can move between builds.
+ * Entries are scoped by the repositories they were resolved against, so applications sharing a download root never
+ * see resolutions from repositories they did not declare.
+ * The cache is persisted as an append-only file in the download root and compacted when loaded.
+ */
+public final class ResolutionCache {
+
+  public static final String CACHE_FILE_NAME = ".small-resolutions.cache";
+
+  public static final Duration DEFAULT_RELEASE_TTL = Duration.ofDays(7L);
+
+  public static final Duration DEFAULT_SNAPSHOT_TTL = Duration.ofHours(1L);
+
+  private static final Map<Path, ResolutionCache> CACHES = new ConcurrentHashMap<>();
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final String NONE = "-";
+
+  private static final String SEPARATOR = "\t";
+
+  private final Path cacheFile;
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private final Duration releaseTtl;
+
+  private final Duration snapshotTtl;
+
+  private boolean loaded;
+
+  public ResolutionCache(final Path cacheFile, final Duration releaseTtl, final Duration snapshotTtl) {
+    this.cacheFile = cacheFile;
+    this.releaseTtl = releaseTtl;
+    this.snapshotTtl = snapshotTtl;
+  }
+
+  public ResolutionCache(final Path cacheFile) {
+    this(cacheFile, ResolutionCache.DEFAULT_RELEASE_TTL, ResolutionCache.DEFAULT_SNAPSHOT_TTL);
+  }
+
+  /**
+   * Returns the cache shared by every resolver of the given download root in this JVM.
+   *
+   * @param downloadDirectory download root the cache belongs to.
+   *
+   * @return cache of the download root.
+   */
+  public static ResolutionCache forDirectory(final Path downloadDirectory) {
+    final Path root = downloadDirectory.toAbsolutePath().normalize();
+    return ResolutionCache.CACHES.computeIfAbsent(root, path -> new ResolutionCache(path.resolve(ResolutionCache.CACHE_FILE_NAME)));
+  }
+
+  /**
+   * Computes the scope of a set of repositories, independent of their order.
+   *
+   * @param repositories repositories resolutions are made against.
+   *
+   * @return a hex encoded scope.
+   */
+  public static String scopeOf(final Collection<Repository> repositories) {
+    final StringBuilder builder = new StringBuilder();
+    repositories.stream()
+      .map(repository -> repository.getUrl().toString())
+      .sorted()
+      .forEach(url -> builder.append(url).append('\n'));
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Checksums.toHex(digest.digest(builder.toString().getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    } catch (final NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static boolean isSnapshot(final Dependency dependency) {
+    return dependency.hasSnapshotId() || dependency.getVersion().endsWith("-SNAPSHOT");
+  }
+
+  private static String key(final String scope, final Dependency dependency) {
+    return scope + '/' + dependency;
+  }
+
+  private static String orNone(final Object value) {
+    return value == null ? ResolutionCache.NONE : value.toString();
+  }
+
+  private static URL toURL(final String value) throws MalformedURLException {
+    return ResolutionCache.NONE.equals(value) ? null : new URL(value);
+  }
+
+  /**
+   * Looks up a cached resolution.
+   *
+   * @param scope scope of the repositories, see {@link #scopeOf(Collection)}.
+   * @param dependency dependency to look up.
+   *
+   * @return the cached result, or <code>null</code> if there is none or it expired.
+   */
+  public synchronized ResolutionResult get(final String scope, final Dependency dependency) {
+    this.load();
+    final String key = ResolutionCache.key(scope, dependency);
+    final Entry entry = this.entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (this.isExpired(dependency, entry)) {
+      this.entries.remove(key);
+      return null;
+    }
+    return entry.result;
+  }
+
+  /**
+   * Caches a resolution.
+   *
+   * @param scope scope of the repositories, see {@link #scopeOf(Collection)}.
+   * @param dependency resolved dependency.
+   * @param result result of the resolution.
+   */
+  public synchronized void put(final String scope, final Dependency dependency, final ResolutionResult result) {
+    this.load();
+    final String key = ResolutionCache.key(scope, dependency);
+    if (key.contains(ResolutionCache.SEPARATOR) || key.contains("\n") || key.contains("\r")) {
+      return;
+    }
+    final Entry entry = new Entry(key, System.currentTimeMillis(), result);
+    this.entries.put(key, entry);
+    this.append(entry);
+  }
+
+  /**
+   * Forgets a resolution, for instance because its artifact could not be fetched or verified.
+   *
+   * @param scope scope of the repositories, see {@link #scopeOf(Collection)}.
+   * @param dependency dependency to forget.
+   */
+  public synchronized void remove(final String scope, final Dependency dependency) {
+    this.load();
+    final String key = ResolutionCache.key(scope, dependency);
+    if (this.entries.remove(key) == null) {
+      return;
+    }
+    // An entry resolved at the epoch has expired for every TTL, so it hides older lines until the next compaction.
+    this.append(new Entry(key, 0L, new ResolutionResult(null, null, null, true)));
+  }
+
+  private void append(final Entry entry) {
+    try {
+      Files.createDirectories(this.cacheFile.getParent());
+      // Appends wait for compactions of other processes, which would otherwise replace the file they append to.
+      try (final FileLocks.Lock ignored = FileLocks.lock(this.cacheFile);
+           final Writer writer = Files.newBufferedWriter(this.cacheFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        writer.write(entry.toLine());
+      }
+    } catch (final IOException exception) {
+      ResolutionCache.LOGGER.debug("Could not cache resolution of {0}: {1}", entry.key, exception.getMessage());
+    }
+  }
+
+  /**
+   * Rewrites the cache with its live entries only. The cache is read again under its lock, so entries other processes
+   * appended since it was loaded are kept.
+   */
+  private void compact() throws IOException {
+    try (final FileLocks.Lock ignored = FileLocks.lock(this.cacheFile)) {
+      this.entries.clear();
+      this.read();
+      this.removeOutdated();
+      final StringBuilder builder = new StringBuilder();
+      for (final Entry entry : this.entries.values()) {
+        builder.append(entry.toLine());
+      }
+      AtomicFiles.write(this.cacheFile, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private boolean isExpired(final Dependency dependency, final Entry entry) {
+    final Duration ttl = ResolutionCache.isSnapshot(dependency) ? this.snapshotTtl : this.releaseTtl;
+    return System.currentTimeMillis() - entry.resolvedAt > ttl.toMillis();
+  }
+
+  private void load() {
+    if (this.loaded) {
+      return;
+    }
+    this.loaded = true;
+    final int lines;
+    try {
+      lines = this.read();
+    } catch (final IOException | RuntimeException exception) {
+      ResolutionCache.LOGGER.debug("Could not read resolution cache {0}, starting over", this.cacheFile);
+      this.entries.clear();
+      return;
+    }
+    this.removeOutdated();
+    if (lines > this.entries.size() * 2 + 16) {
+      try {
+        this.compact();
+      } catch (final IOException | RuntimeException exception) {
+        ResolutionCache.LOGGER.debug("Could not compact resolution cache {0}", this.cacheFile);
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (!Files.isRegularFile(this.cacheFile)) {
+      return 0;
+    }
+    int lines = 0;
+    try (final BufferedReader reader = Files.newBufferedReader(this.cacheFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines++;
+        final Entry entry = Entry.fromLine(line);
+        if (entry != null) {
+          this.entries.put(entry.key, entry);
+        }
+      }
+    }
+    return lines;
+  }
+
+  private void removeOutdated() {
+    final long oldest = System.currentTimeMillis() - Math.max(this.releaseTtl.toMillis(), this.snapshotTtl.toMillis());
+    this.entries.values().removeIf(entry -> entry.resolvedAt < oldest);
+  }
+
+  private static final class Entry {
+
+    private final String key;
+
+    private final long resolvedAt;
+
+    private final ResolutionResult result;
+
+    private Entry(final String key, final long resolvedAt, final ResolutionResult result) {
+      this.key = key;
+      this.resolvedAt = resolvedAt;
+      this.result = result;
+    }
+
+    private static Entry fromLine(final String line) throws MalformedURLException {
+      final String[] parts = line.split(ResolutionCache.SEPARATOR);
+      if (parts.length != 7) {
+        return null;
+      }
+      final URL repositoryUrl = ResolutionCache.toURL(parts[3]);
+      final Repository repository = repositoryUrl == null ? null : new Repository(repositoryUrl, parts[2]);
+      final ResolutionResult result = new ResolutionResult(
+        repository,
+        ResolutionCache.toURL(parts[4]),
+        ResolutionCache.toURL(parts[5]),
+        Boolean.parseBoolean(parts[6])
+      );
+      return new Entry(parts[0], Long.parseLong(parts[1]), result);
+    }
+
+    private String toLine() {
+      final Repository repository = this.result.getRepository();
+      return this.key + ResolutionCache.SEPARATOR +
+        this.resolvedAt + ResolutionCache.SEPARATOR +
+        ResolutionCache.orNone(repository == null ? null : repository.getName()) + ResolutionCache.SEPARATOR +
+        ResolutionCache.orNone(repository == null ? null : repository.getUrl()) + ResolutionCache.SEPARATOR +
+        ResolutionCache.orNone(this.result.getDependencyURL()) + ResolutionCache.SEPARATOR +
+        ResolutionCache.orNone(this.result.getChecksumURL()) + ResolutionCache.SEPARATOR +
+        this.result.isAggregator() + '\n';
+    }
+  }
+}
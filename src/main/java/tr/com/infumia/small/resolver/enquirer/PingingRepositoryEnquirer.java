@@ -27,11 +27,13 @@ package tr.com.infumia.small.resolver.enquirer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import tr.com.infumia.small.logging.LogDispatcher;
 import tr.com.infumia.small.logging.ProcessLogger;
 import tr.com.infumia.small.resolver.ResolutionResult;
 import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.resolver.pinger.PingStatus;
 import tr.com.infumia.small.resolver.pinger.URLPinger;
 import tr.com.infumia.small.resolver.strategy.PathResolutionStrategy;
 
@@ -39,6 +41,8 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
 
   private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
 
+  private final RepositoryCircuitBreaker circuitBreaker;
+
   private final PathResolutionStrategy checksumURLCreationStrategy;
 
   private final PathResolutionStrategy dependencyURLCreationStrategy;
@@ -47,18 +51,54 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
 
   private final Repository repository;
 
+  private final RepositoryStatistics statistics;
+
   private final URLPinger urlPinger;
 
-  public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+  public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger,
+                                   final RepositoryStatistics statistics, final RepositoryCircuitBreaker circuitBreaker) {
     this.repository = repository;
     this.dependencyURLCreationStrategy = urlCreationStrategy;
     this.checksumURLCreationStrategy = checksumURLCreationStrategy;
     this.pomURLCreationStrategy = pomURLCreationStrategy;
     this.urlPinger = urlPinger;
+    this.statistics = statistics;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+    this(repository, urlCreationStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, null, null);
   }
 
   @Override
   public ResolutionResult enquire(final Dependency dependency) {
+    if (this.circuitBreaker != null && !this.circuitBreaker.allow(this.repository)) {
+      PingingRepositoryEnquirer.LOGGER.debug("Circuit open for {0}, skipping {1}", this.repository.getUrl(), dependency.getArtifactId());
+      return null;
+    }
+    final long start = System.nanoTime();
+    final AtomicBoolean unreachable = new AtomicBoolean();
+    final ResolutionResult result = this.attemptEnquire(dependency, start, unreachable);
+    if (this.statistics == null) {
+      return result;
+    }
+    if (!Thread.currentThread().isInterrupted()) {
+      this.statistics.record(this.repository, System.nanoTime() - start, !unreachable.get());
+    }
+    return result;
+  }
+
+  @Override
+  public double expectedCost() {
+    return this.statistics == null ? 0.0D : this.statistics.expectedCost(this.repository);
+  }
+
+  @Override
+  public Repository repository() {
+    return this.repository;
+  }
+
+  private ResolutionResult attemptEnquire(final Dependency dependency, final long start, final AtomicBoolean unreachable) {
     PingingRepositoryEnquirer.LOGGER.debug("Enquiring repositories to find {0}", dependency.getArtifactId());
     final Optional<URL> resolvedDependency = this.dependencyURLCreationStrategy.pathTo(this.repository, dependency)
       .stream().map(path -> {
@@ -67,7 +107,7 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
         } catch (final MalformedURLException e) {
           return null;
         }
-      }).filter(this.urlPinger::ping)
+      }).filter(url -> this.probe(url, start, unreachable))
       .findFirst();
     if (!resolvedDependency.isPresent()) {
       return this.pomURLCreationStrategy.pathTo(this.repository, dependency).stream().map(path -> {
@@ -76,7 +116,7 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
           } catch (final MalformedURLException e) {
             return null;
           }
-        }).filter(this.urlPinger::ping)
+        }).filter(url -> this.probe(url, start, unreachable))
         .findFirst()
         .map(url -> new ResolutionResult(this.repository, null, null, true))
         .orElse(null);
@@ -88,13 +128,29 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
         } catch (final MalformedURLException e) {
           return null;
         }
-      }).filter(this.urlPinger::ping)
+      }).filter(url -> this.probe(url, start, unreachable))
       .findFirst();
     return new ResolutionResult(this.repository, resolvedDependency.get(), resolvedChecksum.orElse(null), false);
   }
 
-  @Override
-  public Repository repository() {
-    return this.repository;
+  private boolean probe(final URL url, final long start, final AtomicBoolean unreachable) {
+    if (this.circuitBreaker != null && this.circuitBreaker.hasOpenedSince(this.repository, start)) {
+      return false;
+    }
+    final PingStatus status = this.urlPinger.check(url);
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    if (status == PingStatus.UNREACHABLE) {
+      unreachable.set(true);
+    }
+    if (this.circuitBreaker != null) {
+      if (status == PingStatus.UNREACHABLE) {
+        this.circuitBreaker.recordFailure(this.repository);
+      } else {
+        this.circuitBreaker.recordSuccess(this.repository);
+      }
+    }
+    return status == PingStatus.FOUND;
   }
 }
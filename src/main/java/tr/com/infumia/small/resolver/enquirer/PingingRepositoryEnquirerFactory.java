@@ -30,24 +30,35 @@ import tr.com.infumia.small.resolver.strategy.PathResolutionStrategy;
 
 public final class PingingRepositoryEnquirerFactory implements RepositoryEnquirerFactory {
 
+  private final RepositoryCircuitBreaker circuitBreaker;
+
   private final PathResolutionStrategy checksumURLCreationStrategy;
 
   private final PathResolutionStrategy pathResolutionStrategy;
 
   private final PathResolutionStrategy pomURLCreationStrategy;
 
+  private final RepositoryStatistics statistics;
+
   private final URLPinger urlPinger;
 
-  public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+  public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger,
+                                          final RepositoryStatistics statistics, final RepositoryCircuitBreaker circuitBreaker) {
     this.pathResolutionStrategy = pathResolutionStrategy;
     this.checksumURLCreationStrategy = checksumURLCreationStrategy;
     this.pomURLCreationStrategy = pomURLCreationStrategy;
     this.urlPinger = urlPinger;
+    this.statistics = statistics;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+    this(pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, null, null);
   }
 
   @Override
   public RepositoryEnquirer create(final Repository repository) {
-    return new PingingRepositoryEnquirer(repository, this.pathResolutionStrategy, this.checksumURLCreationStrategy, this.pomURLCreationStrategy, this.urlPinger);
+    return new PingingRepositoryEnquirer(repository, this.pathResolutionStrategy, this.checksumURLCreationStrategy, this.pomURLCreationStrategy, this.urlPinger, this.statistics, this.circuitBreaker);
   }
 
   public PathResolutionStrategy getChecksumURLCreationStrategy() {
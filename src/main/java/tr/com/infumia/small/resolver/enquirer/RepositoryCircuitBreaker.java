@@ -0,0 +1,130 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.enquirer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.resolver.data.Repository;
+
+/**
+ * Stops enquiring repositories whose host keeps failing. After a number of consecutive unreachable pings the circuit of
+ * the repository opens and enquiries are short-circuited for a cool-down window, after which a single enquiry is let
+ * through to retest the host (half-open). A reachable answer closes the circuit again.
+ */
+public final class RepositoryCircuitBreaker {
+
+  public static final Duration DEFAULT_COOL_DOWN = Duration.ofSeconds(30L);
+
+  public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private final long coolDown;
+
+  private final int failureThreshold;
+
+  private final Map<String, State> states = new HashMap<>();
+
+  public RepositoryCircuitBreaker(final int failureThreshold, final Duration coolDown) {
+    this.failureThreshold = failureThreshold;
+    this.coolDown = coolDown.toNanos();
+  }
+
+  public RepositoryCircuitBreaker() {
+    this(RepositoryCircuitBreaker.DEFAULT_FAILURE_THRESHOLD, RepositoryCircuitBreaker.DEFAULT_COOL_DOWN);
+  }
+
+  /**
+   * Decides whether the repository may be enquired. Once the cool-down of an open circuit elapsed, the first caller
+   * is let through as the half-open trial.
+   *
+   * @param repository repository about to be enquired.
+   *
+   * @return <code>true</code> if the enquiry may proceed.
+   */
+  public synchronized boolean allow(final Repository repository) {
+    final State state = this.states.get(RepositoryCircuitBreaker.key(repository));
+    if (state == null || state.failures < this.failureThreshold) {
+      return true;
+    }
+    final long now = System.nanoTime();
+    if (now - state.openedAt < this.coolDown) {
+      return false;
+    }
+    if (state.trialStartedAt != 0L && now - state.trialStartedAt < this.coolDown) {
+      return false;
+    }
+    state.trialStartedAt = now;
+    RepositoryCircuitBreaker.LOGGER.debug("Retesting {0}", repository.getUrl());
+    return true;
+  }
+
+  /**
+   * Checks whether the circuit of the repository opened after the given instant, so an enquiry can stop probing a
+   * host that started failing while it was running.
+   *
+   * @param repository enquired repository.
+   * @param since {@link System#nanoTime()} at the start of the enquiry.
+   *
+   * @return <code>true</code> if the circuit opened since then.
+   */
+  public synchronized boolean hasOpenedSince(final Repository repository, final long since) {
+    final State state = this.states.get(RepositoryCircuitBreaker.key(repository));
+    return state != null && state.failures >= this.failureThreshold && state.openedAt - since >= 0L;
+  }
+
+  public synchronized void recordFailure(final Repository repository) {
+    final State state = this.states.computeIfAbsent(RepositoryCircuitBreaker.key(repository), key -> new State());
+    state.failures++;
+    if (state.failures >= this.failureThreshold) {
+      if (state.failures == this.failureThreshold) {
+        RepositoryCircuitBreaker.LOGGER.log("{0} is unreachable, skipping it for {1} seconds", repository.getUrl(), this.coolDown / 1_000_000_000L);
+      }
+      state.openedAt = System.nanoTime();
+      state.trialStartedAt = 0L;
+    }
+  }
+
+  public synchronized void recordSuccess(final Repository repository) {
+    this.states.remove(RepositoryCircuitBreaker.key(repository));
+  }
+
+  private static String key(final Repository repository) {
+    return repository.getUrl().toString();
+  }
+
+  private static final class State {
+
+    private int failures;
+
+    private long openedAt;
+
+    private long trialStartedAt;
+  }
+}
@@ -32,5 +32,14 @@ public interface RepositoryEnquirer {
 
   ResolutionResult enquire(final Dependency dependency);
 
+  /**
+   * Estimates how long an enquiry usually takes, used to stagger enquiries of repositories ranked below this one.
+   *
+   * @return expected cost in milliseconds, 0 if unknown.
+   */
+  default double expectedCost() {
+    return 0.0D;
+  }
+
   Repository repository();
 }
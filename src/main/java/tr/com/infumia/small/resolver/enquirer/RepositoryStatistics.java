@@ -0,0 +1,236 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.enquirer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.util.AtomicFiles;
+import tr.com.infumia.small.util.FileLocks;
+
+/**
+ * Tracks how fast each repository answers enquiries and how often it can be reached at all, as exponentially weighted
+ * moving averages. A repository answering that it does not host an artifact still counts as available, so private
+ * repositories hosting a few artifacts are not demoted. The statistics are persisted in the download root by
+ * {@link #flush()} once injection finished, so they survive restarts.
+ */
+public final class RepositoryStatistics {
+
+  public static final String STATISTICS_FILE_NAME = ".small-repositories.stats";
+
+  private static final double ALPHA = 0.3D;
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private static final double MINIMUM_AVAILABILITY = 0.05D;
+
+  private static final String SEPARATOR = "\t";
+
+  private static final Map<Path, RepositoryStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+  private boolean dirty;
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private boolean loaded;
+
+  private final Path statisticsFile;
+
+  public RepositoryStatistics(final Path statisticsFile) {
+    this.statisticsFile = statisticsFile;
+  }
+
+  /**
+   * Returns the statistics shared by every enquirer and selector of the given download root in this JVM.
+   *
+   * @param downloadDirectory download root the statistics belong to.
+   *
+   * @return statistics of the download root.
+   */
+  public static RepositoryStatistics forDirectory(final Path downloadDirectory) {
+    final Path root = downloadDirectory.toAbsolutePath().normalize();
+    return RepositoryStatistics.STATISTICS.computeIfAbsent(root, path -> new RepositoryStatistics(path.resolve(RepositoryStatistics.STATISTICS_FILE_NAME)));
+  }
+
+  /**
+   * Persists the samples recorded since the last flush of every statistics of this JVM.
+   */
+  public static void flushAll() {
+    RepositoryStatistics.STATISTICS.values().forEach(RepositoryStatistics::flush);
+  }
+
+  /**
+   * Estimates the cost of enquiring the repository: its average latency divided by its availability.
+   *
+   * @param repository repository to estimate.
+   *
+   * @return expected cost in milliseconds, 0 for repositories without samples so they get measured first.
+   */
+  public synchronized double expectedCost(final Repository repository) {
+    this.load();
+    final Entry entry = this.entries.get(repository.getUrl().toString());
+    if (entry == null) {
+      return 0.0D;
+    }
+    return entry.latency / Math.max(entry.availability, RepositoryStatistics.MINIMUM_AVAILABILITY);
+  }
+
+  /**
+   * Persists the samples recorded since the last flush.
+   */
+  public synchronized void flush() {
+    if (!this.dirty) {
+      return;
+    }
+    this.dirty = false;
+    this.save();
+  }
+
+  /**
+   * Records the outcome of an enquiry.
+   *
+   * @param repository enquired repository.
+   * @param latencyNanos time the enquiry took.
+   * @param reachable whether the repository answered, whether or not it hosts the artifact.
+   */
+  public synchronized void record(final Repository repository, final long latencyNanos, final boolean reachable) {
+    this.load();
+    final String key = repository.getUrl().toString();
+    if (key.contains(RepositoryStatistics.SEPARATOR) || key.contains("\n") || key.contains("\r")) {
+      return;
+    }
+    final double latency = latencyNanos / 1_000_000.0D;
+    final double outcome = reachable ? 1.0D : 0.0D;
+    final Entry entry = this.entries.get(key);
+    if (entry == null) {
+      final Entry created = new Entry(key, latency, outcome);
+      created.recorded = true;
+      this.entries.put(key, created);
+    } else {
+      entry.latency += RepositoryStatistics.ALPHA * (latency - entry.latency);
+      entry.availability += RepositoryStatistics.ALPHA * (outcome - entry.availability);
+      entry.recorded = true;
+    }
+    this.dirty = true;
+  }
+
+  private void load() {
+    if (this.loaded) {
+      return;
+    }
+    this.loaded = true;
+    try {
+      this.entries.putAll(this.read());
+    } catch (final IOException | RuntimeException exception) {
+      RepositoryStatistics.LOGGER.debug("Could not read repository statistics {0}, starting over", this.statisticsFile);
+    }
+  }
+
+  private Map<String, Entry> read() throws IOException {
+    final Map<String, Entry> read = new HashMap<>();
+    if (!Files.isRegularFile(this.statisticsFile)) {
+      return read;
+    }
+    try (final BufferedReader reader = Files.newBufferedReader(this.statisticsFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final Entry entry = Entry.fromLine(line);
+        if (entry != null) {
+          read.put(entry.url, entry);
+        }
+      }
+    }
+    return read;
+  }
+
+  /**
+   * Saves the repositories sampled since the last save over the statistics file. The file is read again under its
+   * lock, so repositories other processes sampled in the meantime keep their statistics.
+   */
+  private void save() {
+    try (final FileLocks.Lock ignored = FileLocks.lock(this.statisticsFile)) {
+      Map<String, Entry> merged;
+      try {
+        merged = this.read();
+      } catch (final IOException | RuntimeException exception) {
+        merged = new HashMap<>();
+      }
+      for (final Entry entry : this.entries.values()) {
+        if (entry.recorded || !merged.containsKey(entry.url)) {
+          entry.recorded = false;
+          merged.put(entry.url, entry);
+        }
+      }
+      this.entries.putAll(merged);
+      final StringBuilder builder = new StringBuilder();
+      for (final Entry entry : merged.values()) {
+        builder.append(entry.toLine());
+      }
+      AtomicFiles.write(this.statisticsFile, builder.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (final IOException exception) {
+      RepositoryStatistics.LOGGER.debug("Could not save repository statistics {0}: {1}", this.statisticsFile, exception.getMessage());
+    }
+  }
+
+  private static final class Entry {
+
+    private double availability;
+
+    private double latency;
+
+    private boolean recorded;
+
+    private final String url;
+
+    private Entry(final String url, final double latency, final double availability) {
+      this.url = url;
+      this.latency = latency;
+      this.availability = availability;
+    }
+
+    private static Entry fromLine(final String line) {
+      final String[] parts = line.split(RepositoryStatistics.SEPARATOR);
+      if (parts.length != 3) {
+        return null;
+      }
+      return new Entry(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+    }
+
+    private String toLine() {
+      return this.url + RepositoryStatistics.SEPARATOR +
+        this.latency + RepositoryStatistics.SEPARATOR +
+        this.availability + '\n';
+    }
+  }
+}
@@ -0,0 +1,256 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+/**
+ * The resolved dependency graph, one version per <code>groupId:artifactId</code>.
+ * <p>
+ * Artifacts reached through several paths appear once and conflicting versions are settled by a
+ * {@link VersionMediator}. Transitive dependencies of versions that lose mediation are dropped with them.
+ */
+public final class DependencyGraph {
+
+  private static final int MAX_ROUNDS = 16;
+
+  private final List<Dependency> artifacts;
+
+  private final Map<Dependency, Set<Dependency>> children;
+
+  private final Map<Dependency, Set<Dependency>> parents;
+
+  private final List<Dependency> roots;
+
+  private DependencyGraph(final List<Dependency> artifacts, final Map<Dependency, Set<Dependency>> children, final Map<Dependency, Set<Dependency>> parents, final List<Dependency> roots) {
+    this.artifacts = artifacts;
+    this.children = children;
+    this.parents = parents;
+    this.roots = roots;
+  }
+
+  /**
+   * Resolves the graph of a dependency tree.
+   *
+   * @param dependencies the direct dependencies.
+   * @param mediator the version mediator.
+   *
+   * @return the resolved graph.
+   */
+  public static DependencyGraph resolve(final Collection<Dependency> dependencies, final VersionMediator mediator) {
+    Map<String, Dependency> selected = Collections.emptyMap();
+    // Selecting a version may hide or reveal other versions through its transitive dependencies,
+    // mediation repeats until the selection settles. Nearest wins settles after the first round.
+    for (int round = 0; round < DependencyGraph.MAX_ROUNDS; round++) {
+      final Map<String, Dependency> next = new HashMap<>();
+      DependencyGraph.collectCandidates(dependencies, selected).forEach((key, candidates) ->
+        next.put(key, mediator.select(Collections.unmodifiableList(candidates))));
+      if (next.equals(selected)) {
+        break;
+      }
+      selected = next;
+    }
+    final List<Dependency> roots = new ArrayList<>();
+    final Map<Dependency, Set<Dependency>> children = new HashMap<>();
+    final Map<Dependency, Set<Dependency>> parents = new HashMap<>();
+    final Deque<Dependency> queue = new ArrayDeque<>();
+    for (final Dependency dependency : dependencies) {
+      final Dependency root = selected.get(DependencyGraph.key(dependency));
+      if (!roots.contains(root)) {
+        roots.add(root);
+        queue.add(root);
+      }
+    }
+    final Set<Dependency> visited = new HashSet<>(roots);
+    while (!queue.isEmpty()) {
+      final Dependency dependency = queue.poll();
+      final Set<Dependency> edges = new LinkedHashSet<>();
+      for (final Dependency transitive : DependencyGraph.transitiveOf(dependency)) {
+        final Dependency child = selected.get(DependencyGraph.key(transitive));
+        if (child == null || child.equals(dependency)) {
+          continue;
+        }
+        edges.add(child);
+        parents.computeIfAbsent(child, key -> new LinkedHashSet<>()).add(dependency);
+        if (visited.add(child)) {
+          queue.add(child);
+        }
+      }
+      children.put(dependency, edges);
+    }
+    final List<Dependency> artifacts = DependencyGraph.sort(roots, children, parents);
+    return new DependencyGraph(Collections.unmodifiableList(artifacts), children, parents, Collections.unmodifiableList(roots));
+  }
+
+  private static Map<String, List<Dependency>> collectCandidates(final Collection<Dependency> dependencies, final Map<String, Dependency> selected) {
+    final Map<String, List<Dependency>> candidates = new LinkedHashMap<>();
+    final Deque<Dependency> queue = new ArrayDeque<>(dependencies);
+    final Set<Dependency> expanded = new HashSet<>();
+    while (!queue.isEmpty()) {
+      final Dependency dependency = queue.poll();
+      final List<Dependency> versions = candidates.computeIfAbsent(DependencyGraph.key(dependency), key -> new ArrayList<>());
+      if (!versions.contains(dependency)) {
+        versions.add(dependency);
+      }
+      // Until a version is selected, the nearest one stands in for it.
+      final Dependency winner = selected.getOrDefault(DependencyGraph.key(dependency), versions.get(0));
+      if (winner.equals(dependency) && expanded.add(dependency)) {
+        queue.addAll(DependencyGraph.transitiveOf(dependency));
+      }
+    }
+    return candidates;
+  }
+
+  private static String key(final Dependency dependency) {
+    return dependency.getGroupId() + ':' + dependency.getArtifactId();
+  }
+
+  private static List<Dependency> sort(final List<Dependency> roots, final Map<Dependency, Set<Dependency>> children, final Map<Dependency, Set<Dependency>> parents) {
+    // Dependencies come after all of their dependants, ties keep the depth-first declaration order.
+    final Map<Dependency, Integer> order = new HashMap<>();
+    final Deque<Dependency> stack = new ArrayDeque<>();
+    for (int index = roots.size() - 1; index >= 0; index--) {
+      stack.push(roots.get(index));
+    }
+    while (!stack.isEmpty()) {
+      final Dependency dependency = stack.pop();
+      if (order.putIfAbsent(dependency, order.size()) != null) {
+        continue;
+      }
+      final List<Dependency> edges = new ArrayList<>(children.get(dependency));
+      for (int index = edges.size() - 1; index >= 0; index--) {
+        stack.push(edges.get(index));
+      }
+    }
+    final Map<Dependency, Integer> pending = new HashMap<>();
+    final PriorityQueue<Dependency> ready = new PriorityQueue<>(Comparator.comparing(order::get));
+    final Set<Dependency> remaining = new HashSet<>(order.keySet());
+    for (final Dependency dependency : order.keySet()) {
+      final int count = parents.getOrDefault(dependency, Collections.emptySet()).size();
+      pending.put(dependency, count);
+      if (count == 0) {
+        ready.add(dependency);
+      }
+    }
+    final List<Dependency> sorted = new ArrayList<>(order.size());
+    while (!remaining.isEmpty()) {
+      if (ready.isEmpty()) {
+        // A dependency cycle, it is broken at its earliest declared member.
+        ready.add(Collections.min(remaining, Comparator.comparing(order::get)));
+      }
+      final Dependency dependency = ready.poll();
+      if (!remaining.remove(dependency)) {
+        continue;
+      }
+      sorted.add(dependency);
+      for (final Dependency child : children.get(dependency)) {
+        if (pending.merge(child, -1, Integer::sum) == 0 && remaining.contains(child)) {
+          ready.add(child);
+        }
+      }
+    }
+    return sorted;
+  }
+
+  private static Collection<Dependency> transitiveOf(final Dependency dependency) {
+    final Collection<Dependency> transitive = dependency.getTransitive();
+    return transitive == null ? Collections.emptyList() : transitive;
+  }
+
+  /**
+   * Obtains the artifacts, every dependency after all of its dependants.
+   *
+   * @return the artifacts.
+   */
+  public List<Dependency> getArtifacts() {
+    return this.artifacts;
+  }
+
+  /**
+   * Obtains the resolved dependencies of an artifact.
+   *
+   * @param dependency the artifact.
+   *
+   * @return the dependencies.
+   */
+  public Collection<Dependency> getChildren(final Dependency dependency) {
+    return Collections.unmodifiableCollection(this.children.getOrDefault(dependency, Collections.emptySet()));
+  }
+
+  /**
+   * Obtains the resolved dependants of an artifact.
+   *
+   * @param dependency the artifact.
+   *
+   * @return the dependants, empty for roots.
+   */
+  public Collection<Dependency> getParents(final Dependency dependency) {
+    return Collections.unmodifiableCollection(this.parents.getOrDefault(dependency, Collections.emptySet()));
+  }
+
+  /**
+   * Obtains the resolved direct dependencies.
+   *
+   * @return the roots.
+   */
+  public List<Dependency> getRoots() {
+    return this.roots;
+  }
+
+  /**
+   * Checks whether an artifact is a root or a dependency of one of the given artifacts.
+   *
+   * @param dependency the artifact.
+   * @param through the artifacts to reach it through.
+   *
+   * @return <code>true</code> if the artifact is reachable.
+   */
+  public boolean isReachable(final Dependency dependency, final Collection<Dependency> through) {
+    if (this.roots.contains(dependency)) {
+      return true;
+    }
+    for (final Dependency parent : this.getParents(dependency)) {
+      if (through.contains(parent)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
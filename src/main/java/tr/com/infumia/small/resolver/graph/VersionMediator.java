@@ -0,0 +1,64 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.graph;
+
+import java.util.List;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+/**
+ * Picks the version of an artifact the dependency tree asks for in several versions.
+ */
+public interface VersionMediator {
+
+  /**
+   * The highest version wins, as in Gradle.
+   */
+  VersionMediator HIGHEST = StandardVersionMediator.HIGHEST;
+
+  /**
+   * The declaration closest to the root wins, the first one on equal depth, as in Maven.
+   */
+  VersionMediator NEAREST = StandardVersionMediator.NEAREST;
+
+  /**
+   * Identifies the selections of this mediator across restarts. Mediators reporting the same id must select the same
+   * candidates, which allows a launch plan made with one of them to be reused.
+   *
+   * @return the id, or {@code null} if launches mediated by it must not be planned.
+   */
+  default String getId() {
+    return null;
+  }
+
+  /**
+   * Selects the version to use.
+   *
+   * @param candidates every version of the artifact, nearest declaration first.
+   *
+   * @return one of the candidates.
+   */
+  Dependency select(final List<Dependency> candidates);
+}
@@ -0,0 +1,160 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares Maven versions. Versions are split into numbers and qualifiers on separators and digit/letter transitions,
+ * numbers compare numerically and known qualifiers by maturity, so <code>1.10 &gt; 1.9</code> and
+ * <code>1.0 &gt; 1.0-rc1 &gt; 1.0-beta</code>.
+ */
+final class Versions {
+
+  private static final List<String> QUALIFIERS = Arrays.asList("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+
+  private static final int RELEASE = Versions.QUALIFIERS.indexOf("");
+
+  private Versions() {
+  }
+
+  static int compare(final String first, final String second) {
+    final List<String> firstItems = Versions.split(first);
+    final List<String> secondItems = Versions.split(second);
+    final int size = Math.max(firstItems.size(), secondItems.size());
+    for (int index = 0; index < size; index++) {
+      final String firstItem = index < firstItems.size() ? firstItems.get(index) : null;
+      final String secondItem = index < secondItems.size() ? secondItems.get(index) : null;
+      final int result = Versions.compareItems(firstItem, secondItem);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private static int compareItems(final String first, final String second) {
+    // Missing items count as 0 against numbers and as a release against qualifiers.
+    final String left = first != null ? first : Versions.isNumber(second) ? "0" : "";
+    final String right = second != null ? second : Versions.isNumber(first) ? "0" : "";
+    final boolean leftNumber = Versions.isNumber(left);
+    final boolean rightNumber = Versions.isNumber(right);
+    if (leftNumber && rightNumber) {
+      final String leftDigits = Versions.stripZeros(left);
+      final String rightDigits = Versions.stripZeros(right);
+      if (leftDigits.length() != rightDigits.length()) {
+        return Integer.compare(leftDigits.length(), rightDigits.length());
+      }
+      return leftDigits.compareTo(rightDigits);
+    }
+    if (leftNumber != rightNumber) {
+      return leftNumber ? 1 : -1;
+    }
+    final int leftRank = Versions.rank(left);
+    final int rightRank = Versions.rank(right);
+    if (leftRank != rightRank) {
+      return Integer.compare(leftRank, rightRank);
+    }
+    return left.compareTo(right);
+  }
+
+  private static boolean isNumber(final String item) {
+    return item != null && !item.isEmpty() && Character.isDigit(item.charAt(0));
+  }
+
+  private static boolean isNull(final String item) {
+    if (Versions.isNumber(item)) {
+      return Versions.stripZeros(item).isEmpty();
+    }
+    return Versions.rank(item) == Versions.RELEASE;
+  }
+
+  /**
+   * Replaces the aliases of known qualifiers with their name, so <code>1.0-a</code> equals <code>1.0-alpha</code>.
+   */
+  private static String normalize(final String item) {
+    switch (item) {
+      case "a":
+        return "alpha";
+      case "b":
+        return "beta";
+      case "m":
+        return "milestone";
+      case "cr":
+        return "rc";
+      case "ga":
+      case "final":
+      case "release":
+        return "";
+      default:
+        return item;
+    }
+  }
+
+  private static int rank(final String qualifier) {
+    final int index = Versions.QUALIFIERS.indexOf(qualifier);
+    // Unknown qualifiers sort after every known one.
+    return index < 0 ? Versions.QUALIFIERS.size() : index;
+  }
+
+  private static List<String> split(final String version) {
+    final List<String> items = new ArrayList<>();
+    final StringBuilder item = new StringBuilder();
+    for (final char character : version.toLowerCase(Locale.ENGLISH).toCharArray()) {
+      final boolean separator = character == '.' || character == '-' || character == '_';
+      final boolean transition = item.length() > 0 && Character.isDigit(character) != Character.isDigit(item.charAt(item.length() - 1));
+      if (separator || transition) {
+        if (item.length() > 0) {
+          items.add(Versions.normalize(item.toString()));
+          item.setLength(0);
+        }
+        if (separator) {
+          continue;
+        }
+      }
+      item.append(character);
+    }
+    if (item.length() > 0) {
+      items.add(Versions.normalize(item.toString()));
+    }
+    // Trailing zeros and release qualifiers do not change a version, 1.0 equals 1 and 1.0.0-final.
+    while (!items.isEmpty() && Versions.isNull(items.get(items.size() - 1))) {
+      items.remove(items.size() - 1);
+    }
+    return items;
+  }
+
+  private static String stripZeros(final String item) {
+    int start = 0;
+    while (start < item.length() && item.charAt(start) == '0') {
+      start++;
+    }
+    return item.substring(start);
+  }
+}
@@ -0,0 +1,66 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.mirrors;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import tr.com.infumia.small.resolver.data.Mirror;
+import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.resolver.enquirer.RepositoryStatistics;
+
+/**
+ * Orders the repositories chosen by another selector by their expected enquiry cost, cheapest first.
+ * Repositories with equal cost keep the order the delegate returned them in.
+ * <p>
+ * Under {@link tr.com.infumia.small.resolver.ResolutionPolicy#FIRST_RESPONSE} the order decides which repositories are
+ * enquired first. Under {@link tr.com.infumia.small.resolver.ResolutionPolicy#PRIORITY} it decides which answer wins and
+ * so replaces the declared order, use the delegate alone when the declared order must be kept.
+ */
+public final class RankingMirrorSelector implements MirrorSelector {
+
+  private final MirrorSelector delegate;
+
+  private final RepositoryStatistics statistics;
+
+  public RankingMirrorSelector(final MirrorSelector delegate, final RepositoryStatistics statistics) {
+    this.delegate = delegate;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public Collection<Repository> select(final Collection<Repository> mainRepositories, final Collection<Mirror> mirrors) throws MalformedURLException {
+    final List<Repository> ranked = new ArrayList<>(this.delegate.select(mainRepositories, mirrors));
+    final Map<Repository, Double> costs = new HashMap<>();
+    ranked.forEach(repository -> costs.put(repository, this.statistics.expectedCost(repository)));
+    ranked.sort(Comparator.comparingDouble(costs::get));
+    return ranked;
+  }
+}
@@ -28,6 +28,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 import tr.com.infumia.small.resolver.data.Mirror;
 import tr.com.infumia.small.resolver.data.Repository;
@@ -61,11 +62,11 @@ public final class SimpleMirrorSelector implements MirrorSelector {
     final Collection<Repository> resolved = mainRepositories.stream()
       .filter(repo -> !originals.contains(repo.getUrl()))
       .filter(repo -> !SimpleMirrorSelector.isCentral(repo))
-      .collect(Collectors.toSet());
+      .collect(Collectors.toCollection(LinkedHashSet::new));
     final Collection<Repository> mirrored = mirrors.stream()
       .map(Mirror::getMirroring)
       .map(Repository::new)
-      .collect(Collectors.toSet());
+      .collect(Collectors.toList());
     resolved.addAll(mirrored);
     resolved.addAll(this.centralMirrors);
     return resolved;
@@ -0,0 +1,90 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.pinger;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+
+/**
+ * Checks <code>file:</code> URLs on disk, such as those of a local Maven repository, and hands every other URL to a
+ * delegate pinger.
+ */
+public final class FileURLPinger implements URLPinger {
+
+  private static final String FILE_PROTOCOL = "file";
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private final URLPinger delegate;
+
+  public FileURLPinger(final URLPinger delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Converts a <code>file:</code> URL to the path it points to.
+   *
+   * @param url URL to convert.
+   *
+   * @return the path, <code>null</code> if the URL is not a valid <code>file:</code> URL.
+   */
+  public static Path toPath(final URL url) {
+    if (!FileURLPinger.FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+      return null;
+    }
+    try {
+      return Paths.get(url.toURI());
+    } catch (final URISyntaxException | IllegalArgumentException exception) {
+      return null;
+    }
+  }
+
+  @Override
+  public PingStatus check(final URL url) {
+    final Path path = FileURLPinger.toPath(url);
+    if (path == null) {
+      return this.delegate.check(url);
+    }
+    final boolean found = Files.isRegularFile(path);
+    FileURLPinger.LOGGER.debug("{0} {1}", path, found ? "exists" : "does not exist");
+    return found ? PingStatus.FOUND : PingStatus.MISSING;
+  }
+
+  @Override
+  public boolean isSupported(final URL url) {
+    return FileURLPinger.toPath(url) != null || this.delegate.isSupported(url);
+  }
+
+  @Override
+  public boolean ping(final URL url) {
+    return this.check(url) == PingStatus.FOUND;
+  }
+}
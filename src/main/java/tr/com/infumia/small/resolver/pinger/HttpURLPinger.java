@@ -29,48 +29,89 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import tr.com.infumia.small.logging.LogDispatcher;
 import tr.com.infumia.small.logging.ProcessLogger;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.Transport;
+import tr.com.infumia.small.transport.TransportResponse;
 
+/**
+ * Probes resources with HEAD requests, so existence checks never stream artifact bodies.
+ * Repositories that reject HEAD are remembered and probed with a single-byte ranged GET instead.
+ * Whatever the repository reports (length, ETag) is kept by the {@link Transport} for the later download.
+ */
 public final class HttpURLPinger implements URLPinger {
 
   private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
 
-  private static final String SMALL_USER_AGENT = "SmallApplication/* URL Validation Ping";
+  private static final Map<String, String> PROBE_RANGE = Collections.singletonMap("Range", "bytes=0-0");
 
   private static final Collection<String> SUPPORTED_PROTOCOLS = Arrays.asList("HTTP", "HTTPS");
 
-  @Override
-  public boolean isSupported(final URL url) {
-    final String protocol = url.getProtocol().toUpperCase(Locale.ENGLISH);
-    return HttpURLPinger.SUPPORTED_PROTOCOLS.contains(protocol);
+  private final Set<String> headRejectingHosts = ConcurrentHashMap.newKeySet();
+
+  private final Transport transport;
+
+  public HttpURLPinger(final Transport transport) {
+    this.transport = transport;
+  }
+
+  public HttpURLPinger() {
+    this(HttpClientTransport.getShared());
   }
 
   @Override
-  public boolean ping(final URL url) {
+  public PingStatus check(final URL url) {
     final String urlStr = url.toString();
     HttpURLPinger.LOGGER.debug("Pinging {0}", urlStr);
     if (!this.isSupported(url)) {
       HttpURLPinger.LOGGER.debug("Protocol not supported for {0}", url.toString());
-      return false;
+      return PingStatus.MISSING;
     }
-    HttpURLConnection connection = null;
     try {
-      connection = (HttpURLConnection) url.openConnection();
-      connection.setConnectTimeout(1000 * 5);
-      connection.addRequestProperty("User-Agent", HttpURLPinger.SMALL_USER_AGENT);
-      connection.connect();
-      final boolean result = connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+      final int statusCode = this.probe(url);
+      final boolean result = statusCode == HttpURLConnection.HTTP_OK || statusCode == HttpURLConnection.HTTP_PARTIAL;
       HttpURLPinger.LOGGER.debug("Ping {1} for {0}", url.toString(), result ? "successful" : "failed");
-      return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+      if (result) {
+        return PingStatus.FOUND;
+      }
+      return statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR ? PingStatus.UNREACHABLE : PingStatus.MISSING;
     } catch (final IOException e) {
       HttpURLPinger.LOGGER.debug("Ping failed for {0}", url.toString());
-      return false;
-    } finally {
-      if (connection != null) {
-        connection.disconnect();
+      return PingStatus.UNREACHABLE;
+    }
+  }
+
+  @Override
+  public boolean isSupported(final URL url) {
+    final String protocol = url.getProtocol().toUpperCase(Locale.ENGLISH);
+    return HttpURLPinger.SUPPORTED_PROTOCOLS.contains(protocol) && this.transport.isSupported(url);
+  }
+
+  @Override
+  public boolean ping(final URL url) {
+    return this.check(url) == PingStatus.FOUND;
+  }
+
+  private int probe(final URL url) throws IOException {
+    final String host = url.getProtocol() + "://" + url.getAuthority();
+    if (!this.headRejectingHosts.contains(host)) {
+      try (final TransportResponse response = this.transport.head(url)) {
+        final int statusCode = response.getStatusCode();
+        if (statusCode != HttpURLConnection.HTTP_BAD_METHOD && statusCode != HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+          return statusCode;
+        }
       }
+      HttpURLPinger.LOGGER.debug("{0} rejects HEAD requests, probing with ranged GET", host);
+      this.headRejectingHosts.add(host);
+    }
+    try (final TransportResponse response = this.transport.get(url, HttpURLPinger.PROBE_RANGE)) {
+      return response.getStatusCode();
     }
   }
 }
@@ -28,6 +28,17 @@ import java.net.URL;
 
 public interface URLPinger {
 
+  /**
+   * Pings the URL and reports whether a failure was caused by the resource or by the host.
+   *
+   * @param url URL to ping.
+   *
+   * @return outcome of the ping.
+   */
+  default PingStatus check(final URL url) {
+    return this.ping(url) ? PingStatus.FOUND : PingStatus.MISSING;
+  }
+
   boolean isSupported(final URL url);
 
   boolean ping(final URL url);
@@ -0,0 +1,83 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.reader.dependency;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.resolver.data.DependencyData;
+import tr.com.infumia.small.resolver.data.Mirror;
+import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.resolver.reader.json.JsonParser;
+import tr.com.infumia.small.resolver.reader.json.JsonValues;
+
+/**
+ * Reads small.json with the built-in {@link JsonParser}, so no Gson has to be downloaded or loaded first.
+ */
+public final class NativeDependencyReader implements DependencyReader {
+
+  private static Dependency readDependency(final Object value) throws IOException {
+    final Map<String, Object> object = JsonValues.object(value);
+    final Collection<Dependency> transitive = new ArrayList<>();
+    for (final Object child : JsonValues.array(object, "transitive")) {
+      transitive.add(NativeDependencyReader.readDependency(child));
+    }
+    return new Dependency(
+      JsonValues.string(object, "groupId"),
+      JsonValues.string(object, "artifactId"),
+      JsonValues.string(object, "version"),
+      JsonValues.string(object, "snapshotId"),
+      transitive
+    );
+  }
+
+  @Override
+  public DependencyData read(final InputStream inputStream) throws IOException {
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    final Map<String, Object> root = JsonValues.object(JsonParser.parse(reader));
+    final Collection<Mirror> mirrors = new ArrayList<>();
+    for (final Object value : JsonValues.array(root, "mirrors")) {
+      final Map<String, Object> object = JsonValues.object(value);
+      mirrors.add(new Mirror(JsonValues.url(object, "mirroring"), JsonValues.url(object, "original")));
+    }
+    final Collection<Repository> repositories = new ArrayList<>();
+    for (final Object value : JsonValues.array(root, "repositories")) {
+      final Map<String, Object> object = JsonValues.object(value);
+      repositories.add(new Repository(JsonValues.url(object, "url"), JsonValues.string(object, "name")));
+    }
+    final Collection<Dependency> dependencies = new ArrayList<>();
+    for (final Object value : JsonValues.array(root, "dependencies")) {
+      dependencies.add(NativeDependencyReader.readDependency(value));
+    }
+    return new DependencyData(mirrors, repositories, dependencies);
+  }
+}
@@ -25,21 +25,25 @@
 package tr.com.infumia.small.resolver.reader.facade;
 
 import java.io.InputStreamReader;
-import java.lang.reflect.Method;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 
 public final class ReflectiveGsonFacade implements GsonFacade {
 
-  private final Method canonicalizeMethod;
+  private final MethodHandle canonicalizeMethod;
 
-  private final Object gson;
+  private final MethodHandle gsonFromJsonMethod;
 
-  private final Method gsonFromJsonMethod;
+  private final MethodHandle gsonFromJsonTypeMethod;
 
-  private final Method gsonFromJsonTypeMethod;
-
-  ReflectiveGsonFacade(final Object gson, final Method gsonFromJsonMethod, final Method gsonFromJsonTypeMethod, final Method canonicalizeMethod) {
-    this.gson = gson;
+  /**
+   * @param gsonFromJsonMethod <code>(Reader, Class)Object</code>, bound to a Gson instance.
+   * @param gsonFromJsonTypeMethod <code>(Reader, Type)Object</code>, bound to a Gson instance.
+   * @param canonicalizeMethod <code>(Type)Type</code>.
+   */
+  ReflectiveGsonFacade(final MethodHandle gsonFromJsonMethod, final MethodHandle gsonFromJsonTypeMethod, final MethodHandle canonicalizeMethod) {
     this.gsonFromJsonMethod = gsonFromJsonMethod;
     this.gsonFromJsonTypeMethod = gsonFromJsonTypeMethod;
     this.canonicalizeMethod = canonicalizeMethod;
@@ -47,7 +51,12 @@ public final class ReflectiveGsonFacade implements GsonFacade {
 
   @Override
   public <T> T fromJson(final InputStreamReader reader, final Class<T> clazz) throws ReflectiveOperationException {
-    final Object result = this.gsonFromJsonMethod.invoke(this.gson, reader, clazz);
+    final Object result;
+    try {
+      result = (Object) this.gsonFromJsonMethod.invokeExact((Reader) reader, (Class<?>) clazz);
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
     if (clazz.isAssignableFrom(result.getClass())) {
       return (T) result;
     } else {
@@ -57,8 +66,11 @@ public final class ReflectiveGsonFacade implements GsonFacade {
 
   @Override
   public <T> T fromJson(final InputStreamReader reader, final Type rawType) throws ReflectiveOperationException {
-    final Object canonicalizedType = this.canonicalizeMethod.invoke(null, rawType);
-    final Object result = this.gsonFromJsonTypeMethod.invoke(this.gson, reader, canonicalizedType);
-    return (T) result;
+    try {
+      final Type canonicalizedType = (Type) this.canonicalizeMethod.invokeExact(rawType);
+      return (T) (Object) this.gsonFromJsonTypeMethod.invokeExact((Reader) reader, canonicalizedType);
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
   }
 }
@@ -26,8 +26,10 @@ package tr.com.infumia.small.resolver.reader.facade;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
@@ -35,7 +37,6 @@ import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import tr.com.infumia.small.app.builder.ApplicationBuilder;
 import tr.com.infumia.small.injector.loader.InjectableClassLoader;
 import tr.com.infumia.small.injector.loader.IsolatedInjectableClassLoader;
@@ -43,69 +44,98 @@ import tr.com.infumia.small.relocation.PassthroughRelocator;
 import tr.com.infumia.small.resolver.data.Dependency;
 import tr.com.infumia.small.resolver.data.DependencyData;
 import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.util.FacadeRegistry;
 import tr.com.infumia.small.util.Packages;
 
 public final class ReflectiveGsonFacadeFactory implements GsonFacadeFactory {
 
+  private static final Dependency GSON_DEPENDENCY = new Dependency(
+    Packages.fix("com#google#code#gson"),
+    "gson",
+    "2.9.0",
+    null,
+    Collections.emptySet()
+  );
+
   private static final String GSON_PACKAGE = "com#google#gson#Gson";
 
   private static final String GSON_TYPES_PACKAGE = "com#google#gson#internal#$Gson$Types";
 
-  private final Method canonicalizeMethod;
+  private final MethodHandle canonicalizeMethod;
 
-  private final Constructor<?> gsonConstructor;
+  private final MethodHandle gsonConstructor;
 
-  private final Method gsonFromJsonMethod;
+  private final MethodHandle gsonFromJsonMethod;
 
-  private final Method gsonFromJsonTypeMethod;
+  private final MethodHandle gsonFromJsonTypeMethod;
 
-  private ReflectiveGsonFacadeFactory(final Constructor<?> gsonConstructor, final Method gsonFromJsonMethod, final Method gsonFromJsonTypeMethod, final Method canonicalizeMethod) {
+  private ReflectiveGsonFacadeFactory(final MethodHandle gsonConstructor, final MethodHandle gsonFromJsonMethod, final MethodHandle gsonFromJsonTypeMethod, final MethodHandle canonicalizeMethod) {
     this.gsonConstructor = gsonConstructor;
     this.gsonFromJsonMethod = gsonFromJsonMethod;
     this.gsonFromJsonTypeMethod = gsonFromJsonTypeMethod;
     this.canonicalizeMethod = canonicalizeMethod;
   }
 
+  /**
+   * Bootstraps Gson into an isolated class loader, once per JVM and download root.
+   *
+   * @param downloadPath download root to store Gson in.
+   * @param repositories repositories to download Gson from.
+   * @param offline whether the bootstrap may reach the network.
+   *
+   * @return the shared factory.
+   */
+  public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+    return FacadeRegistry.get(ReflectiveGsonFacadeFactory.GSON_DEPENDENCY, downloadPath, () ->
+      ReflectiveGsonFacadeFactory.create(downloadPath, repositories, new IsolatedInjectableClassLoader(), offline));
+  }
+
   public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
-    final InjectableClassLoader classLoader = new IsolatedInjectableClassLoader();
-    return ReflectiveGsonFacadeFactory.create(downloadPath, repositories, classLoader);
+    return ReflectiveGsonFacadeFactory.create(downloadPath, repositories, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
   }
 
   public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+    return ReflectiveGsonFacadeFactory.create(downloadPath, repositories, classLoader, Boolean.getBoolean(ApplicationBuilder.OFFLINE_PROPERTY));
+  }
+
+  public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader, final boolean offline) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
     ApplicationBuilder.injecting("Small", classLoader)
       .downloadDirectoryPath(downloadPath)
+      .offline(offline)
       .dataProviderFactory(url -> () -> ReflectiveGsonFacadeFactory.getGsonDependency(repositories))
       .relocatorFactory(rules -> new PassthroughRelocator())
       .preResolutionDataProviderFactory(a -> Collections::emptyMap)
       .relocationHelperFactory(relocator -> (dependency, file) -> file)
       .build();
     final Class<?> gsonClass = Class.forName(Packages.fix(ReflectiveGsonFacadeFactory.GSON_PACKAGE), true, classLoader);
-    final Constructor<?> gsonConstructor = gsonClass.getConstructor();
-    final Method gsonFromJsonMethod = gsonClass.getMethod("fromJson", Reader.class, Class.class);
-    final Method gsonFromJsonTypeMethod = gsonClass.getMethod("fromJson", Reader.class, Type.class);
     final Class<?> gsonTypesClass = Class.forName(Packages.fix(ReflectiveGsonFacadeFactory.GSON_TYPES_PACKAGE), true, classLoader);
-    final Method canonicalizeMethod = gsonTypesClass.getMethod("canonicalize", Type.class);
+    final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    final MethodHandle gsonConstructor = lookup.findConstructor(gsonClass, MethodType.methodType(void.class))
+      .asType(MethodType.methodType(Object.class));
+    final MethodHandle gsonFromJsonMethod = lookup.findVirtual(gsonClass, "fromJson", MethodType.methodType(Object.class, Reader.class, Class.class))
+      .asType(MethodType.methodType(Object.class, Object.class, Reader.class, Class.class));
+    final MethodHandle gsonFromJsonTypeMethod = lookup.findVirtual(gsonClass, "fromJson", MethodType.methodType(Object.class, Reader.class, Type.class))
+      .asType(MethodType.methodType(Object.class, Object.class, Reader.class, Type.class));
+    final MethodHandle canonicalizeMethod = lookup.findStatic(gsonTypesClass, "canonicalize", MethodType.methodType(Type.class, Type.class));
     return new ReflectiveGsonFacadeFactory(gsonConstructor, gsonFromJsonMethod, gsonFromJsonTypeMethod, canonicalizeMethod);
   }
 
   private static DependencyData getGsonDependency(final Collection<Repository> repositories) throws MalformedURLException {
-    final Dependency gson = new Dependency(
-      Packages.fix("com#google#code#gson"),
-      "gson",
-      "2.9.0",
-      null,
-      new HashSet<>()
-    );
     return new DependencyData(
       Collections.emptySet(),
       repositories,
-      Collections.singleton(gson)
+      Collections.singleton(ReflectiveGsonFacadeFactory.GSON_DEPENDENCY)
     );
   }
 
   @Override
   public GsonFacade createFacade() throws ReflectiveOperationException {
-    final Object gson = this.gsonConstructor.newInstance();
-    return new ReflectiveGsonFacade(gson, this.gsonFromJsonMethod, this.gsonFromJsonTypeMethod, this.canonicalizeMethod);
+    final Object gson;
+    try {
+      gson = (Object) this.gsonConstructor.invokeExact();
+    } catch (final Throwable throwable) {
+      throw new InvocationTargetException(throwable);
+    }
+    return new ReflectiveGsonFacade(this.gsonFromJsonMethod.bindTo(gson), this.gsonFromJsonTypeMethod.bindTo(gson), this.canonicalizeMethod);
   }
 }
@@ -0,0 +1,252 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.reader.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal single-pass JSON parser, enough to read small.json and small-resolutions.json without bootstrapping Gson.
+ * Objects become {@link Map}s, arrays {@link List}s, numbers {@link Long}s or {@link Double}s.
+ */
+public final class JsonParser {
+
+  private final Reader reader;
+
+  private int peeked = -2;
+
+  private long position;
+
+  private JsonParser(final Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Parses a single JSON value that spans the whole input.
+   *
+   * @param reader input to parse, it is not closed.
+   *
+   * @return parsed value.
+   *
+   * @throws IOException on read failure or malformed input.
+   */
+  public static Object parse(final Reader reader) throws IOException {
+    final JsonParser parser = new JsonParser(reader);
+    final Object value = parser.readValue();
+    if (parser.skipWhitespace() != -1) {
+      throw parser.syntaxError("Unexpected data after the JSON value");
+    }
+    return value;
+  }
+
+  private void expect(final String literal) throws IOException {
+    for (int index = 0; index < literal.length(); index++) {
+      if (this.read() != literal.charAt(index)) {
+        throw this.syntaxError("Expected '" + literal + "'");
+      }
+    }
+  }
+
+  private int peek() throws IOException {
+    if (this.peeked == -2) {
+      this.peeked = this.reader.read();
+    }
+    return this.peeked;
+  }
+
+  private int read() throws IOException {
+    final int next = this.peek();
+    this.peeked = -2;
+    this.position++;
+    return next;
+  }
+
+  private List<Object> readArray() throws IOException {
+    this.read();
+    final List<Object> array = new ArrayList<>();
+    if (this.skipWhitespace() == ']') {
+      this.read();
+      return array;
+    }
+    while (true) {
+      array.add(this.readValue());
+      final int next = this.skipWhitespace();
+      this.read();
+      if (next == ']') {
+        return array;
+      }
+      if (next != ',') {
+        throw this.syntaxError("Expected ',' or ']'");
+      }
+    }
+  }
+
+  private Number readNumber() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    boolean decimal = false;
+    while (true) {
+      final int next = this.peek();
+      if (next >= '0' && next <= '9' || next == '-' || next == '+') {
+        builder.append((char) this.read());
+      } else if (next == '.' || next == 'e' || next == 'E') {
+        decimal = true;
+        builder.append((char) this.read());
+      } else {
+        break;
+      }
+    }
+    try {
+      return decimal ? (Number) Double.parseDouble(builder.toString()) : (Number) Long.parseLong(builder.toString());
+    } catch (final NumberFormatException exception) {
+      throw this.syntaxError("Invalid number '" + builder + "'");
+    }
+  }
+
+  private Map<String, Object> readObject() throws IOException {
+    this.read();
+    final Map<String, Object> object = new LinkedHashMap<>();
+    if (this.skipWhitespace() == '}') {
+      this.read();
+      return object;
+    }
+    while (true) {
+      if (this.skipWhitespace() != '"') {
+        throw this.syntaxError("Expected a member name");
+      }
+      final String name = this.readString();
+      if (this.skipWhitespace() != ':') {
+        throw this.syntaxError("Expected ':'");
+      }
+      this.read();
+      object.put(name, this.readValue());
+      final int next = this.skipWhitespace();
+      this.read();
+      if (next == '}') {
+        return object;
+      }
+      if (next != ',') {
+        throw this.syntaxError("Expected ',' or '}'");
+      }
+    }
+  }
+
+  private String readString() throws IOException {
+    this.read();
+    final StringBuilder builder = new StringBuilder();
+    while (true) {
+      final int next = this.read();
+      if (next == -1) {
+        throw this.syntaxError("Unterminated string");
+      }
+      if (next == '"') {
+        return builder.toString();
+      }
+      if (next != '\\') {
+        builder.append((char) next);
+        continue;
+      }
+      final int escaped = this.read();
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          builder.append((char) escaped);
+          break;
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          final char[] hex = new char[4];
+          for (int index = 0; index < hex.length; index++) {
+            hex[index] = (char) this.read();
+          }
+          try {
+            builder.append((char) Integer.parseInt(new String(hex), 16));
+          } catch (final NumberFormatException exception) {
+            throw this.syntaxError("Invalid unicode escape");
+          }
+          break;
+        default:
+          throw this.syntaxError("Invalid escape sequence");
+      }
+    }
+  }
+
+  private Object readValue() throws IOException {
+    final int next = this.skipWhitespace();
+    switch (next) {
+      case '{':
+        return this.readObject();
+      case '[':
+        return this.readArray();
+      case '"':
+        return this.readString();
+      case 't':
+        this.expect("true");
+        return Boolean.TRUE;
+      case 'f':
+        this.expect("false");
+        return Boolean.FALSE;
+      case 'n':
+        this.expect("null");
+        return null;
+      default:
+        if (next == '-' || next >= '0' && next <= '9') {
+          return this.readNumber();
+        }
+        throw this.syntaxError(next == -1 ? "Unexpected end of input" : "Unexpected character '" + (char) next + "'");
+    }
+  }
+
+  private int skipWhitespace() throws IOException {
+    int next = this.peek();
+    while (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+      this.read();
+      next = this.peek();
+    }
+    return next;
+  }
+
+  private IOException syntaxError(final String message) {
+    return new IOException(message + " at position " + this.position);
+  }
+}
@@ -0,0 +1,100 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.reader.json;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed accessors over the tree produced by {@link JsonParser}. Absent or <code>null</code> members read as
+ * <code>null</code>, or as an empty list for arrays.
+ */
+public final class JsonValues {
+
+  private JsonValues() {
+  }
+
+  public static List<Object> array(final Map<String, Object> object, final String name) throws IOException {
+    final Object value = object.get(name);
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    if (!(value instanceof List)) {
+      throw new IOException("Expected '" + name + "' to be an array");
+    }
+    return (List<Object>) value;
+  }
+
+  public static boolean bool(final Map<String, Object> object, final String name) throws IOException {
+    final Object value = object.get(name);
+    if (value == null) {
+      return false;
+    }
+    if (!(value instanceof Boolean)) {
+      throw new IOException("Expected '" + name + "' to be a boolean");
+    }
+    return (Boolean) value;
+  }
+
+  public static Map<String, Object> object(final Object value) throws IOException {
+    if (!(value instanceof Map)) {
+      throw new IOException("Expected a JSON object");
+    }
+    return (Map<String, Object>) value;
+  }
+
+  public static Map<String, Object> object(final Map<String, Object> object, final String name) throws IOException {
+    final Object value = object.get(name);
+    return value == null ? null : JsonValues.object(value);
+  }
+
+  public static String string(final Map<String, Object> object, final String name) throws IOException {
+    final Object value = object.get(name);
+    if (value == null) {
+      return null;
+    }
+    if (!(value instanceof String)) {
+      throw new IOException("Expected '" + name + "' to be a string");
+    }
+    return (String) value;
+  }
+
+  public static URL url(final Map<String, Object> object, final String name) throws IOException {
+    final String value = JsonValues.string(object, name);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return new URL(value);
+    } catch (final MalformedURLException exception) {
+      throw new IOException("Invalid URL for '" + name + "': " + value, exception);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.reader.resolution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import tr.com.infumia.small.resolver.ResolutionResult;
+import tr.com.infumia.small.resolver.data.Repository;
+import tr.com.infumia.small.resolver.reader.json.JsonParser;
+import tr.com.infumia.small.resolver.reader.json.JsonValues;
+
+/**
+ * Reads small-resolutions.json with the built-in {@link JsonParser}, so no Gson has to be downloaded or loaded first.
+ */
+public final class NativePreResolutionDataReader implements PreResolutionDataReader {
+
+  @Override
+  public Map<String, ResolutionResult> read(final InputStream inputStream) throws IOException {
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    final Map<String, Object> root = JsonValues.object(JsonParser.parse(reader));
+    final Map<String, ResolutionResult> results = new HashMap<>();
+    for (final Map.Entry<String, Object> entry : root.entrySet()) {
+      final Map<String, Object> object = JsonValues.object(entry.getValue());
+      final Map<String, Object> repositoryObject = JsonValues.object(object, "repository");
+      final Repository repository = repositoryObject == null
+        ? null
+        : new Repository(JsonValues.url(repositoryObject, "url"), JsonValues.string(repositoryObject, "name"));
+      results.put(entry.getKey(), new ResolutionResult(
+        repository,
+        JsonValues.url(object, "dependencyURL"),
+        JsonValues.url(object, "checksumURL"),
+        JsonValues.bool(object, "isAggregator")
+      ));
+    }
+    return results;
+  }
+}
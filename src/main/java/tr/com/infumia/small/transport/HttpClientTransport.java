@@ -0,0 +1,209 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.transport;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link Transport} built on {@link HttpClient}. A single client keeps a keep-alive connection pool per repository host
+ * and multiplexes requests over HTTP/2 where the server supports it, so pings, checksums and jars share TLS sessions.
+ * URLs the client can not handle (file:, jar:, ...) go through a plain {@link URLConnection}.
+ */
+public final class HttpClientTransport implements Transport {
+
+  public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5L);
+
+  public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30L);
+
+  // Metadata is only needed between a ping and the download it precedes, older entries are evicted first
+  private static final int MAX_METADATA_ENTRIES = 256;
+
+  private static final Collection<String> SUPPORTED_PROTOCOLS = Arrays.asList("HTTP", "HTTPS");
+
+  private static final String SMALL_USER_AGENT = "SmallApplication/* HttpClientTransport";
+
+  private static volatile HttpClientTransport shared;
+
+  private final HttpClient client;
+
+  private final Map<String, ResourceMetadata> metadata = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, ResourceMetadata> eldest) {
+      return this.size() > HttpClientTransport.MAX_METADATA_ENTRIES;
+    }
+  });
+
+  private final Duration requestTimeout;
+
+  public HttpClientTransport(final HttpClient client, final Duration requestTimeout) {
+    this.client = client;
+    this.requestTimeout = requestTimeout;
+  }
+
+  public HttpClientTransport(final Duration connectTimeout, final Duration requestTimeout) {
+    this(HttpClientTransport.createClient(connectTimeout), requestTimeout);
+  }
+
+  public HttpClientTransport() {
+    this(HttpClientTransport.DEFAULT_CONNECT_TIMEOUT, HttpClientTransport.DEFAULT_REQUEST_TIMEOUT);
+  }
+
+  public static HttpClient createClient(final Duration connectTimeout) {
+    return HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_2)
+      .followRedirects(HttpClient.Redirect.NORMAL)
+      .connectTimeout(connectTimeout)
+      .build();
+  }
+
+  /**
+   * Returns the transport shared by every builder of this JVM, so they all draw from the same connection pool.
+   *
+   * @return shared transport with default timeouts.
+   */
+  public static HttpClientTransport getShared() {
+    HttpClientTransport transport = HttpClientTransport.shared;
+    if (transport == null) {
+      synchronized (HttpClientTransport.class) {
+        transport = HttpClientTransport.shared;
+        if (transport == null) {
+          transport = new HttpClientTransport();
+          HttpClientTransport.shared = transport;
+        }
+      }
+    }
+    return transport;
+  }
+
+  private static boolean isHttp(final URL url) {
+    return HttpClientTransport.SUPPORTED_PROTOCOLS.contains(url.getProtocol().toUpperCase(Locale.ENGLISH));
+  }
+
+  private static URI toURI(final URL url) throws IOException {
+    try {
+      return url.toURI();
+    } catch (final URISyntaxException exception) {
+      throw new IOException("Invalid URL " + url, exception);
+    }
+  }
+
+  @Override
+  public TransportResponse get(final URL url, final Map<String, String> headers) throws IOException {
+    if (!HttpClientTransport.isHttp(url)) {
+      return this.openConnection(url, true);
+    }
+    final HttpRequest.Builder builder = this.newRequest(url);
+    headers.forEach(builder::header);
+    final HttpRequest request = builder.GET().build();
+    final HttpResponse<InputStream> response = this.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    return this.toResponse(url, response, response.body());
+  }
+
+  @Override
+  public TransportResponse head(final URL url) throws IOException {
+    if (!HttpClientTransport.isHttp(url)) {
+      return this.openConnection(url, false);
+    }
+    final HttpRequest request = this.newRequest(url)
+      .method("HEAD", HttpRequest.BodyPublishers.noBody())
+      .build();
+    final HttpResponse<Void> response = this.send(request, HttpResponse.BodyHandlers.discarding());
+    return this.toResponse(url, response, null);
+  }
+
+  @Override
+  public boolean isSupported(final URL url) {
+    return true;
+  }
+
+  @Override
+  public ResourceMetadata metadata(final URL url) {
+    return this.metadata.get(url.toString());
+  }
+
+  private HttpRequest.Builder newRequest(final URL url) throws IOException {
+    return HttpRequest.newBuilder(HttpClientTransport.toURI(url))
+      .timeout(this.requestTimeout)
+      .header("User-Agent", HttpClientTransport.SMALL_USER_AGENT);
+  }
+
+  private TransportResponse openConnection(final URL url, final boolean withBody) throws IOException {
+    final URLConnection connection = url.openConnection();
+    final int timeout = (int) this.requestTimeout.toMillis();
+    connection.setConnectTimeout(timeout);
+    connection.setReadTimeout(timeout);
+    final InputStream body;
+    try {
+      body = connection.getInputStream();
+    } catch (final FileNotFoundException exception) {
+      return new TransportResponse(url, HttpURLConnection.HTTP_NOT_FOUND, -1L, Collections.emptyMap(), null);
+    }
+    final long contentLength = connection.getContentLengthLong();
+    if (!withBody) {
+      body.close();
+    }
+    return new TransportResponse(url, HttpURLConnection.HTTP_OK, contentLength, connection.getHeaderFields(), withBody ? body : null);
+  }
+
+  private <T> HttpResponse<T> send(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+    try {
+      return this.client.send(request, bodyHandler);
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while requesting " + request.uri());
+      interrupted.initCause(exception);
+      throw interrupted;
+    }
+  }
+
+  private TransportResponse toResponse(final URL url, final HttpResponse<?> response, final InputStream body) {
+    final long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+    final TransportResponse result = new TransportResponse(url, response.statusCode(), contentLength, response.headers().map(), body);
+    final ResourceMetadata resourceMetadata = ResourceMetadata.from(result);
+    if (resourceMetadata != null) {
+      this.metadata.put(url.toString(), resourceMetadata);
+    }
+    return result;
+  }
+}
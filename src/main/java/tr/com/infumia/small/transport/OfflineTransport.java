@@ -0,0 +1,72 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.transport;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Transport for machines without network access. Requests to anything but local files are refused before a connection
+ * is attempted, so resolution only succeeds against what is already on disk.
+ */
+public final class OfflineTransport implements Transport {
+
+  private static final String LOCAL_PROTOCOL = "file";
+
+  private final Transport delegate;
+
+  public OfflineTransport(final Transport delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public TransportResponse get(final URL url, final Map<String, String> headers) throws IOException {
+    return this.local(url).get(url, headers);
+  }
+
+  @Override
+  public TransportResponse head(final URL url) throws IOException {
+    return this.local(url).head(url);
+  }
+
+  @Override
+  public boolean isSupported(final URL url) {
+    return OfflineTransport.LOCAL_PROTOCOL.equalsIgnoreCase(url.getProtocol()) && this.delegate.isSupported(url);
+  }
+
+  @Override
+  public ResourceMetadata metadata(final URL url) {
+    return this.delegate.metadata(url);
+  }
+
+  private Transport local(final URL url) throws IOException {
+    if (!this.isSupported(url)) {
+      throw new IOException("Offline mode, refusing to reach " + url);
+    }
+    return this.delegate;
+  }
+}
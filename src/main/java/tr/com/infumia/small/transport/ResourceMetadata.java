@@ -0,0 +1,108 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.transport;
+
+import java.net.HttpURLConnection;
+import java.util.Locale;
+
+/**
+ * What a repository reported about a resource while it was being probed, kept so downloads can reuse it.
+ */
+public final class ResourceMetadata {
+
+  private final boolean acceptsRanges;
+
+  private final long contentLength;
+
+  private final String eTag;
+
+  private final String lastModified;
+
+  public ResourceMetadata(final long contentLength, final String eTag, final String lastModified, final boolean acceptsRanges) {
+    this.contentLength = contentLength;
+    this.eTag = eTag;
+    this.lastModified = lastModified;
+    this.acceptsRanges = acceptsRanges;
+  }
+
+  /**
+   * Reads the metadata of a successful full, HEAD or ranged response.
+   *
+   * @param response response to read.
+   *
+   * @return metadata, <code>null</code> if the response is not a success.
+   */
+  public static ResourceMetadata from(final TransportResponse response) {
+    final int statusCode = response.getStatusCode();
+    final long contentLength;
+    final boolean acceptsRanges;
+    if (statusCode == HttpURLConnection.HTTP_PARTIAL) {
+      contentLength = ResourceMetadata.parseTotalLength(response.getHeader("Content-Range"));
+      acceptsRanges = true;
+    } else if (statusCode == HttpURLConnection.HTTP_OK) {
+      contentLength = response.getContentLength();
+      final String acceptRanges = response.getHeader("Accept-Ranges");
+      acceptsRanges = acceptRanges != null && acceptRanges.toLowerCase(Locale.ENGLISH).contains("bytes");
+    } else {
+      return null;
+    }
+    return new ResourceMetadata(contentLength, response.getHeader("ETag"), response.getHeader("Last-Modified"), acceptsRanges);
+  }
+
+  private static long parseTotalLength(final String contentRange) {
+    if (contentRange == null) {
+      return -1L;
+    }
+    final int slash = contentRange.lastIndexOf('/');
+    if (slash < 0) {
+      return -1L;
+    }
+    try {
+      return Long.parseLong(contentRange.substring(slash + 1).trim());
+    } catch (final NumberFormatException exception) {
+      return -1L;
+    }
+  }
+
+  public boolean acceptsRanges() {
+    return this.acceptsRanges;
+  }
+
+  /**
+   * @return full length of the resource in bytes, -1 if unknown.
+   */
+  public long getContentLength() {
+    return this.contentLength;
+  }
+
+  public String getETag() {
+    return this.eTag;
+  }
+
+  public String getLastModified() {
+    return this.lastModified;
+  }
+}
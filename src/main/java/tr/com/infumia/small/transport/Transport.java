@@ -0,0 +1,143 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transport used by pingers, enquirers, verifiers and downloaders to reach repositories.
+ * Implementations are expected to be thread-safe and to reuse connections where possible.
+ */
+public interface Transport {
+
+  /**
+   * Sends a GET request and fails unless the resource is returned in full.
+   *
+   * @param url resource to fetch.
+   *
+   * @return the successful response, callers must close it.
+   *
+   * @throws IOException on connection failure or on any status other than 200.
+   */
+  default TransportResponse fetch(final URL url) throws IOException {
+    final TransportResponse response = this.get(url);
+    if (response.getStatusCode() != HttpURLConnection.HTTP_OK) {
+      response.close();
+      throw new IOException("Could not download from " + url + " (status " + response.getStatusCode() + ")");
+    }
+    return response;
+  }
+
+  /**
+   * Sends a GET request for the resource from <code>offset</code> on, as long as it still matches
+   * <code>validator</code>. Servers that ignore the range, or consider the resource changed, return it in full.
+   *
+   * @param url resource to fetch.
+   * @param offset first byte to fetch.
+   * @param validator entity tag or last modification date the already fetched bytes belong to.
+   *
+   * @return a 206 response starting at <code>offset</code> or a 200 response with the full resource, callers must
+   *   close it.
+   *
+   * @throws IOException on connection failure or on any other status.
+   */
+  default TransportResponse fetchFrom(final URL url, final long offset, final String validator) throws IOException {
+    if (offset <= 0L || validator == null) {
+      return this.fetch(url);
+    }
+    final Map<String, String> headers = new HashMap<>();
+    headers.put("Range", "bytes=" + offset + "-");
+    headers.put("If-Range", validator);
+    final TransportResponse response = this.get(url, headers);
+    final int statusCode = response.getStatusCode();
+    if (statusCode == HttpURLConnection.HTTP_OK) {
+      return response;
+    }
+    final String contentRange = response.getHeader("Content-Range");
+    if (statusCode == HttpURLConnection.HTTP_PARTIAL && contentRange != null &&
+      contentRange.trim().startsWith("bytes " + offset + "-")) {
+      return response;
+    }
+    response.close();
+    if (statusCode == HttpURLConnection.HTTP_PARTIAL || statusCode == 416) {
+      return this.fetch(url);
+    }
+    throw new IOException("Could not download from " + url + " (status " + statusCode + ")");
+  }
+
+  /**
+   * Sends a GET request for the bytes <code>from</code> to <code>to</code>, both inclusive, of a resource that must
+   * still match <code>validator</code>.
+   *
+   * @param url resource to fetch.
+   * @param from first byte to fetch.
+   * @param to last byte to fetch.
+   * @param validator entity tag or last modification date the range must belong to.
+   *
+   * @return a 206 response with exactly the requested range, callers must close it.
+   *
+   * @throws IOException on connection failure, or if the server does not return the requested range.
+   */
+  default TransportResponse fetchRange(final URL url, final long from, final long to, final String validator) throws IOException {
+    final Map<String, String> headers = new HashMap<>();
+    headers.put("Range", "bytes=" + from + "-" + to);
+    headers.put("If-Range", validator);
+    final TransportResponse response = this.get(url, headers);
+    final String contentRange = response.getHeader("Content-Range");
+    if (response.getStatusCode() == HttpURLConnection.HTTP_PARTIAL && contentRange != null &&
+      contentRange.trim().startsWith("bytes " + from + "-" + to + "/")) {
+      return response;
+    }
+    response.close();
+    throw new IOException("Could not download bytes " + from + "-" + to + " from " + url + " (status " + response.getStatusCode() + ")");
+  }
+
+  default TransportResponse get(final URL url) throws IOException {
+    return this.get(url, Collections.emptyMap());
+  }
+
+  /**
+   * Returns what the transport last saw about a resource, typically recorded while a pinger probed it.
+   *
+   * @param url resource to look up.
+   *
+   * @return known metadata, <code>null</code> if the resource has not been seen.
+   */
+  default ResourceMetadata metadata(final URL url) {
+    return null;
+  }
+
+  TransportResponse get(final URL url, final Map<String, String> headers) throws IOException;
+
+  TransportResponse head(final URL url) throws IOException;
+
+  boolean isSupported(final URL url);
+}
@@ -0,0 +1,103 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class TransportResponse implements Closeable {
+
+  private final InputStream body;
+
+  private final long contentLength;
+
+  private final Map<String, List<String>> headers;
+
+  private final int statusCode;
+
+  private final URL url;
+
+  public TransportResponse(final URL url, final int statusCode, final long contentLength, final Map<String, List<String>> headers, final InputStream body) {
+    this.url = url;
+    this.statusCode = statusCode;
+    this.contentLength = contentLength;
+    final Map<String, List<String>> caseInsensitive = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.forEach((name, values) -> {
+      if (name != null) {
+        caseInsensitive.put(name, values);
+      }
+    });
+    this.headers = Collections.unmodifiableMap(caseInsensitive);
+    this.body = body;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.body != null) {
+      this.body.close();
+    }
+  }
+
+  /**
+   * @return body of the response, <code>null</code> for responses without one.
+   */
+  public InputStream getBody() {
+    return this.body;
+  }
+
+  /**
+   * @return length of the body in bytes, -1 if unknown.
+   */
+  public long getContentLength() {
+    return this.contentLength;
+  }
+
+  public String getHeader(final String name) {
+    final List<String> values = this.headers.get(name);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    return values.get(0);
+  }
+
+  public Map<String, List<String>> getHeaders() {
+    return this.headers;
+  }
+
+  public int getStatusCode() {
+    return this.statusCode;
+  }
+
+  public URL getUrl() {
+    return this.url;
+  }
+}
@@ -0,0 +1,80 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Writes files so that readers, including other processes, only ever observe the old or the complete new content.
+ * Content goes to a sibling temporary file first, which is then renamed over the target.
+ */
+public final class AtomicFiles {
+
+  private AtomicFiles() {
+  }
+
+  /**
+   * Moves a completely written file over the target, atomically when the file system supports it.
+   *
+   * @param source completely written file.
+   * @param target file to replace.
+   *
+   * @throws IOException if the file cannot be moved.
+   */
+  public static void move(final Path source, final Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException exception) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Picks a unique, not yet existing temporary file next to the target, so renaming it stays on one file system.
+   *
+   * @param target file that is about to be written.
+   *
+   * @return the temporary file.
+   */
+  public static Path temporaryFor(final Path target) {
+    return target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+  }
+
+  public static void write(final Path target, final byte[] bytes) throws IOException {
+    final Path temporary = AtomicFiles.temporaryFor(target);
+    try {
+      Files.write(temporary, bytes);
+      AtomicFiles.move(temporary, target);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
@@ -22,36 +22,19 @@
 // SOFTWARE.
 //
 
-package tr.com.infumia.small.util;
-
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
-
-public final class Connections {
 
-  private static final String SMALL_USER_AGENT = "SmallApplication/* URLDependencyDownloader";
+package tr.com.infumia.small.util;
 
-  private Connections() {
-  }
+public final class Checksums {
 
-  public static URLConnection createDownloadConnection(final URL url) throws IOException {
-    final URLConnection connection = url.openConnection();
-    if (connection instanceof HttpURLConnection) {
-      final HttpURLConnection httpConnection = (HttpURLConnection) connection;
-      connection.addRequestProperty("User-Agent", Connections.SMALL_USER_AGENT);
-      final int responseCode = httpConnection.getResponseCode();
-      if (responseCode != HttpURLConnection.HTTP_OK) {
-        throw new IOException("Could not download from" + url);
-      }
-    }
-    return connection;
+  private Checksums() {
   }
 
-  public static void tryDisconnect(final URLConnection urlConnection) {
-    if (urlConnection instanceof HttpURLConnection) {
-      ((HttpURLConnection) urlConnection).disconnect();
+  public static String toHex(final byte[] bytes) {
+    final StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes) {
+      sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
     }
+    return sb.toString();
   }
 }
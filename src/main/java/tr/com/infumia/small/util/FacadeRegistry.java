@@ -0,0 +1,83 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.util;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+/**
+ * Process-wide registry of bootstrapped helper libraries (Gson, jar-relocator, byte-buddy-agent).
+ * Each library is downloaded, injected into its isolated class loader and bound exactly once per JVM for a given
+ * dependency and download root; every later builder gets the same loaded classes back.
+ * Only the first request of a dependency and download root bootstraps it, so the repositories and offline mode of later
+ * requests are ignored: the artifact is the same whichever repository serves it.
+ */
+public final class FacadeRegistry {
+
+  private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+  private FacadeRegistry() {
+  }
+
+  /**
+   * Returns the facade bootstrapped for the coordinates, bootstrapping it if this is the first request.
+   * A failed bootstrap is not remembered, so the next request retries it.
+   *
+   * @param dependency the bootstrapped library.
+   * @param downloadPath download root the library is stored in, <code>null</code> for the default one.
+   * @param bootstrap creates the facade.
+   * @param <T> type of the facade.
+   *
+   * @return the shared facade.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T get(final Dependency dependency, final Path downloadPath, final Bootstrap<T> bootstrap) throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException {
+    final String root = downloadPath == null ? "default" : downloadPath.toAbsolutePath().normalize().toString();
+    final Entry entry = FacadeRegistry.ENTRIES.computeIfAbsent(dependency + "@" + root, key -> new Entry());
+    synchronized (entry) {
+      if (entry.facade == null) {
+        entry.facade = bootstrap.create();
+      }
+      return (T) entry.facade;
+    }
+  }
+
+  @FunctionalInterface
+  public interface Bootstrap<T> {
+
+    T create() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException;
+  }
+
+  private static final class Entry {
+
+    private Object facade;
+  }
+}
@@ -0,0 +1,123 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import tr.com.infumia.small.logging.LogDispatcher;
+import tr.com.infumia.small.logging.ProcessLogger;
+
+/**
+ * Exclusive locks on files that hold across threads and processes. A lock on <code>file</code> is an OS lock on the
+ * sibling <code>file.lock</code>, combined with a JVM-wide lock as file locks are held per process. Lock files are left
+ * in place, deleting them would let two processes lock different files for the same path.
+ */
+public final class FileLocks {
+
+  private static final Map<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+  private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+
+  private FileLocks() {
+  }
+
+  /**
+   * Blocks until the calling thread holds the lock of the file. The lock is reentrant for the holding thread.
+   *
+   * @param file file to lock, it does not have to exist.
+   *
+   * @return the held lock, to be closed once the file has been written.
+   *
+   * @throws IOException if the lock file cannot be created or the thread is interrupted while waiting.
+   */
+  public static Lock lock(final Path file) throws IOException {
+    final Path lockFile = file.toAbsolutePath().normalize().resolveSibling(file.getFileName() + ".lock");
+    final ReentrantLock localLock = FileLocks.LOCAL_LOCKS.computeIfAbsent(lockFile, path -> new ReentrantLock());
+    try {
+      localLock.lockInterruptibly();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + file);
+    }
+    if (localLock.getHoldCount() > 1) {
+      return new Lock(localLock, null, null);
+    }
+    FileChannel channel = null;
+    try {
+      Files.createDirectories(lockFile.getParent());
+      channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock fileLock = channel.tryLock();
+      if (fileLock == null) {
+        FileLocks.LOGGER.debug("Waiting for another process to release {0}", file.getFileName());
+        fileLock = channel.lock();
+      }
+      return new Lock(localLock, channel, fileLock);
+    } catch (final IOException | RuntimeException exception) {
+      if (channel != null) {
+        channel.close();
+      }
+      localLock.unlock();
+      throw exception;
+    }
+  }
+
+  public static final class Lock implements AutoCloseable {
+
+    private final FileChannel channel;
+
+    private final FileLock fileLock;
+
+    private final ReentrantLock localLock;
+
+    private Lock(final ReentrantLock localLock, final FileChannel channel, final FileLock fileLock) {
+      this.localLock = localLock;
+      this.channel = channel;
+      this.fileLock = fileLock;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (this.fileLock != null) {
+          this.fileLock.release();
+        }
+        if (this.channel != null) {
+          this.channel.close();
+        }
+      } finally {
+        this.localLock.unlock();
+      }
+    }
+  }
+}
@@ -30,7 +30,12 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import tr.com.infumia.small.app.module.ModuleExtractor;
 
@@ -39,13 +44,51 @@ public final class Modules {
   private Modules() {
   }
 
+  /**
+   * Extracts the modules, concurrently when there are several of them.
+   *
+   * @param extractor extractor to use, must be thread-safe.
+   * @param modules names of the modules.
+   *
+   * @return URLs of the extracted modules, in the order of <code>modules</code>.
+   *
+   * @throws IOException if a module cannot be extracted.
+   */
   public static URL[] extract(final ModuleExtractor extractor, final Collection<String> modules) throws IOException {
     final URL[] urls = new URL[modules.size()];
-    int index = 0;
-    for (final String moduleName : modules) {
-      final URL modulePath = Modules.findModule(moduleName);
-      final URL extractedModule = extractor.extractModule(modulePath, moduleName);
-      urls[index++] = extractedModule;
+    if (modules.size() < 2) {
+      int index = 0;
+      for (final String moduleName : modules) {
+        urls[index++] = extractor.extractModule(Modules.findModule(moduleName), moduleName);
+      }
+      return urls;
+    }
+    final ExecutorService executor = Workers.newPool("small-modules", Math.min(modules.size(), Workers.DEFAULT_PARALLELISM));
+    final List<Future<URL>> futures = new ArrayList<>(modules.size());
+    try {
+      for (final String moduleName : modules) {
+        futures.add(executor.submit(() -> extractor.extractModule(Modules.findModule(moduleName), moduleName)));
+      }
+      for (int index = 0; index < urls.length; index++) {
+        urls[index] = futures.get(index).get();
+      }
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while extracting modules", exception);
+    } catch (final ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      executor.shutdownNow();
     }
     return urls;
   }
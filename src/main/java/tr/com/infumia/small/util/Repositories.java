@@ -24,10 +24,17 @@
 
 package tr.com.infumia.small.util;
 
+import java.net.MalformedURLException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import tr.com.infumia.small.resolver.data.Repository;
 
 public final class Repositories {
 
+  private static final String MAVEN_LOCAL_NAME = "mavenLocal";
+
+  private static final String MAVEN_REPO_LOCAL_PROPERTY = "maven.repo.local";
+
   private Repositories() {
   }
 
@@ -38,4 +45,21 @@ public final class Repositories {
     }
     return repoUrl;
   }
+
+  /**
+   * Creates a repository for the local Maven repository, <code>~/.m2/repository</code> unless the
+   * <code>maven.repo.local</code> system property points elsewhere. Its artifacts are linked or copied instead of
+   * downloaded.
+   *
+   * @return the local Maven repository.
+   *
+   * @throws MalformedURLException if the path cannot be expressed as a URL.
+   */
+  public static Repository mavenLocal() throws MalformedURLException {
+    final String configured = System.getProperty(Repositories.MAVEN_REPO_LOCAL_PROPERTY);
+    final Path path = configured == null || configured.trim().isEmpty()
+      ? Paths.get(System.getProperty("user.home"), ".m2", "repository")
+      : Paths.get(configured.trim());
+    return new Repository(path.toAbsolutePath().toUri().toURL(), Repositories.MAVEN_LOCAL_NAME);
+  }
 }
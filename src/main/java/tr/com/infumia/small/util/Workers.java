@@ -0,0 +1,86 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class Workers {
+
+  public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  private static final int VIRTUAL_THREADS_VERSION = 21;
+
+  private Workers() {
+  }
+
+  /**
+   * Creates a bounded worker pool. On JDK 21+ the workers are virtual threads, otherwise daemon platform threads.
+   *
+   * @param name prefix used for worker thread names.
+   * @param parallelism maximum amount of tasks running at the same time.
+   *
+   * @return a fixed size executor, callers are responsible for shutting it down.
+   */
+  public static ExecutorService newPool(final String name, final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    ThreadFactory threadFactory = Workers.createVirtualThreadFactory(name);
+    if (threadFactory == null) {
+      threadFactory = Workers.createDaemonThreadFactory(name);
+    }
+    return Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+
+  private static ThreadFactory createDaemonThreadFactory(final String name) {
+    final AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, name + "-" + counter.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static ThreadFactory createVirtualThreadFactory(final String name) {
+    if (Runtime.version().feature() < Workers.VIRTUAL_THREADS_VERSION) {
+      return null;
+    }
+    try {
+      // Resolved reflectively as the project is compiled against Java 17.
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      final Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+      final Object namedBuilder = nameMethod.invoke(builder, name + "-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder);
+    } catch (final ReflectiveOperationException | RuntimeException exception) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import tr.com.infumia.small.downloader.URLDependencyDownloader;
+import tr.com.infumia.small.downloader.output.DependencyOutputWriterFactory;
+import tr.com.infumia.small.downloader.output.DigestingOutputWriter;
+import tr.com.infumia.small.downloader.output.OutputWriter;
+import tr.com.infumia.small.downloader.strategy.FolderedFilePathStrategy;
+import tr.com.infumia.small.downloader.verify.DependencyVerifier;
+import tr.com.infumia.small.resolver.ResolutionResult;
+import tr.com.infumia.small.resolver.data.Dependency;
+import tr.com.infumia.small.transport.HttpClientTransport;
+import tr.com.infumia.small.transport.Transport;
+
+/**
+ * Compares segmented and single connection downloads of the same artifact against a local repository that throttles
+ * every connection, the way many public mirrors do. The payload is generated from a fixed seed, so runs are
+ * reproducible.
+ * <p>
+ * Run it with <code>./gradlew segmentedDownloadBenchmark</code>, optionally passing the payload size in MiB, the
+ * per-connection limit in KiB/s and the amount of rounds, e.g. <code>--args="64 8192 5"</code>.
+ */
+public final class SegmentedDownloadBenchmark {
+
+  private static final int CHUNK_SIZE = 16 * 1024;
+
+  private static final String ETAG = "\"small-benchmark\"";
+
+  private SegmentedDownloadBenchmark() {
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final int sizeMiB = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    final long bytesPerSecond = (args.length > 1 ? Long.parseLong(args[1]) : 8192L) * 1024L;
+    final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    final byte[] payload = new byte[sizeMiB * 1024 * 1024];
+    new Random(42L).nextBytes(payload);
+    final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/ranged/", exchange -> SegmentedDownloadBenchmark.serve(exchange, payload, bytesPerSecond, true));
+    server.createContext("/plain/", exchange -> SegmentedDownloadBenchmark.serve(exchange, payload, bytesPerSecond, false));
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    final Path root = Files.createTempDirectory("small-benchmark");
+    try {
+      final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+      System.out.printf("payload %d MiB, %d KiB/s per connection, %d rounds%n", sizeMiB, bytesPerSecond / 1024L, rounds);
+      SegmentedDownloadBenchmark.report("single", SegmentedDownloadBenchmark.measure(new URL(base + "/plain/artifact.jar"), payload, root.resolve("plain"), rounds));
+      SegmentedDownloadBenchmark.report("segmented", SegmentedDownloadBenchmark.measure(new URL(base + "/ranged/artifact.jar"), payload, root.resolve("ranged"), rounds));
+    } finally {
+      server.stop(0);
+      ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+  }
+
+  private static long[] measure(final URL url, final byte[] payload, final Path directory, final int rounds) throws IOException {
+    final Transport transport = new HttpClientTransport();
+    final Dependency dependency = new Dependency("benchmark", "artifact", "1.0", null, Collections.emptyList());
+    final DependencyVerifier verifier = new DigestingVerifier();
+    final long[] timings = new long[rounds];
+    for (int round = 0; round < rounds; round++) {
+      final Path output = directory.resolve(String.valueOf(round));
+      Files.createDirectories(output);
+      final DependencyOutputWriterFactory outputWriterFactory = new DependencyOutputWriterFactory(FolderedFilePathStrategy.createStrategy(output.toFile()));
+      final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory, ignored -> {
+        // Resolvers ping the artifact first, which is where the transport learns whether ranges are accepted.
+        try {
+          transport.head(url).close();
+        } catch (final IOException exception) {
+          throw new IllegalStateException(exception);
+        }
+        return Optional.of(new ResolutionResult(null, url, null, false));
+      }, verifier, transport);
+      final long started = System.nanoTime();
+      final File file = downloader.download(dependency);
+      timings[round] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+      if (file == null || !Arrays.equals(payload, Files.readAllBytes(file.toPath()))) {
+        throw new IllegalStateException("Download of " + url + " does not match the payload");
+      }
+    }
+    return timings;
+  }
+
+  private static void report(final String name, final long[] timings) {
+    final long[] sorted = timings.clone();
+    Arrays.sort(sorted);
+    System.out.printf("%-10s median %6d ms, min %6d ms, max %6d ms %s%n", name, sorted[sorted.length / 2], sorted[0],
+      sorted[sorted.length - 1], Arrays.toString(timings));
+  }
+
+  private static void serve(final HttpExchange exchange, final byte[] payload, final long bytesPerSecond, final boolean ranges) throws IOException {
+    long from = 0L;
+    long to = payload.length - 1L;
+    final String range = exchange.getRequestHeaders().getFirst("Range");
+    final boolean partial = ranges && range != null && range.startsWith("bytes=");
+    if (partial) {
+      final String[] bounds = range.substring("bytes=".length()).split("-", 2);
+      from = Long.parseLong(bounds[0]);
+      to = bounds.length > 1 && !bounds[1].isEmpty() ? Math.min(to, Long.parseLong(bounds[1])) : to;
+      exchange.getResponseHeaders().set("Content-Range", "bytes " + from + "-" + to + "/" + payload.length);
+    }
+    if (ranges) {
+      exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+    }
+    exchange.getResponseHeaders().set("ETag", SegmentedDownloadBenchmark.ETAG);
+    final long length = to - from + 1L;
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().set("Content-Length", String.valueOf(length));
+      exchange.sendResponseHeaders(200, -1L);
+      exchange.close();
+      return;
+    }
+    exchange.sendResponseHeaders(partial ? 206 : 200, length);
+    try (final OutputStream body = exchange.getResponseBody()) {
+      final long started = System.nanoTime();
+      long sent = 0L;
+      while (sent < length) {
+        final int chunk = (int) Math.min(SegmentedDownloadBenchmark.CHUNK_SIZE, length - sent);
+        body.write(payload, (int) (from + sent), chunk);
+        sent += chunk;
+        final long due = started + sent * 1_000_000_000L / bytesPerSecond;
+        final long wait = due - System.nanoTime();
+        if (wait > 0L) {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        }
+      }
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Digests every download like the checksum verifier does, without needing a checksum from the repository.
+   */
+  private static final class DigestingVerifier implements DependencyVerifier {
+
+    @Override
+    public File getChecksumFile(final Dependency dependency) {
+      return null;
+    }
+
+    @Override
+    public boolean verify(final File file, final Dependency dependency) {
+      return file.exists();
+    }
+
+    @Override
+    public OutputWriter wrap(final Dependency dependency, final OutputWriter outputWriter) throws IOException {
+      try {
+        return new DigestingOutputWriter(outputWriter, MessageDigest.getInstance("SHA-256"), checksum -> {
+        });
+      } catch (final NoSuchAlgorithmException exception) {
+        throw new IOException(exception);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import tr.com.infumia.small.relocation.RelocationRule;
+
+final class ClassFileRemapperTest {
+
+  private static final RelocationRemapper REMAPPER = new RelocationRemapper(Collections.singletonList(new RelocationRule("org.objectweb.asm", "shaded.asm")));
+
+  private static byte[] read(final Class<?> type) throws IOException {
+    try (final InputStream input = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+      return input.readAllBytes();
+    }
+  }
+
+  /**
+   * Rewrites a class with ASM, visiting every part of it, using the same mapping.
+   */
+  private static byte[] remapWithAsm(final byte[] classFile) {
+    final ClassReader reader = new ClassReader(classFile);
+    final ClassWriter writer = new ClassWriter(0);
+    reader.accept(new ClassRemapper(writer, new Remapper() {
+      @Override
+      public String map(final String internalName) {
+        return ClassFileRemapperTest.REMAPPER.mapInternalName(internalName);
+      }
+
+      @Override
+      public String mapPackageName(final String name) {
+        return ClassFileRemapperTest.REMAPPER.mapPackage(name);
+      }
+
+      @Override
+      public Object mapValue(final Object value) {
+        if (value instanceof String) {
+          return ClassFileRemapperTest.REMAPPER.mapValue((String) value);
+        }
+        return super.mapValue(value);
+      }
+    }), 0);
+    return writer.toByteArray();
+  }
+
+  @Test
+  void classesMatchAsm() throws Exception {
+    final Path jar = Paths.get(ClassReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    final ClassFileRemapper remapper = new ClassFileRemapper(ClassFileRemapperTest.REMAPPER);
+    int remapped = 0;
+    try (final ZipFile zip = new ZipFile(jar.toFile())) {
+      for (final Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+        final ZipEntry entry = entries.nextElement();
+        if (!entry.getName().endsWith(".class") || entry.getName().endsWith("module-info.class")) {
+          continue;
+        }
+        final byte[] classFile;
+        try (final InputStream input = zip.getInputStream(entry)) {
+          classFile = input.readAllBytes();
+        }
+        final byte[] actual = remapper.remap(classFile);
+        Assertions.assertNotNull(actual, entry.getName());
+        Assertions.assertEquals(ConstantPools.utf8(ClassFileRemapperTest.remapWithAsm(classFile)), ConstantPools.utf8(actual), entry.getName());
+        // The rest of the class must still parse.
+        new ClassReader(actual).accept(new ClassWriter(0), 0);
+        remapped++;
+      }
+    }
+    Assertions.assertTrue(remapped > 0);
+  }
+
+  @Test
+  void malformedClassesAreRejected() throws IOException {
+    final ClassFileRemapper remapper = new ClassFileRemapper(ClassFileRemapperTest.REMAPPER);
+    final byte[] classFile = ClassFileRemapperTest.read(ClassReader.class);
+    Assertions.assertThrows(IOException.class, () -> remapper.remap(Arrays.copyOf(classFile, classFile.length / 2)));
+    Assertions.assertThrows(IOException.class, () -> remapper.remap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+  }
+
+  @Test
+  void unrelatedClassesAreLeftAlone() throws IOException {
+    final ClassFileRemapper remapper = new ClassFileRemapper(ClassFileRemapperTest.REMAPPER);
+    Assertions.assertNull(remapper.remap(ClassFileRemapperTest.read(ConstantPools.class)));
+    Assertions.assertNull(new ClassFileRemapper(new RelocationRemapper(Collections.emptyList())).remap(ClassFileRemapperTest.read(ClassReader.class)));
+  }
+}
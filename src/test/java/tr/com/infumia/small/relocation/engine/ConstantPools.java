@@ -0,0 +1,90 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads the UTF-8 constants of class files, which hold every class name, descriptor, signature and string value a
+ * class refers to. Comparing them tells whether two class files were relocated the same way, regardless of the order
+ * or the duplication of constants.
+ */
+final class ConstantPools {
+
+  private ConstantPools() {
+  }
+
+  static Set<String> utf8(final byte[] classFile) throws IOException {
+    final DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile));
+    if (input.readInt() != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    input.readUnsignedShort();
+    input.readUnsignedShort();
+    final int count = input.readUnsignedShort();
+    final Set<String> constants = new TreeSet<>();
+    for (int index = 1; index < count; index++) {
+      final int tag = input.readUnsignedByte();
+      switch (tag) {
+        case 1:
+          constants.add(input.readUTF());
+          break;
+        case 7:
+        case 8:
+        case 16:
+        case 19:
+        case 20:
+          input.skipBytes(2);
+          break;
+        case 15:
+          input.skipBytes(3);
+          break;
+        case 3:
+        case 4:
+        case 9:
+        case 10:
+        case 11:
+        case 12:
+        case 17:
+        case 18:
+          input.skipBytes(4);
+          break;
+        case 5:
+        case 6:
+          input.skipBytes(8);
+          index++;
+          break;
+        default:
+          throw new IOException("Unknown constant tag " + tag);
+      }
+    }
+    return constants;
+  }
+}
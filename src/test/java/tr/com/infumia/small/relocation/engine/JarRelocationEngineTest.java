@@ -0,0 +1,468 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.module.Configuration;
+import java.lang.module.ModuleFinder;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import me.lucko.jarrelocator.JarRelocator;
+import me.lucko.jarrelocator.Relocation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import tr.com.infumia.small.relocation.RelocationRule;
+
+/**
+ * Relocates real jars with the engine and with jar-relocator, which the engine replaces, and compares the results.
+ * <p>
+ * jar-relocator 1.4 leaves multi-release classes, service descriptors and module descriptors as they are and keeps the
+ * signatures of signed jars. The engine relocates the former and strips the latter, so those entries are checked on
+ * their own.
+ */
+final class JarRelocationEngineTest {
+
+  private static final String LIBRARY = "com.example.lib";
+
+  private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+  private static final int PARALLELISM = 4;
+
+  private static final String RELOCATED = "shaded.lib";
+
+  private static final String SERVICE = "META-INF/services/";
+
+  private static final String VERSIONS = "META-INF/versions/";
+
+  private static ExecutorService executor;
+
+  @TempDir
+  Path directory;
+
+  @AfterAll
+  static void shutdown() {
+    JarRelocationEngineTest.executor.shutdownNow();
+  }
+
+  @BeforeAll
+  static void start() {
+    JarRelocationEngineTest.executor = Executors.newFixedThreadPool(JarRelocationEngineTest.PARALLELISM);
+  }
+
+  private static void assertLoadable(final Path jar) throws IOException, ReflectiveOperationException {
+    try (final URLClassLoader loader = JarRelocationEngineTest.loader(jar);
+         final ZipFile zip = new ZipFile(jar.toFile())) {
+      for (final String name : JarRelocationEngineTest.names(zip)) {
+        if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+          continue;
+        }
+        final String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+        // Reflection links the class, which verifies it and resolves the types of its members.
+        Class.forName(className, false, loader).getDeclaredMethods();
+      }
+    }
+  }
+
+  private static void assertMatchesReference(final Path relocated, final Path reference) throws IOException {
+    try (final ZipFile actual = new ZipFile(relocated.toFile());
+         final ZipFile expected = new ZipFile(reference.toFile())) {
+      final Set<String> names = JarRelocationEngineTest.comparableNames(expected);
+      Assertions.assertEquals(names, JarRelocationEngineTest.comparableNames(actual));
+      for (final String name : names) {
+        final byte[] actualContent = JarRelocationEngineTest.read(actual, name);
+        final byte[] expectedContent = JarRelocationEngineTest.read(expected, name);
+        if (name.endsWith(".class")) {
+          Assertions.assertEquals(ConstantPools.utf8(expectedContent), ConstantPools.utf8(actualContent), name);
+        } else if (JarRelocationEngineTest.MANIFEST.equals(name)) {
+          Assertions.assertEquals(JarRelocationEngineTest.manifest(expectedContent), JarRelocationEngineTest.manifest(actualContent));
+        } else {
+          Assertions.assertArrayEquals(expectedContent, actualContent, name);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads every entry through {@link ZipFile}, which trusts the central directory, and through
+   * {@link ZipInputStream}, which trusts the local headers and checks sizes and CRCs.
+   */
+  private static void assertReadable(final Path jar) throws IOException {
+    final Map<String, byte[]> contents = new LinkedHashMap<>();
+    try (final ZipFile zip = new ZipFile(jar.toFile())) {
+      for (final Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+        final ZipEntry entry = entries.nextElement();
+        final byte[] content = JarRelocationEngineTest.read(zip, entry.getName());
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        Assertions.assertEquals(entry.getCrc(), crc.getValue(), entry.getName());
+        Assertions.assertEquals(entry.getSize(), content.length, entry.getName());
+        Assertions.assertNull(contents.put(entry.getName(), content), "Duplicate entry " + entry.getName());
+      }
+    }
+    try (final ZipInputStream input = new ZipInputStream(Files.newInputStream(jar))) {
+      int count = 0;
+      for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+        Assertions.assertArrayEquals(contents.get(entry.getName()), input.readAllBytes(), entry.getName());
+        count++;
+      }
+      Assertions.assertEquals(contents.size(), count);
+    }
+  }
+
+  /**
+   * Obtains the files of a jar that both relocators handle the same way.
+   */
+  private static Set<String> comparableNames(final ZipFile zip) {
+    final Set<String> names = new TreeSet<>();
+    for (final String name : JarRelocationEngineTest.names(zip)) {
+      if (name.endsWith("/") || name.startsWith(JarRelocationEngineTest.VERSIONS) || name.startsWith(JarRelocationEngineTest.SERVICE) ||
+        name.endsWith("module-info.class") || JarRelocationEngineTest.isSignature(name)) {
+        continue;
+      }
+      names.add(name);
+    }
+    return names;
+  }
+
+  private static boolean isSignature(final String name) {
+    return name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0 &&
+      (name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA") || name.endsWith(".EC"));
+  }
+
+  private static URLClassLoader loader(final Path jar) throws IOException {
+    return new URLClassLoader(new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+  }
+
+  private static Manifest manifest(final byte[] content) throws IOException {
+    final Manifest manifest = new Manifest(new ByteArrayInputStream(content));
+    // jar-relocator 1.4 keeps the digests of signed jars, which no longer match relocated entries.
+    manifest.getEntries().values().forEach(attributes -> attributes.keySet().removeIf(key -> key.toString().endsWith("-Digest")));
+    manifest.getEntries().values().removeIf(Attributes::isEmpty);
+    return manifest;
+  }
+
+  private static List<String> names(final ZipFile zip) {
+    final List<String> names = new ArrayList<>();
+    for (final Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+      names.add(entries.nextElement().getName());
+    }
+    return names;
+  }
+
+  private static byte[] read(final ZipFile zip, final String name) throws IOException {
+    final ZipEntry entry = zip.getEntry(name);
+    Assertions.assertNotNull(entry, name);
+    try (final InputStream input = zip.getInputStream(entry)) {
+      return input.readAllBytes();
+    }
+  }
+
+  private static void run(final String... command) throws IOException, InterruptedException {
+    final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    Assertions.assertTrue(process.waitFor(1L, TimeUnit.MINUTES), command[0] + " timed out");
+    Assertions.assertEquals(0, process.exitValue(), output);
+  }
+
+  private static Path tool(final String name) {
+    return Paths.get(System.getProperty("java.home"), "bin", name);
+  }
+
+  @Test
+  void leadingDataFallsBackToStreaming() throws Exception {
+    final Path fixture = this.fixture("leading", false, false, 0);
+    final Path input = this.directory.resolve("prefixed.jar");
+    try (final OutputStream output = Files.newOutputStream(input)) {
+      output.write("#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+      Files.copy(fixture, output);
+    }
+    try (final FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+      Assertions.assertNull(ZipArchiveReader.readCentralDirectory(channel), "The fixture must take the streaming path");
+    }
+    final Path relocated = this.relocate(input, 1);
+    JarRelocationEngineTest.assertMatchesReference(relocated, this.reference(input));
+    JarRelocationEngineTest.assertReadable(relocated);
+    JarRelocationEngineTest.assertLoadable(relocated);
+  }
+
+  @Test
+  void multiReleaseClassesAreRelocated() throws Exception {
+    final Path input = this.fixture("multi-release", false, true, 0);
+    final Path relocated = this.relocate(input, 1);
+    JarRelocationEngineTest.assertMatchesReference(relocated, this.reference(input));
+    JarRelocationEngineTest.assertReadable(relocated);
+    try (final JarFile jar = new JarFile(relocated.toFile(), true, ZipFile.OPEN_READ, Runtime.version())) {
+      Assertions.assertTrue(jar.isMultiRelease());
+      final JarEntry entry = jar.getJarEntry("shaded/lib/ServiceImpl.class");
+      Assertions.assertEquals(JarRelocationEngineTest.VERSIONS + "9/shaded/lib/ServiceImpl.class", entry.getRealName());
+      Assertions.assertNull(jar.getEntry(JarRelocationEngineTest.VERSIONS + "9/com/example/lib/ServiceImpl.class"));
+      final byte[] versioned;
+      try (final InputStream stream = jar.getInputStream(entry)) {
+        versioned = stream.readAllBytes();
+      }
+      try (final ZipFile zip = new ZipFile(relocated.toFile())) {
+        Assertions.assertArrayEquals(JarRelocationEngineTest.read(zip, "shaded/lib/ServiceImpl.class"), versioned);
+      }
+    }
+    JarRelocationEngineTest.assertLoadable(relocated);
+  }
+
+  @Test
+  void parallelChunksMatchSequentialRelocation() throws Exception {
+    final Path input = this.fixture("parallel", false, false, 96);
+    try (final ZipFile zip = new ZipFile(input.toFile())) {
+      Assertions.assertTrue(zip.size() > 64, "The fixture must take the parallel path");
+    }
+    final Path parallel = this.relocate(input, JarRelocationEngineTest.PARALLELISM);
+    final Path sequential = this.relocate(input, 1);
+    Assertions.assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+    JarRelocationEngineTest.assertMatchesReference(parallel, this.reference(input));
+    JarRelocationEngineTest.assertReadable(parallel);
+    JarRelocationEngineTest.assertLoadable(parallel);
+    try (final URLClassLoader loader = JarRelocationEngineTest.loader(parallel)) {
+      final Method type = loader.loadClass("com.example.app.Generated95").getMethod("type");
+      Assertions.assertEquals(JarRelocationEngineTest.RELOCATED + ".Service", ((Class<?>) type.invoke(null)).getName());
+    }
+  }
+
+  @Test
+  void plainJarMatchesReference() throws Exception {
+    final Path input = Paths.get(ClassReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    final Collection<RelocationRule> rules = Collections.singletonList(new RelocationRule("org.objectweb.asm", "shaded.asm"));
+    final Path relocated = this.directory.resolve("asm-relocated.jar");
+    new JarRelocationEngine(rules, JarRelocationEngineTest.executor, JarRelocationEngineTest.PARALLELISM).relocate(input.toFile(), relocated.toFile());
+    final Path reference = this.directory.resolve("asm-reference.jar");
+    new JarRelocator(input.toFile(), reference.toFile(), Collections.singletonList(new Relocation("org.objectweb.asm", "shaded.asm"))).run();
+    JarRelocationEngineTest.assertMatchesReference(relocated, reference);
+    JarRelocationEngineTest.assertReadable(relocated);
+    JarRelocationEngineTest.assertLoadable(relocated);
+    try (final ZipFile zip = new ZipFile(relocated.toFile())) {
+      Assertions.assertNotNull(zip.getEntry("shaded/asm/ClassReader.class"));
+      Assertions.assertNull(zip.getEntry("org/objectweb/asm/ClassReader.class"));
+    }
+    // The module descriptor exports the relocated packages, otherwise the module could not be resolved.
+    final Configuration configuration = ModuleLayer.boot().configuration().resolve(ModuleFinder.of(relocated), ModuleFinder.of(), Collections.singleton("org.objectweb.asm"));
+    final ModuleLayer layer = ModuleLayer.boot().defineModulesWithOneLoader(configuration, ClassLoader.getPlatformClassLoader());
+    final Class<?> reader = layer.findLoader("org.objectweb.asm").loadClass("shaded.asm.ClassReader");
+    Assertions.assertEquals("org.objectweb.asm", reader.getModule().getName());
+  }
+
+  @Test
+  void serviceDescriptorsAreRelocated() throws Exception {
+    final Path input = this.fixture("services", false, false, 0);
+    final Path relocated = this.relocate(input, 1);
+    JarRelocationEngineTest.assertMatchesReference(relocated, this.reference(input));
+    JarRelocationEngineTest.assertReadable(relocated);
+    try (final ZipFile zip = new ZipFile(relocated.toFile())) {
+      Assertions.assertNull(zip.getEntry(JarRelocationEngineTest.SERVICE + JarRelocationEngineTest.LIBRARY + ".Service"));
+      final byte[] descriptor = JarRelocationEngineTest.read(zip, JarRelocationEngineTest.SERVICE + JarRelocationEngineTest.RELOCATED + ".Service");
+      Assertions.assertEquals("# Implementations\n" + JarRelocationEngineTest.RELOCATED + ".ServiceImpl\n", new String(descriptor, StandardCharsets.UTF_8));
+    }
+    try (final URLClassLoader loader = JarRelocationEngineTest.loader(relocated)) {
+      final Object result = loader.loadClass("com.example.app.Main").getMethod("run").invoke(null);
+      Assertions.assertEquals("shaded.lib.ServiceImpl|shaded.lib.ServiceImpl|true", result);
+    }
+  }
+
+  @Test
+  void signedJarLosesItsSignature() throws Exception {
+    final Path keytool = JarRelocationEngineTest.tool("keytool");
+    final Path jarsigner = JarRelocationEngineTest.tool("jarsigner");
+    Assumptions.assumeTrue(Files.isExecutable(keytool) && Files.isExecutable(jarsigner), "keytool and jarsigner are required");
+    final Path input = this.fixture("signed", false, false, 0);
+    final Path keystore = this.directory.resolve("keystore.p12");
+    JarRelocationEngineTest.run(keytool.toString(), "-genkeypair", "-keystore", keystore.toString(), "-storetype", "PKCS12",
+      "-storepass", "password", "-keypass", "password", "-alias", "test", "-keyalg", "RSA", "-keysize", "2048",
+      "-dname", "CN=test", "-validity", "1");
+    JarRelocationEngineTest.run(jarsigner.toString(), "-keystore", keystore.toString(), "-storepass", "password",
+      input.toString(), "test");
+    try (final JarFile jar = new JarFile(input.toFile())) {
+      Assertions.assertNotNull(jar.getEntry("META-INF/TEST.SF"));
+    }
+    final Path relocated = this.relocate(input, 1);
+    JarRelocationEngineTest.assertMatchesReference(relocated, this.reference(input));
+    JarRelocationEngineTest.assertReadable(relocated);
+    try (final JarFile jar = new JarFile(relocated.toFile(), true)) {
+      Assertions.assertNull(jar.getEntry("META-INF/TEST.SF"));
+      Assertions.assertNull(jar.getEntry("META-INF/TEST.RSA"));
+      Assertions.assertTrue(jar.getManifest().getEntries().isEmpty(), "Entry digests must be stripped");
+      for (final Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+        final JarEntry entry = entries.nextElement();
+        try (final InputStream stream = jar.getInputStream(entry)) {
+          stream.readAllBytes();
+        }
+        Assertions.assertNull(entry.getCodeSigners(), entry.getName());
+      }
+    }
+    JarRelocationEngineTest.assertLoadable(relocated);
+  }
+
+  @Test
+  void storedEntriesStayStored() throws Exception {
+    final Path input = this.fixture("stored", true, false, 0);
+    final Path relocated = this.relocate(input, 1);
+    JarRelocationEngineTest.assertMatchesReference(relocated, this.reference(input));
+    JarRelocationEngineTest.assertReadable(relocated);
+    try (final ZipFile zip = new ZipFile(relocated.toFile())) {
+      Assertions.assertEquals(ZipEntry.STORED, zip.getEntry("shaded/lib/ServiceImpl.class").getMethod());
+      Assertions.assertEquals(ZipEntry.STORED, zip.getEntry("com/example/app/Main.class").getMethod());
+      Assertions.assertEquals(ZipEntry.STORED, zip.getEntry("shaded/lib/data.txt").getMethod());
+    }
+    JarRelocationEngineTest.assertLoadable(relocated);
+  }
+
+  /**
+   * Compiles the fixture library and an application using it, and packs them into a jar.
+   *
+   * @param name name of the jar.
+   * @param stored whether entries are stored rather than deflated.
+   * @param multiRelease whether the jar carries a Java 9 variant of a library class.
+   * @param generated amount of additional application classes.
+   */
+  private Path fixture(final String name, final boolean stored, final boolean multiRelease, final int generated) throws IOException {
+    final Map<String, String> sources = new LinkedHashMap<>();
+    sources.put("com/example/lib/Service.java", "package com.example.lib; public interface Service { String name(); }");
+    sources.put("com/example/lib/ServiceImpl.java", "package com.example.lib; public class ServiceImpl implements Service { public String name() { return getClass().getName(); } }");
+    sources.put("com/example/lib/Library.java", "package com.example.lib; public class Library { public static final String TYPE = \"com.example.lib.Library\"; }");
+    sources.put("com/example/app/Main.java", "package com.example.app;\n" +
+      "import com.example.lib.Service;\n" +
+      "import java.util.ServiceLoader;\n" +
+      "public final class Main {\n" +
+      "  public static String run() throws Exception {\n" +
+      "    final StringBuilder result = new StringBuilder();\n" +
+      "    for (final Service service : ServiceLoader.load(Service.class, Main.class.getClassLoader())) {\n" +
+      "      result.append(service.name());\n" +
+      "    }\n" +
+      "    result.append('|').append(Class.forName(\"com.example.lib.ServiceImpl\", false, Main.class.getClassLoader()).getName());\n" +
+      "    return result.append('|').append(Main.class.getResource(\"/com/example/lib/data.txt\") != null).toString();\n" +
+      "  }\n" +
+      "}\n");
+    for (int index = 0; index < generated; index++) {
+      sources.put("com/example/app/Generated" + index + ".java", "package com.example.app; public final class Generated" + index +
+        " extends com.example.lib.Library { public static Class<?> type() { return com.example.lib.Service.class; } }");
+    }
+    final Path sourceDirectory = this.directory.resolve(name + "-sources");
+    final Path classDirectory = this.directory.resolve(name + "-classes");
+    final List<String> arguments = new ArrayList<>(Arrays.asList("--release", "8", "-d", classDirectory.toString()));
+    for (final Map.Entry<String, String> source : sources.entrySet()) {
+      final Path file = sourceDirectory.resolve(source.getKey());
+      Files.createDirectories(file.getParent());
+      Files.write(file, source.getValue().getBytes(StandardCharsets.UTF_8));
+      arguments.add(file.toString());
+    }
+    Files.createDirectories(classDirectory);
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Assertions.assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])), "Fixture does not compile");
+    final Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (final Stream<Path> files = Files.walk(classDirectory)) {
+      for (final Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+        entries.put(classDirectory.relativize(file).toString().replace('\\', '/'), Files.readAllBytes(file));
+      }
+    }
+    if (multiRelease) {
+      entries.put(JarRelocationEngineTest.VERSIONS + "9/com/example/lib/ServiceImpl.class", entries.get("com/example/lib/ServiceImpl.class"));
+    }
+    entries.put(JarRelocationEngineTest.SERVICE + JarRelocationEngineTest.LIBRARY + ".Service", ("# Implementations\n" + JarRelocationEngineTest.LIBRARY + ".ServiceImpl\n").getBytes(StandardCharsets.UTF_8));
+    entries.put("com/example/lib/data.txt", "data".getBytes(StandardCharsets.UTF_8));
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    if (multiRelease) {
+      manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+    }
+    final Path jar = this.directory.resolve(name + ".jar");
+    try (final JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+      for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        final JarEntry jarEntry = new JarEntry(entry.getKey());
+        final byte[] content = entry.getValue();
+        if (stored) {
+          final CRC32 crc = new CRC32();
+          crc.update(content);
+          jarEntry.setMethod(ZipEntry.STORED);
+          jarEntry.setSize(content.length);
+          jarEntry.setCrc(crc.getValue());
+        }
+        output.putNextEntry(jarEntry);
+        output.write(content);
+        output.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private Path reference(final Path input) throws IOException {
+    final Path output = this.directory.resolve("reference-" + input.getFileName());
+    final Relocation relocation = new Relocation(JarRelocationEngineTest.LIBRARY, JarRelocationEngineTest.RELOCATED);
+    new JarRelocator(input.toFile(), output.toFile(), Collections.singletonList(relocation)).run();
+    return output;
+  }
+
+  private Path relocate(final Path input, final int parallelism) throws IOException {
+    final Path output = this.directory.resolve("relocated-" + parallelism + "-" + input.getFileName());
+    final List<RelocationRule> rules = Collections.singletonList(new RelocationRule(JarRelocationEngineTest.LIBRARY, JarRelocationEngineTest.RELOCATED));
+    new JarRelocationEngine(rules, JarRelocationEngineTest.executor, parallelism).relocate(input.toFile(), output.toFile());
+    return output;
+  }
+}
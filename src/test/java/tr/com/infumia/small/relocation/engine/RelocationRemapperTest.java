@@ -0,0 +1,95 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tr.com.infumia.small.relocation.RelocationRule;
+
+final class RelocationRemapperTest {
+
+  private static final RelocationRemapper REMAPPER = new RelocationRemapper(Collections.singletonList(new RelocationRule("com.example.lib", "shaded.lib")));
+
+  @Test
+  void descriptorsAndSignaturesAreMapped() {
+    Assertions.assertEquals("(Lshaded/lib/Service;[Lshaded/lib/Library;I)V", RelocationRemapperTest.REMAPPER.mapDescriptor("(Lcom/example/lib/Service;[Lcom/example/lib/Library;I)V"));
+    Assertions.assertEquals("Ljava/util/Map<Ljava/lang/String;Lshaded/lib/Box<Lshaded/lib/Service;>.Inner;>;", RelocationRemapperTest.REMAPPER.mapDescriptor("Ljava/util/Map<Ljava/lang/String;Lcom/example/lib/Box<Lcom/example/lib/Service;>.Inner;>;"));
+    final String unrelated = "(Ljava/lang/String;)V";
+    Assertions.assertSame(unrelated, RelocationRemapperTest.REMAPPER.mapDescriptor(unrelated));
+  }
+
+  @Test
+  void emptyRulesMapNothing() {
+    final RelocationRemapper remapper = new RelocationRemapper(Collections.emptyList());
+    Assertions.assertTrue(remapper.isEmpty());
+    Assertions.assertEquals("com/example/lib/Library.class", remapper.mapEntryName("com/example/lib/Library.class"));
+    Assertions.assertEquals("com.example.lib.Library", remapper.mapValue("com.example.lib.Library"));
+  }
+
+  @Test
+  void entryNamesAreMapped() {
+    Assertions.assertEquals("shaded/lib/Library.class", RelocationRemapperTest.REMAPPER.mapEntryName("com/example/lib/Library.class"));
+    Assertions.assertEquals("shaded/lib/data.txt", RelocationRemapperTest.REMAPPER.mapEntryName("com/example/lib/data.txt"));
+    Assertions.assertEquals("shaded/lib/", RelocationRemapperTest.REMAPPER.mapEntryName("com/example/lib/"));
+    Assertions.assertEquals("META-INF/versions/11/shaded/lib/Library.class", RelocationRemapperTest.REMAPPER.mapEntryName("META-INF/versions/11/com/example/lib/Library.class"));
+    Assertions.assertEquals("META-INF/services/shaded.lib.Service", RelocationRemapperTest.REMAPPER.mapEntryName("META-INF/services/com.example.lib.Service"));
+    Assertions.assertEquals("com/example/app/Main.class", RelocationRemapperTest.REMAPPER.mapEntryName("com/example/app/Main.class"));
+    Assertions.assertEquals("META-INF/MANIFEST.MF", RelocationRemapperTest.REMAPPER.mapEntryName("META-INF/MANIFEST.MF"));
+  }
+
+  @Test
+  void exclusionsAndInclusionsRestrictRules() {
+    final RelocationRemapper excluding = new RelocationRemapper(Collections.singletonList(
+      new RelocationRule("com.example.lib", "shaded.lib", Collections.singletonList("com.example.lib.internal.*"), Collections.emptyList())));
+    Assertions.assertEquals("shaded/lib/Library", excluding.mapInternalName("com/example/lib/Library"));
+    Assertions.assertEquals("com/example/lib/internal/Helper", excluding.mapInternalName("com/example/lib/internal/Helper"));
+    final RelocationRemapper including = new RelocationRemapper(Collections.singletonList(
+      new RelocationRule("com.example.lib", "shaded.lib", Collections.emptyList(), Arrays.asList("com.example.lib.Library", "com.example.lib.api.**"))));
+    Assertions.assertEquals("shaded/lib/Library", including.mapInternalName("com/example/lib/Library"));
+    Assertions.assertEquals("shaded/lib/api/deep/Type", including.mapInternalName("com/example/lib/api/deep/Type"));
+    Assertions.assertEquals("com/example/lib/Service", including.mapInternalName("com/example/lib/Service"));
+  }
+
+  @Test
+  void internalNamesAndPackagesAreMapped() {
+    Assertions.assertEquals("shaded/lib/Library$Inner", RelocationRemapperTest.REMAPPER.mapInternalName("com/example/lib/Library$Inner"));
+    Assertions.assertEquals("[[Lshaded/lib/Library;", RelocationRemapperTest.REMAPPER.mapInternalName("[[Lcom/example/lib/Library;"));
+    Assertions.assertEquals("shaded/lib/api", RelocationRemapperTest.REMAPPER.mapPackage("com/example/lib/api"));
+    Assertions.assertEquals("java/lang/String", RelocationRemapperTest.REMAPPER.mapInternalName("java/lang/String"));
+  }
+
+  @Test
+  void valuesAreMapped() {
+    Assertions.assertEquals("shaded.lib.Library", RelocationRemapperTest.REMAPPER.mapValue("com.example.lib.Library"));
+    Assertions.assertEquals("shaded/lib/data.txt", RelocationRemapperTest.REMAPPER.mapValue("com/example/lib/data.txt"));
+    Assertions.assertEquals("/shaded/lib/data.txt", RelocationRemapperTest.REMAPPER.mapValue("/com/example/lib/data.txt"));
+    Assertions.assertEquals("[Lshaded/lib/Library;", RelocationRemapperTest.REMAPPER.mapValue("[Lcom/example/lib/Library;"));
+    Assertions.assertEquals("Hello, com.example.lib!", RelocationRemapperTest.REMAPPER.mapValue("Hello, com.example.lib!"));
+    Assertions.assertEquals("com.example.app.Main", RelocationRemapperTest.REMAPPER.mapValue("com.example.app.Main"));
+  }
+}
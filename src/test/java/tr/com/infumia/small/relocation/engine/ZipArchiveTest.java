@@ -0,0 +1,199 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.relocation.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class ZipArchiveTest {
+
+  @TempDir
+  Path directory;
+
+  private static Map<String, byte[]> contents() {
+    final Map<String, byte[]> contents = new LinkedHashMap<>();
+    contents.put("deflated.txt", "deflated deflated deflated deflated".getBytes(StandardCharsets.UTF_8));
+    contents.put("stored.txt", "stored".getBytes(StandardCharsets.UTF_8));
+    contents.put("empty.txt", new byte[0]);
+    contents.put("\u00fcn\u00efc\u00f6d\u00e9/\u540d\u524d.txt", "unicode".getBytes(StandardCharsets.UTF_8));
+    return contents;
+  }
+
+  private static Map<String, byte[]> readStreaming(final Path archive) throws IOException {
+    final Map<String, byte[]> contents = new LinkedHashMap<>();
+    try (final ZipInputStream input = new ZipInputStream(Files.newInputStream(archive))) {
+      for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+        contents.put(entry.getName(), input.readAllBytes());
+      }
+    }
+    return contents;
+  }
+
+  @Test
+  void archivesAreCopiedVerbatim() throws IOException {
+    final Path source = this.write("source.zip");
+    final Path copy = this.directory.resolve("copy.zip");
+    try (final FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+         final FileChannel output = FileChannel.open(copy, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      final List<ZipRecord> records = ZipArchiveReader.readCentralDirectory(input);
+      Assertions.assertNotNull(records);
+      final ZipArchiveWriter writer = new ZipArchiveWriter(output);
+      writer.writeDirectory("copied/", records.get(0).dosTime);
+      for (final ZipRecord record : records) {
+        writer.writeRaw("copied/" + record.name, record, input, ZipArchiveReader.dataOffset(input, record));
+      }
+      writer.finish();
+    }
+    final Map<String, byte[]> expected = new LinkedHashMap<>();
+    expected.put("copied/", new byte[0]);
+    ZipArchiveTest.contents().forEach((name, content) -> expected.put("copied/" + name, content));
+    try (final ZipFile zip = new ZipFile(copy.toFile());
+         final ZipFile original = new ZipFile(source.toFile())) {
+      Assertions.assertEquals(expected.size(), zip.size());
+      for (final Map.Entry<String, byte[]> entry : expected.entrySet()) {
+        final ZipEntry zipEntry = zip.getEntry(entry.getKey());
+        Assertions.assertNotNull(zipEntry, entry.getKey());
+        try (final InputStream stream = zip.getInputStream(zipEntry)) {
+          Assertions.assertArrayEquals(entry.getValue(), stream.readAllBytes(), entry.getKey());
+        }
+        if (!zipEntry.isDirectory()) {
+          final ZipEntry originalEntry = original.getEntry(entry.getKey().substring("copied/".length()));
+          Assertions.assertEquals(originalEntry.getMethod(), zipEntry.getMethod(), entry.getKey());
+          Assertions.assertEquals(originalEntry.getTime(), zipEntry.getTime(), entry.getKey());
+        }
+      }
+    }
+    final Map<String, byte[]> streamed = ZipArchiveTest.readStreaming(copy);
+    Assertions.assertEquals(expected.keySet(), streamed.keySet());
+    expected.forEach((name, content) -> Assertions.assertArrayEquals(content, streamed.get(name), name));
+  }
+
+  @Test
+  void centralDirectoryIsRead() throws IOException {
+    final Path source = this.write("source.zip");
+    try (final FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+         final ZipFile zip = new ZipFile(source.toFile())) {
+      final List<ZipRecord> records = ZipArchiveReader.readCentralDirectory(input);
+      Assertions.assertNotNull(records);
+      Assertions.assertEquals(zip.size(), records.size());
+      for (final ZipRecord record : records) {
+        final ZipEntry entry = zip.getEntry(record.name);
+        Assertions.assertNotNull(entry, record.name);
+        Assertions.assertEquals(entry.getMethod(), record.method, record.name);
+        Assertions.assertEquals(entry.getCrc(), record.crc, record.name);
+        Assertions.assertEquals(entry.getSize(), record.size, record.name);
+        Assertions.assertEquals(entry.getCompressedSize(), record.compressedSize, record.name);
+      }
+    }
+  }
+
+  @Test
+  void recompressedEntriesAreReadable() throws IOException {
+    final Path source = this.write("source.zip");
+    final Path output = this.directory.resolve("recompressed.zip");
+    final byte[] content = "replaced replaced replaced".getBytes(StandardCharsets.UTF_8);
+    final CRC32 crc = new CRC32();
+    crc.update(content);
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(content);
+    deflater.finish();
+    final byte[] buffer = new byte[256];
+    final int length = deflater.deflate(buffer);
+    deflater.end();
+    try (final FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+         final FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      final List<ZipRecord> records = ZipArchiveReader.readCentralDirectory(input);
+      final ZipArchiveWriter writer = new ZipArchiveWriter(channel);
+      final byte[] data = new byte[length];
+      System.arraycopy(buffer, 0, data, 0, length);
+      writer.writeCompressed("replaced.txt", records.get(0), ZipArchiveReader.METHOD_DEFLATED, crc.getValue(), content.length, data);
+      writer.finish();
+    }
+    Assertions.assertArrayEquals(content, ZipArchiveTest.readStreaming(output).get("replaced.txt"));
+    try (final ZipFile zip = new ZipFile(output.toFile());
+         final InputStream stream = zip.getInputStream(zip.getEntry("replaced.txt"))) {
+      Assertions.assertArrayEquals(content, stream.readAllBytes());
+    }
+  }
+
+  @Test
+  void unsupportedArchivesAreDeclined() throws IOException {
+    final Path source = this.write("source.zip");
+    final Path prefixed = this.directory.resolve("prefixed.zip");
+    try (final OutputStream output = Files.newOutputStream(prefixed)) {
+      output.write(new byte[]{1, 2, 3});
+      Files.copy(source, output);
+    }
+    final Path garbage = this.directory.resolve("garbage.zip");
+    Files.write(garbage, new byte[64]);
+    for (final Path archive : new Path[]{prefixed, garbage}) {
+      try (final FileChannel input = FileChannel.open(archive, StandardOpenOption.READ)) {
+        Assertions.assertNull(ZipArchiveReader.readCentralDirectory(input), archive.getFileName().toString());
+      }
+    }
+  }
+
+  /**
+   * Writes the test contents with {@link ZipOutputStream}, deflated entries use data descriptors.
+   */
+  private Path write(final String name) throws IOException {
+    final Path archive = this.directory.resolve(name);
+    try (final ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive))) {
+      for (final Map.Entry<String, byte[]> entry : ZipArchiveTest.contents().entrySet()) {
+        final ZipEntry zipEntry = new ZipEntry(entry.getKey());
+        if (entry.getKey().startsWith("stored")) {
+          final CRC32 crc = new CRC32();
+          crc.update(entry.getValue());
+          zipEntry.setMethod(ZipEntry.STORED);
+          zipEntry.setSize(entry.getValue().length);
+          zipEntry.setCrc(crc.getValue());
+        }
+        output.putNextEntry(zipEntry);
+        output.write(entry.getValue());
+        output.closeEntry();
+      }
+    }
+    return archive;
+  }
+}
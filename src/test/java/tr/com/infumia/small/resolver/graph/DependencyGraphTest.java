@@ -0,0 +1,125 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tr.com.infumia.small.resolver.data.Dependency;
+
+final class DependencyGraphTest {
+
+  private static Dependency dependency(final String artifactId, final String version, final Dependency... transitive) {
+    return new Dependency("test", artifactId, version, null, new ArrayList<>(Arrays.asList(transitive)));
+  }
+
+  @Test
+  void aggregatorDependenciesNeedAnInjectedDependant() {
+    final Dependency child = DependencyGraphTest.dependency("child", "1");
+    final Dependency aggregator = DependencyGraphTest.dependency("aggregator", "1", child);
+    final Dependency root = DependencyGraphTest.dependency("root", "1", child);
+    final DependencyGraph graph = DependencyGraph.resolve(Arrays.asList(aggregator, root), VersionMediator.NEAREST);
+    Assertions.assertTrue(graph.isReachable(aggregator, Collections.emptySet()));
+    Assertions.assertFalse(graph.isReachable(child, Collections.emptySet()));
+    Assertions.assertFalse(graph.isReachable(child, Collections.singleton(DependencyGraphTest.dependency("other", "1"))));
+    Assertions.assertTrue(graph.isReachable(child, Collections.singleton(root)));
+  }
+
+  @Test
+  void cyclesAreBroken() {
+    final Dependency first = DependencyGraphTest.dependency("first", "1");
+    final Dependency second = DependencyGraphTest.dependency("second", "1", first);
+    first.getTransitive().add(second);
+    final DependencyGraph graph = DependencyGraph.resolve(Collections.singletonList(first), VersionMediator.NEAREST);
+    Assertions.assertEquals(Arrays.asList(first, second), graph.getArtifacts());
+    Assertions.assertEquals(Collections.singletonList(second), new ArrayList<>(graph.getChildren(first)));
+    Assertions.assertEquals(Collections.singletonList(first), new ArrayList<>(graph.getChildren(second)));
+  }
+
+  @Test
+  void diamondsResolveSharedDependenciesOnce() {
+    final Dependency shared = DependencyGraphTest.dependency("shared", "1");
+    final Dependency left = DependencyGraphTest.dependency("left", "1", shared);
+    final Dependency right = DependencyGraphTest.dependency("right", "1", shared);
+    final Dependency root = DependencyGraphTest.dependency("root", "1", left, right);
+    final DependencyGraph graph = DependencyGraph.resolve(Collections.singletonList(root), VersionMediator.NEAREST);
+    Assertions.assertEquals(Arrays.asList(root, left, right, shared), graph.getArtifacts());
+    Assertions.assertEquals(Arrays.asList(left, right), new ArrayList<>(graph.getParents(shared)));
+    Assertions.assertTrue(graph.isReachable(shared, Collections.singleton(right)));
+  }
+
+  @Test
+  void highestVersionWins() {
+    final Dependency dropped = DependencyGraphTest.dependency("dropped", "1");
+    final Dependency older = DependencyGraphTest.dependency("library", "1.0", dropped);
+    final Dependency newer = DependencyGraphTest.dependency("library", "1.10");
+    final Dependency near = DependencyGraphTest.dependency("near", "1", older);
+    final Dependency far = DependencyGraphTest.dependency("far", "1", DependencyGraphTest.dependency("middle", "1", newer));
+    final DependencyGraph graph = DependencyGraph.resolve(Arrays.asList(near, far), VersionMediator.HIGHEST);
+    final List<Dependency> artifacts = graph.getArtifacts();
+    Assertions.assertTrue(artifacts.contains(newer));
+    Assertions.assertFalse(artifacts.contains(older));
+    Assertions.assertFalse(artifacts.contains(dropped), "Transitive dependencies of losing versions are dropped");
+    Assertions.assertEquals(Collections.singletonList(newer), new ArrayList<>(graph.getChildren(near)));
+  }
+
+  @Test
+  void nearestVersionWins() {
+    final Dependency older = DependencyGraphTest.dependency("library", "1.0");
+    final Dependency newer = DependencyGraphTest.dependency("library", "2.0");
+    final Dependency near = DependencyGraphTest.dependency("near", "1", older);
+    final Dependency far = DependencyGraphTest.dependency("far", "1", DependencyGraphTest.dependency("middle", "1", newer));
+    final DependencyGraph graph = DependencyGraph.resolve(Arrays.asList(far, near), VersionMediator.NEAREST);
+    Assertions.assertTrue(graph.getArtifacts().contains(older));
+    Assertions.assertFalse(graph.getArtifacts().contains(newer));
+    final Dependency middle = DependencyGraphTest.dependency("middle", "1");
+    Assertions.assertEquals(Collections.singletonList(older), new ArrayList<>(graph.getChildren(middle)));
+  }
+
+  @Test
+  void nearestVersionWinsOnEqualDepthByDeclaration() {
+    final Dependency first = DependencyGraphTest.dependency("library", "1.0");
+    final Dependency second = DependencyGraphTest.dependency("library", "2.0");
+    final DependencyGraph graph = DependencyGraph.resolve(Arrays.asList(DependencyGraphTest.dependency("a", "1", first), DependencyGraphTest.dependency("b", "1", second)), VersionMediator.NEAREST);
+    Assertions.assertTrue(graph.getArtifacts().contains(first));
+    Assertions.assertFalse(graph.getArtifacts().contains(second));
+  }
+
+  @Test
+  void rootsAreMediatedToo() {
+    final Dependency root = DependencyGraphTest.dependency("library", "1.0");
+    final Dependency newer = DependencyGraphTest.dependency("library", "2.0");
+    final Dependency other = DependencyGraphTest.dependency("other", "1", newer);
+    final DependencyGraph nearest = DependencyGraph.resolve(Arrays.asList(root, other), VersionMediator.NEAREST);
+    final DependencyGraph highest = DependencyGraph.resolve(Arrays.asList(root, other), VersionMediator.HIGHEST);
+    Assertions.assertEquals(Arrays.asList(root, other), nearest.getRoots());
+    Assertions.assertEquals(Arrays.asList(newer, other), highest.getRoots());
+    Assertions.assertEquals(Arrays.asList(other, newer), highest.getArtifacts());
+  }
+}
@@ -0,0 +1,86 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+
+package tr.com.infumia.small.resolver.graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class VersionsTest {
+
+  private static void assertEqual(final String first, final String second) {
+    Assertions.assertEquals(0, Versions.compare(first, second), first + " == " + second);
+    Assertions.assertEquals(0, Versions.compare(second, first), second + " == " + first);
+  }
+
+  private static void assertOrder(final String... versions) {
+    for (int index = 1; index < versions.length; index++) {
+      final String lower = versions[index - 1];
+      final String higher = versions[index];
+      Assertions.assertTrue(Versions.compare(lower, higher) < 0, lower + " < " + higher);
+      Assertions.assertTrue(Versions.compare(higher, lower) > 0, higher + " > " + lower);
+    }
+  }
+
+  @Test
+  void aliasesEqualTheirQualifier() {
+    VersionsTest.assertEqual("1.0-a", "1.0-alpha");
+    VersionsTest.assertEqual("1.0-a1", "1.0-alpha-1");
+    VersionsTest.assertEqual("1.0-b2", "1.0-beta-2");
+    VersionsTest.assertEqual("1.0-m3", "1.0-milestone.3");
+    VersionsTest.assertEqual("1.0-cr1", "1.0-rc1");
+    VersionsTest.assertEqual("1.0-ga", "1.0");
+    VersionsTest.assertEqual("1.0-final", "1.0-release");
+    VersionsTest.assertEqual("1.0-ALPHA", "1.0-a");
+  }
+
+  @Test
+  void numbersCompareNumerically() {
+    VersionsTest.assertOrder("1.2", "1.9", "1.10", "2", "10.0");
+    VersionsTest.assertOrder("1.0-rc9", "1.0-rc10");
+    VersionsTest.assertEqual("1.01", "1.1");
+  }
+
+  @Test
+  void qualifiersCompareByMaturity() {
+    VersionsTest.assertOrder("1.0-alpha", "1.0-beta", "1.0-milestone", "1.0-rc", "1.0-snapshot", "1.0", "1.0-sp");
+    VersionsTest.assertOrder("1.0-alpha-1", "1.0-alpha-2", "1.0-beta-1");
+    VersionsTest.assertOrder("1.0", "1.0.1-alpha", "1.0.1");
+  }
+
+  @Test
+  void trailingZerosAndReleaseQualifiersAreIgnored() {
+    VersionsTest.assertEqual("1", "1.0");
+    VersionsTest.assertEqual("1.0", "1.0.0");
+    VersionsTest.assertEqual("1.0.0-final", "1");
+  }
+
+  @Test
+  void unknownQualifiersSortAfterKnownOnes() {
+    VersionsTest.assertOrder("1.0-sp", "1.0-custom");
+    VersionsTest.assertOrder("1.0-bar", "1.0-foo");
+    VersionsTest.assertOrder("1.0-foo", "1.0.1");
+  }
+}